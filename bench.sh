@@ -0,0 +1,58 @@
+#!/usr/bin/env bash
+set -euo pipefail
+
+# Fires CONCURRENCY schema registrations at once, each to its own subject, and reports how many
+# completed and how long they took. Run it once against a server started with
+# SCHEMA_REGISTRY_VIRTUAL_THREADS=false and once with true to compare the two modes.
+
+SR_URL="${SR_URL:-http://localhost:8081}"
+SR_USER="${SR_USER:-admin}"
+SR_PASS="${SR_PASS:-test}"
+CONCURRENCY="${CONCURRENCY:-2000}"
+TIMEOUT="${TIMEOUT:-30}"
+RUN_ID="${RUN_ID:-$(date +%s)}"
+CT="Content-Type: application/vnd.schemaregistry.v1+json"
+
+export SR_URL SR_USER SR_PASS TIMEOUT RUN_ID CT
+
+# Prints "<http status> <seconds>" for one registration; status 000 means no response
+register() {
+  local i="$1"
+  local data="{\"schema\":\"{\\\"type\\\":\\\"record\\\",\\\"name\\\":\\\"Bench$i\\\",\\\"fields\\\":[{\\\"name\\\":\\\"f\\\",\\\"type\\\":\\\"string\\\"}]}\"}"
+  curl -s -o /dev/null -w '%{http_code} %{time_total}\n' --max-time "$TIMEOUT" \
+    -u "$SR_USER:$SR_PASS" -X POST -H "$CT" -d "$data" \
+    "$SR_URL/subjects/bench-$RUN_ID-$i/versions" || true
+}
+export -f register
+
+metric() {
+  { curl -s "$SR_URL/actuator/metrics/$1" | grep -o '"value":[0-9.E]*' | head -1 | cut -d: -f2; } || true
+}
+
+echo "== Benchmark: $CONCURRENCY concurrent registrations against $SR_URL =="
+threads_before=$(metric jvm.threads.live)
+
+start=$(date +%s.%N)
+results=$(seq 1 "$CONCURRENCY" | xargs -P "$CONCURRENCY" -I{} bash -c 'register {}')
+end=$(date +%s.%N)
+
+echo ""
+echo "Responses by HTTP status:"
+echo "$results" | awk '{print $1}' | sort | uniq -c | awk '{printf "  %s  %s\n", $2, $1}'
+
+echo ""
+echo "Latency of successful registrations (s):"
+echo "$results" | awk '$1 == 200 {print $2}' | sort -n | awk '
+  function pct(p,   i) { i = int(NR * p); if (i < NR * p) i++; return t[i] }
+  { t[NR] = $1 }
+  END {
+    if (NR == 0) { print "  none"; exit }
+    printf "  p50 %.3f  p99 %.3f  max %.3f\n", pct(0.50), pct(0.99), t[NR]
+  }'
+
+echo ""
+echo "==============================="
+awk -v s="$start" -v e="$end" 'BEGIN { printf "  WALL TIME: %.2fs\n", e - s }'
+threads_peak=$(metric jvm.threads.peak)
+echo "  LIVE THREADS: ${threads_before:-?} before, ${threads_peak:-?} peak"
+echo "==============================="
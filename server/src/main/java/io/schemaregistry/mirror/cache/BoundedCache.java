@@ -0,0 +1,143 @@
+package io.schemaregistry.mirror.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+// Size-bounded LRU cache shared by request threads. Once the total weight of the entries goes over
+// maxWeight, the least recently used ones are evicted. Each entry weighs 1 unless a weigher is
+// given. A maxWeight of 0 or less turns caching off.
+public final class BoundedCache<K, V> {
+
+    private final long maxWeight;
+    private final ToLongFunction<? super V> weigher;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<K, V> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public BoundedCache(long maxEntries) {
+        this(maxEntries, value -> 1);
+    }
+
+    public BoundedCache(long maxWeight, ToLongFunction<? super V> weigher) {
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+    }
+
+    public V get(K key) {
+        V value;
+        lock.lock();
+        try {
+            value = entries.get(key);
+        } finally {
+            lock.unlock();
+        }
+        if (value != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return value;
+    }
+
+    // The loader runs outside the lock, so two threads missing on the same key may both load it
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        V value = get(key);
+        if (value != null) return value;
+        value = loader.apply(key);
+        if (value != null) {
+            put(key, value);
+        }
+        return value;
+    }
+
+    public void put(K key, V value) {
+        if (maxWeight <= 0) return;
+        long entryWeight = weigher.applyAsLong(value);
+        if (entryWeight > maxWeight) return;
+
+        lock.lock();
+        try {
+            V previous = entries.put(key, value);
+            weight += entryWeight - (previous != null ? weigher.applyAsLong(previous) : 0);
+            Iterator<Map.Entry<K, V>> eldest = entries.entrySet().iterator();
+            while (weight > maxWeight && eldest.hasNext()) {
+                Map.Entry<K, V> entry = eldest.next();
+                weight -= weigher.applyAsLong(entry.getValue());
+                eldest.remove();
+                evictions.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidate(K key) {
+        lock.lock();
+        try {
+            V removed = entries.remove(key);
+            if (removed != null) {
+                weight -= weigher.applyAsLong(removed);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            entries.clear();
+            weight = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long weight() {
+        lock.lock();
+        try {
+            return weight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    // Share of lookups answered from the cache, 0 before the first lookup
+    public double hitRatio() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+}
@@ -0,0 +1,64 @@
+package io.schemaregistry.mirror.cache;
+
+import java.util.function.Function;
+
+// BoundedCache split into stripes by key hash, each with its own lock and an even share of the
+// capacity. Threads looking up different keys mostly take different locks, so a hot cache on the
+// read path does not serialize its readers. Eviction is least recently used within a stripe.
+public final class StripedCache<K, V> {
+
+    private static final int MAX_STRIPES = 16;
+
+    private final BoundedCache<K, V>[] stripes;
+
+    @SuppressWarnings("unchecked")
+    public StripedCache(int maxEntries) {
+        int count = Math.max(1, Math.min(MAX_STRIPES, maxEntries));
+        stripes = new BoundedCache[count];
+        for (int i = 0; i < count; i++) {
+            // Spread the remainder, so the stripes add up to maxEntries
+            stripes[i] = new BoundedCache<>(maxEntries / count + (i < maxEntries % count ? 1 : 0));
+        }
+    }
+
+    private BoundedCache<K, V> stripe(K key) {
+        int h = key.hashCode();
+        return stripes[((h ^ (h >>> 16)) & 0x7fffffff) % stripes.length];
+    }
+
+    public V get(K key) {
+        return stripe(key).get(key);
+    }
+
+    // As BoundedCache.get(key, loader): the loader runs outside the stripe's lock
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        return stripe(key).get(key, loader);
+    }
+
+    public void put(K key, V value) {
+        stripe(key).put(key, value);
+    }
+
+    public void invalidate(K key) {
+        stripe(key).invalidate(key);
+    }
+
+    public int size() {
+        int size = 0;
+        for (BoundedCache<K, V> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    // Share of lookups answered from the cache, 0 before the first lookup
+    public double hitRatio() {
+        long hits = 0;
+        long total = 0;
+        for (BoundedCache<K, V> stripe : stripes) {
+            hits += stripe.hitCount();
+            total += stripe.hitCount() + stripe.missCount();
+        }
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+}
@@ -1,7 +1,10 @@
 package io.schemaregistry.mirror.config;
 
+import com.fasterxml.jackson.core.JsonFactoryBuilder;
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -9,8 +12,14 @@ import org.springframework.context.annotation.Configuration;
 public class JacksonConfig {
 
     @Bean
-    public ObjectMapper objectMapper() {
-        ObjectMapper mapper = new ObjectMapper();
+    public ObjectMapper objectMapper(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        JsonFactoryBuilder factory = new JsonFactoryBuilder();
+        if (virtualThreads) {
+            // Jackson recycles buffers through a ThreadLocal by default. Virtual threads are never
+            // reused, so every request would allocate fresh buffers; share one pool instead.
+            factory.recyclerPool(JsonRecyclerPools.newConcurrentDequePool());
+        }
+        ObjectMapper mapper = new ObjectMapper(factory.build());
         mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
         return mapper;
     }
@@ -1,16 +1,28 @@
 package io.schemaregistry.mirror.config;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.binder.MeterBinder;
+import io.schemaregistry.mirror.cache.BoundedCache;
+import io.schemaregistry.mirror.leader.LeaderElector;
+import io.schemaregistry.mirror.service.CompatibilityService;
+import io.schemaregistry.mirror.service.SubjectLocks;
 import io.schemaregistry.mirror.storage.KafkaSchemaStore;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.concurrent.TimeUnit;
+
 @Configuration
 public class MetricsConfig {
 
     @Bean
-    public MeterBinder schemaRegistryMetrics(KafkaSchemaStore store) {
+    public MeterBinder schemaRegistryMetrics(KafkaSchemaStore store, SubjectLocks subjectLocks,
+                                             LeaderElector leaderElector,
+                                             CompatibilityService compatibilityService) {
+        BoundedCache<?, ?> parsedSchemas = compatibilityService.getParsedSchemaCache();
         return (MeterRegistry registry) -> {
             registry.gauge("schema.registry.subjects.count", store,
                 s -> s.getSubjects(false).size());
@@ -20,6 +32,85 @@ public class MetricsConfig {
 
             registry.gauge("schema.registry.subjects.total.count", store,
                 s -> s.getSubjects(true).size());
+
+            registry.gauge("schema.registry.schema.text.bytes", store,
+                KafkaSchemaStore::getSchemaTextBytes);
+
+            registry.gauge("schema.registry.schema.text.cache.hit.ratio", store,
+                KafkaSchemaStore::getSchemaTextCacheHitRatio);
+
+            // Parsed schemas reused by compatibility checks; weight is the cached schema text in bytes
+            FunctionCounter.builder("schema.registry.parsed.schema.cache.hits", parsedSchemas,
+                BoundedCache::hitCount).register(registry);
+
+            FunctionCounter.builder("schema.registry.parsed.schema.cache.misses", parsedSchemas,
+                BoundedCache::missCount).register(registry);
+
+            FunctionCounter.builder("schema.registry.parsed.schema.cache.evictions", parsedSchemas,
+                BoundedCache::evictionCount).register(registry);
+
+            registry.gauge("schema.registry.parsed.schema.cache.weight", parsedSchemas, BoundedCache::weight);
+
+            FunctionCounter.builder("schema.registry.normalized.schema.cache.hits",
+                compatibilityService.getCanonicalFormCache(), BoundedCache::hitCount).register(registry);
+
+            FunctionCounter.builder("schema.registry.normalized.schema.cache.misses",
+                compatibilityService.getCanonicalFormCache(), BoundedCache::missCount).register(registry);
+
+            registry.gauge("schema.registry.compatibility.cache.hit.ratio", compatibilityService.getVerdictCache(),
+                BoundedCache::hitRatio);
+
+            // Writes per group commit is records / batches
+            FunctionCounter.builder("schema.registry.writer.batches", store,
+                KafkaSchemaStore::getWriterBatchCount).register(registry);
+
+            FunctionCounter.builder("schema.registry.writer.records", store,
+                KafkaSchemaStore::getWriterRecordCount).register(registry);
+
+            // Where the reader's time goes: decoding is summed over the decode pool's threads
+            FunctionCounter.builder("schema.registry.reader.decode.seconds", store,
+                s -> s.getReaderDecodeNanos() / 1e9).register(registry);
+
+            FunctionCounter.builder("schema.registry.reader.apply.seconds", store,
+                s -> s.getReaderApplyNanos() / 1e9).register(registry);
+
+            FunctionCounter.builder("schema.registry.reader.records", store,
+                KafkaSchemaStore::getReaderRecordsRead).register(registry);
+
+            // Schema ID leasing: each lease is one round trip through _schemas, conflicts are leases
+            // lost to another writer
+            registry.gauge("schema.registry.id.lease.size", store, KafkaSchemaStore::getIdLeaseSize);
+
+            registry.gauge("schema.registry.id.lease.remaining", store, KafkaSchemaStore::getIdLeaseRemaining);
+
+            FunctionTimer.builder("schema.registry.id.lease.latency", store,
+                KafkaSchemaStore::getIdLeaseRequests, KafkaSchemaStore::getIdLeaseNanos, TimeUnit.NANOSECONDS)
+                .register(registry);
+
+            FunctionCounter.builder("schema.registry.id.lease.conflicts", store,
+                KafkaSchemaStore::getIdLeaseConflicts).register(registry);
+
+            // 1 on the instance that accepts writes; always 1 with leader election disabled
+            Gauge.builder("schema.registry.leader", leaderElector, e -> e.isLeader() ? 1 : 0)
+                .register(registry);
+
+            // Per-stripe contention on subject write serialization: a hot stripe has a high
+            // contended / acquisitions ratio and a growing wait time
+            for (int i = 0; i < subjectLocks.stripeCount(); i++) {
+                int stripe = i;
+                String tag = String.valueOf(stripe);
+                FunctionCounter.builder("schema.registry.subject.lock.acquisitions", subjectLocks,
+                    l -> l.getAcquisitions(stripe)).tag("stripe", tag).register(registry);
+
+                FunctionCounter.builder("schema.registry.subject.lock.contended", subjectLocks,
+                    l -> l.getContended(stripe)).tag("stripe", tag).register(registry);
+
+                FunctionCounter.builder("schema.registry.subject.lock.wait.seconds", subjectLocks,
+                    l -> l.getWaitNanos(stripe) / 1e9).tag("stripe", tag).register(registry);
+
+                Gauge.builder("schema.registry.subject.lock.queued", subjectLocks,
+                    l -> l.getQueued(stripe)).tag("stripe", tag).register(registry);
+            }
         };
     }
 }
@@ -11,10 +11,28 @@ public class SchemaRegistryProperties {
     private String groupId = "schema-registry-mirror";
     private String compatibilityLevel = "BACKWARD";
     private String mode = "READWRITE";
-    private String host = "localhost";
+    private String host = "";
     private int port = 8081;
     private long initTimeout = 60000;
     private long kafkaStoreTimeoutMs = 500;
+    private String storageMode = "PLAIN";
+    private int schemaTextCacheSize = 1000;
+    private long parsedSchemaCacheBytes = 16 * 1024 * 1024;
+    private long normalizedSchemaCacheBytes = 4 * 1024 * 1024;
+    private int compatibilityCacheSize = 10000;
+    private int compatibilityCheckThreads = 0;
+    private int referenceCacheSize = 1000;
+    private String checkpointPath = "";
+    private long checkpointIntervalMs = 60000;
+    private int readerDecodeThreads = 0;
+    private long writeLingerMs = 0;
+    private int writeMaxBatchSize = 500;
+    private int subjectLockStripes = 64;
+    private int subjectLockThreads = 0;
+    private int idLeaseSize = 20;
+    private boolean leaderElectionEnabled = false;
+    private long leaderForwardTimeoutMs = 10000;
+    private long minOffsetTimeoutMs = 1000;
     private Auth auth = new Auth();
 
     public String getKafkaBootstrapServers() {
@@ -73,6 +91,11 @@ public class SchemaRegistryProperties {
         this.host = host;
     }
 
+    // localhost when no host is set, which only a single instance can use
+    public String getAdvertisedHost() {
+        return host == null || host.isBlank() ? "localhost" : host;
+    }
+
     public int getPort() {
         return port;
     }
@@ -97,6 +120,150 @@ public class SchemaRegistryProperties {
         this.kafkaStoreTimeoutMs = kafkaStoreTimeoutMs;
     }
 
+    public String getStorageMode() {
+        return storageMode;
+    }
+
+    public void setStorageMode(String storageMode) {
+        this.storageMode = storageMode;
+    }
+
+    public int getSchemaTextCacheSize() {
+        return schemaTextCacheSize;
+    }
+
+    public void setSchemaTextCacheSize(int schemaTextCacheSize) {
+        this.schemaTextCacheSize = schemaTextCacheSize;
+    }
+
+    public long getParsedSchemaCacheBytes() {
+        return parsedSchemaCacheBytes;
+    }
+
+    public void setParsedSchemaCacheBytes(long parsedSchemaCacheBytes) {
+        this.parsedSchemaCacheBytes = parsedSchemaCacheBytes;
+    }
+
+    public long getNormalizedSchemaCacheBytes() {
+        return normalizedSchemaCacheBytes;
+    }
+
+    public void setNormalizedSchemaCacheBytes(long normalizedSchemaCacheBytes) {
+        this.normalizedSchemaCacheBytes = normalizedSchemaCacheBytes;
+    }
+
+    public int getCompatibilityCacheSize() {
+        return compatibilityCacheSize;
+    }
+
+    public void setCompatibilityCacheSize(int compatibilityCacheSize) {
+        this.compatibilityCacheSize = compatibilityCacheSize;
+    }
+
+    public int getCompatibilityCheckThreads() {
+        return compatibilityCheckThreads;
+    }
+
+    public void setCompatibilityCheckThreads(int compatibilityCheckThreads) {
+        this.compatibilityCheckThreads = compatibilityCheckThreads;
+    }
+
+    public int getReferenceCacheSize() {
+        return referenceCacheSize;
+    }
+
+    public void setReferenceCacheSize(int referenceCacheSize) {
+        this.referenceCacheSize = referenceCacheSize;
+    }
+
+    public String getCheckpointPath() {
+        return checkpointPath;
+    }
+
+    public void setCheckpointPath(String checkpointPath) {
+        this.checkpointPath = checkpointPath;
+    }
+
+    public long getCheckpointIntervalMs() {
+        return checkpointIntervalMs;
+    }
+
+    public void setCheckpointIntervalMs(long checkpointIntervalMs) {
+        this.checkpointIntervalMs = checkpointIntervalMs;
+    }
+
+    public int getReaderDecodeThreads() {
+        return readerDecodeThreads;
+    }
+
+    public void setReaderDecodeThreads(int readerDecodeThreads) {
+        this.readerDecodeThreads = readerDecodeThreads;
+    }
+
+    public long getWriteLingerMs() {
+        return writeLingerMs;
+    }
+
+    public void setWriteLingerMs(long writeLingerMs) {
+        this.writeLingerMs = writeLingerMs;
+    }
+
+    public int getWriteMaxBatchSize() {
+        return writeMaxBatchSize;
+    }
+
+    public void setWriteMaxBatchSize(int writeMaxBatchSize) {
+        this.writeMaxBatchSize = writeMaxBatchSize;
+    }
+
+    public int getSubjectLockStripes() {
+        return subjectLockStripes;
+    }
+
+    public void setSubjectLockStripes(int subjectLockStripes) {
+        this.subjectLockStripes = subjectLockStripes;
+    }
+
+    public int getSubjectLockThreads() {
+        return subjectLockThreads;
+    }
+
+    public void setSubjectLockThreads(int subjectLockThreads) {
+        this.subjectLockThreads = subjectLockThreads;
+    }
+
+    public int getIdLeaseSize() {
+        return idLeaseSize;
+    }
+
+    public void setIdLeaseSize(int idLeaseSize) {
+        this.idLeaseSize = idLeaseSize;
+    }
+
+    public boolean isLeaderElectionEnabled() {
+        return leaderElectionEnabled;
+    }
+
+    public void setLeaderElectionEnabled(boolean leaderElectionEnabled) {
+        this.leaderElectionEnabled = leaderElectionEnabled;
+    }
+
+    public long getLeaderForwardTimeoutMs() {
+        return leaderForwardTimeoutMs;
+    }
+
+    public void setLeaderForwardTimeoutMs(long leaderForwardTimeoutMs) {
+        this.leaderForwardTimeoutMs = leaderForwardTimeoutMs;
+    }
+
+    public long getMinOffsetTimeoutMs() {
+        return minOffsetTimeoutMs;
+    }
+
+    public void setMinOffsetTimeoutMs(long minOffsetTimeoutMs) {
+        this.minOffsetTimeoutMs = minOffsetTimeoutMs;
+    }
+
     public Auth getAuth() {
         return auth;
     }
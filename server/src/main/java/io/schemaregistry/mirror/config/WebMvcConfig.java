@@ -1,5 +1,7 @@
 package io.schemaregistry.mirror.config;
 
+import io.schemaregistry.mirror.consistency.MinOffsetInterceptor;
+import io.schemaregistry.mirror.leader.LeaderForwardingInterceptor;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -7,6 +9,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.ContentNegotiationConfigurer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -31,9 +34,20 @@ public class WebMvcConfig implements WebMvcConfigurer {
     public static final String OCTET_STREAM = "application/octet-stream";
 
     private final ObjectMapper objectMapper;
+    private final LeaderForwardingInterceptor leaderForwardingInterceptor;
+    private final MinOffsetInterceptor minOffsetInterceptor;
 
-    public WebMvcConfig(ObjectMapper objectMapper) {
+    public WebMvcConfig(ObjectMapper objectMapper, LeaderForwardingInterceptor leaderForwardingInterceptor,
+                        MinOffsetInterceptor minOffsetInterceptor) {
         this.objectMapper = objectMapper;
+        this.leaderForwardingInterceptor = leaderForwardingInterceptor;
+        this.minOffsetInterceptor = minOffsetInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(leaderForwardingInterceptor);
+        registry.addInterceptor(minOffsetInterceptor);
     }
 
     @Override
@@ -105,6 +119,8 @@ public class WebMvcConfig implements WebMvcConfigurer {
             }
         });
         registration.addUrlPatterns("/*");
+        // Write endpoints return futures, and their responses are written on the async dispatch
+        registration.setDispatcherTypes(DispatcherType.REQUEST, DispatcherType.ASYNC);
         registration.setOrder(1);
         return registration;
     }
@@ -0,0 +1,75 @@
+package io.schemaregistry.mirror.consistency;
+
+import io.schemaregistry.mirror.config.SchemaRegistryProperties;
+import io.schemaregistry.mirror.exception.SchemaRegistryException;
+import io.schemaregistry.mirror.leader.LeaderOnly;
+import io.schemaregistry.mirror.storage.KafkaSchemaStore;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+// Holds back a read that carries X-Schema-Registry-Min-Offset until this replica has applied that
+// offset, so a client reads its own write wherever the load balancer sends it. The wait does not
+// hold a thread: the request is suspended and dispatched again once the offset is applied, or
+// fails with an operation timeout after schema.registry.min-offset-timeout-ms.
+@Component
+public class MinOffsetInterceptor implements HandlerInterceptor {
+
+    public static final String MIN_OFFSET_HEADER = "X-Schema-Registry-Min-Offset";
+
+    // Set on the request when the wait failed, for the dispatch that follows to report
+    private static final String FAILURE_ATTRIBUTE = MinOffsetInterceptor.class.getName() + ".failure";
+
+    private final KafkaSchemaStore store;
+    private final long timeoutMs;
+
+    public MinOffsetInterceptor(KafkaSchemaStore store, SchemaRegistryProperties properties) {
+        this.store = store;
+        this.timeoutMs = properties.getMinOffsetTimeoutMs();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Writes are applied against the leader's latest state anyway
+        if (!(handler instanceof HandlerMethod method) || method.hasMethodAnnotation(LeaderOnly.class)) {
+            return true;
+        }
+        Object failure = request.getAttribute(FAILURE_ATTRIBUTE);
+        if (failure instanceof SchemaRegistryException e) {
+            throw e;
+        } else if (failure instanceof Throwable e) {
+            throw SchemaRegistryException.storeException("Error waiting for the store to catch up", e);
+        }
+        String header = request.getHeader(MIN_OFFSET_HEADER);
+        if (header == null || header.isBlank()) {
+            return true;
+        }
+        long minOffset;
+        try {
+            minOffset = Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            throw SchemaRegistryException.invalidOffsetException(header);
+        }
+
+        CompletableFuture<Long> applied = store.waitForOffset(minOffset, timeoutMs);
+        if (applied.isDone() && !applied.isCompletedExceptionally()) {
+            return true;
+        }
+        AsyncContext async = request.startAsync(request, response);
+        async.setTimeout(timeoutMs * 2);
+        applied.whenComplete((offset, e) -> {
+            if (e != null) {
+                request.setAttribute(FAILURE_ATTRIBUTE,
+                    e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+            }
+            async.dispatch();
+        });
+        return false;
+    }
+}
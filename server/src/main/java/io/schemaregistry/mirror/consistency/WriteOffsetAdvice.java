@@ -0,0 +1,39 @@
+package io.schemaregistry.mirror.consistency;
+
+import io.schemaregistry.mirror.leader.LeaderOnly;
+import io.schemaregistry.mirror.storage.KafkaSchemaStore;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+// Adds the applied _schemas offset to successful write responses. The response is written only
+// after the write has been read back, so the offset covers it. A client passes it back as
+// X-Schema-Registry-Min-Offset to read its own write from any replica.
+@ControllerAdvice
+public class WriteOffsetAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String OFFSET_HEADER = "X-Schema-Registry-Offset";
+
+    private final KafkaSchemaStore store;
+
+    public WriteOffsetAdvice(KafkaSchemaStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return returnType.hasMethodAnnotation(LeaderOnly.class);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        response.getHeaders().set(OFFSET_HEADER, String.valueOf(store.getLastWrittenOffset()));
+        return body;
+    }
+}
@@ -2,12 +2,14 @@ package io.schemaregistry.mirror.controller;
 
 import io.schemaregistry.mirror.config.WebMvcConfig;
 import io.schemaregistry.mirror.exception.SchemaRegistryException;
+import io.schemaregistry.mirror.leader.LeaderOnly;
 import io.schemaregistry.mirror.schema.CompatibilityLevel;
 import io.schemaregistry.mirror.service.SchemaRegistryService;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 public class ConfigController {
@@ -24,19 +26,22 @@ public class ConfigController {
     }
 
     @PutMapping(value = "/config", produces = {WebMvcConfig.SCHEMA_REGISTRY_V1_JSON, WebMvcConfig.SCHEMA_REGISTRY_DEFAULT_JSON, WebMvcConfig.JSON}, consumes = {WebMvcConfig.SCHEMA_REGISTRY_V1_JSON, WebMvcConfig.SCHEMA_REGISTRY_DEFAULT_JSON, WebMvcConfig.JSON, WebMvcConfig.OCTET_STREAM})
-    public Map<String, String> setGlobalConfig(@RequestBody Map<String, String> request) {
+    @LeaderOnly
+    public CompletableFuture<Map<String, String>> setGlobalConfig(@RequestBody Map<String, String> request) {
         String levelStr = request.get("compatibility");
         CompatibilityLevel level = parseCompatibilityLevel(levelStr);
         return service.setGlobalConfig(level);
     }
 
     @DeleteMapping(value = "/config", produces = {WebMvcConfig.SCHEMA_REGISTRY_V1_JSON, WebMvcConfig.SCHEMA_REGISTRY_DEFAULT_JSON, WebMvcConfig.JSON})
-    public Map<String, String> deleteGlobalConfig() {
+    @LeaderOnly
+    public CompletableFuture<Map<String, String>> deleteGlobalConfig() {
         String previousLevel = service.getGlobalConfig().get("compatibilityLevel");
-        service.setGlobalConfig(CompatibilityLevel.BACKWARD);
-        Map<String, String> result = new LinkedHashMap<>();
-        result.put("compatibilityLevel", previousLevel);
-        return result;
+        return service.setGlobalConfig(CompatibilityLevel.BACKWARD).thenApply(config -> {
+            Map<String, String> result = new LinkedHashMap<>();
+            result.put("compatibilityLevel", previousLevel);
+            return result;
+        });
     }
 
     @GetMapping(value = "/config/{subject}", produces = {WebMvcConfig.SCHEMA_REGISTRY_V1_JSON, WebMvcConfig.SCHEMA_REGISTRY_DEFAULT_JSON, WebMvcConfig.JSON})
@@ -47,7 +52,8 @@ public class ConfigController {
     }
 
     @PutMapping(value = "/config/{subject}", produces = {WebMvcConfig.SCHEMA_REGISTRY_V1_JSON, WebMvcConfig.SCHEMA_REGISTRY_DEFAULT_JSON, WebMvcConfig.JSON}, consumes = {WebMvcConfig.SCHEMA_REGISTRY_V1_JSON, WebMvcConfig.SCHEMA_REGISTRY_DEFAULT_JSON, WebMvcConfig.JSON, WebMvcConfig.OCTET_STREAM})
-    public Map<String, String> setSubjectConfig(
+    @LeaderOnly
+    public CompletableFuture<Map<String, String>> setSubjectConfig(
             @PathVariable("subject") String subject,
             @RequestBody Map<String, String> request) {
         String levelStr = request.get("compatibility");
@@ -56,7 +62,8 @@ public class ConfigController {
     }
 
     @DeleteMapping(value = "/config/{subject}", produces = {WebMvcConfig.SCHEMA_REGISTRY_V1_JSON, WebMvcConfig.SCHEMA_REGISTRY_DEFAULT_JSON, WebMvcConfig.JSON})
-    public Map<String, String> deleteSubjectConfig(@PathVariable("subject") String subject) {
+    @LeaderOnly
+    public CompletableFuture<Map<String, String>> deleteSubjectConfig(@PathVariable("subject") String subject) {
         return service.deleteSubjectConfig(subject);
     }
 
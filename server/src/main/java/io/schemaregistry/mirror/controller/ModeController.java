@@ -1,6 +1,7 @@
 package io.schemaregistry.mirror.controller;
 
 import io.schemaregistry.mirror.config.WebMvcConfig;
+import io.schemaregistry.mirror.leader.LeaderOnly;
 import io.schemaregistry.mirror.service.SchemaRegistryService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -8,6 +9,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 public class ModeController {
@@ -24,7 +26,8 @@ public class ModeController {
     }
 
     @PutMapping(value = "/mode", produces = {WebMvcConfig.SCHEMA_REGISTRY_V1_JSON, WebMvcConfig.SCHEMA_REGISTRY_DEFAULT_JSON, WebMvcConfig.JSON}, consumes = {WebMvcConfig.SCHEMA_REGISTRY_V1_JSON, WebMvcConfig.SCHEMA_REGISTRY_DEFAULT_JSON, WebMvcConfig.JSON, WebMvcConfig.OCTET_STREAM})
-    public Map<String, String> setGlobalMode(
+    @LeaderOnly
+    public CompletableFuture<Map<String, String>> setGlobalMode(
             @RequestBody Map<String, String> request,
             @RequestParam(value = "force", required = false, defaultValue = "false") boolean force) {
         String mode = request.get("mode");
@@ -47,7 +50,8 @@ public class ModeController {
     }
 
     @PutMapping(value = "/mode/{subject}", produces = {WebMvcConfig.SCHEMA_REGISTRY_V1_JSON, WebMvcConfig.SCHEMA_REGISTRY_DEFAULT_JSON, WebMvcConfig.JSON}, consumes = {WebMvcConfig.SCHEMA_REGISTRY_V1_JSON, WebMvcConfig.SCHEMA_REGISTRY_DEFAULT_JSON, WebMvcConfig.JSON, WebMvcConfig.OCTET_STREAM})
-    public Map<String, String> setSubjectMode(
+    @LeaderOnly
+    public CompletableFuture<Map<String, String>> setSubjectMode(
             @PathVariable("subject") String subject,
             @RequestBody Map<String, String> request,
             @RequestParam(value = "force", required = false, defaultValue = "false") boolean force) {
@@ -56,7 +60,8 @@ public class ModeController {
     }
 
     @DeleteMapping(value = "/mode/{subject}", produces = {WebMvcConfig.SCHEMA_REGISTRY_V1_JSON, WebMvcConfig.SCHEMA_REGISTRY_DEFAULT_JSON, WebMvcConfig.JSON})
-    public Map<String, String> deleteSubjectMode(@PathVariable("subject") String subject) {
+    @LeaderOnly
+    public CompletableFuture<Map<String, String>> deleteSubjectMode(@PathVariable("subject") String subject) {
         return service.deleteSubjectMode(subject);
     }
 }
@@ -4,6 +4,7 @@ import io.confluent.kafka.schemaregistry.client.rest.entities.Schema;
 import io.confluent.kafka.schemaregistry.client.rest.entities.SchemaString;
 import io.confluent.kafka.schemaregistry.client.rest.entities.SubjectVersion;
 import io.schemaregistry.mirror.config.WebMvcConfig;
+import io.schemaregistry.mirror.service.SchemaPage;
 import io.schemaregistry.mirror.service.SchemaRegistryService;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.web.bind.annotation.*;
@@ -14,12 +15,30 @@ import java.util.List;
 @RestController
 public class SchemasController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final SchemaRegistryService service;
 
     public SchemasController(SchemaRegistryService service) {
         this.service = service;
     }
 
+    @GetMapping(value = "/schemas", produces = {WebMvcConfig.SCHEMA_REGISTRY_V1_JSON, WebMvcConfig.SCHEMA_REGISTRY_DEFAULT_JSON, WebMvcConfig.JSON})
+    public List<Schema> listSchemas(
+            @RequestParam(value = "subjectPrefix", required = false) String subjectPrefix,
+            @RequestParam(value = "deleted", required = false, defaultValue = "false") boolean deleted,
+            @RequestParam(value = "latestOnly", required = false, defaultValue = "false") boolean latestOnly,
+            @RequestParam(value = "offset", required = false, defaultValue = "0") int offset,
+            @RequestParam(value = "limit", required = false, defaultValue = "-1") int limit,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            HttpServletResponse response) {
+        SchemaPage page = service.listSchemas(subjectPrefix, deleted, latestOnly, offset, limit, cursor);
+        if (page.getNextCursor() != null) {
+            response.setHeader(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return page.getSchemas();
+    }
+
     @GetMapping(value = "/schemas/ids/{id}", produces = {WebMvcConfig.SCHEMA_REGISTRY_V1_JSON, WebMvcConfig.SCHEMA_REGISTRY_DEFAULT_JSON, WebMvcConfig.JSON})
     public SchemaString getSchemaById(
             @PathVariable("id") int id,
@@ -4,12 +4,14 @@ import io.confluent.kafka.schemaregistry.client.rest.entities.Schema;
 import io.confluent.kafka.schemaregistry.client.rest.entities.requests.RegisterSchemaRequest;
 import io.confluent.kafka.schemaregistry.client.rest.entities.requests.RegisterSchemaResponse;
 import io.schemaregistry.mirror.config.WebMvcConfig;
+import io.schemaregistry.mirror.leader.LeaderOnly;
 import io.schemaregistry.mirror.service.SchemaRegistryService;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.web.bind.annotation.*;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 public class SubjectVersionsController {
@@ -53,18 +55,21 @@ public class SubjectVersionsController {
     }
 
     @PostMapping(value = "/subjects/{subject}/versions", produces = {WebMvcConfig.SCHEMA_REGISTRY_V1_JSON, WebMvcConfig.SCHEMA_REGISTRY_DEFAULT_JSON, WebMvcConfig.JSON}, consumes = {WebMvcConfig.SCHEMA_REGISTRY_V1_JSON, WebMvcConfig.SCHEMA_REGISTRY_DEFAULT_JSON, WebMvcConfig.JSON, WebMvcConfig.OCTET_STREAM})
-    public RegisterSchemaResponse registerSchema(
+    @LeaderOnly
+    public CompletableFuture<RegisterSchemaResponse> registerSchema(
             @PathVariable("subject") String subject,
             @RequestBody RegisterSchemaRequest request,
             @RequestParam(value = "normalize", required = false, defaultValue = "false") boolean normalize) {
-        int id = service.registerSchema(subject, request, normalize);
-        RegisterSchemaResponse response = new RegisterSchemaResponse();
-        response.setId(id);
-        return response;
+        return service.registerSchema(subject, request, normalize).thenApply(id -> {
+            RegisterSchemaResponse response = new RegisterSchemaResponse();
+            response.setId(id);
+            return response;
+        });
     }
 
     @DeleteMapping(value = "/subjects/{subject}/versions/{version}", produces = {WebMvcConfig.SCHEMA_REGISTRY_V1_JSON, WebMvcConfig.SCHEMA_REGISTRY_DEFAULT_JSON, WebMvcConfig.JSON})
-    public Integer deleteSchemaVersion(
+    @LeaderOnly
+    public CompletableFuture<Integer> deleteSchemaVersion(
             @PathVariable("subject") String subject,
             @PathVariable("version") String version,
             @RequestParam(value = "permanent", required = false, defaultValue = "false") boolean permanent) {
@@ -3,10 +3,12 @@ package io.schemaregistry.mirror.controller;
 import io.confluent.kafka.schemaregistry.client.rest.entities.Schema;
 import io.confluent.kafka.schemaregistry.client.rest.entities.requests.RegisterSchemaRequest;
 import io.schemaregistry.mirror.config.WebMvcConfig;
+import io.schemaregistry.mirror.leader.LeaderOnly;
 import io.schemaregistry.mirror.service.SchemaRegistryService;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 public class SubjectsController {
@@ -34,7 +36,8 @@ public class SubjectsController {
     }
 
     @DeleteMapping(value = "/subjects/{subject}", produces = {WebMvcConfig.SCHEMA_REGISTRY_V1_JSON, WebMvcConfig.SCHEMA_REGISTRY_DEFAULT_JSON, WebMvcConfig.JSON})
-    public List<Integer> deleteSubject(
+    @LeaderOnly
+    public CompletableFuture<List<Integer>> deleteSubject(
             @PathVariable("subject") String subject,
             @RequestParam(value = "permanent", required = false, defaultValue = "false") boolean permanent) {
         return service.deleteSubject(subject, permanent);
@@ -27,6 +27,9 @@ public class SchemaRegistryException extends RuntimeException {
         return httpStatus;
     }
 
+    // --- 400 errors ---
+    public static final int BAD_REQUEST_ERROR_CODE = 400;
+
     // --- 404 errors ---
     public static final String SUBJECT_NOT_FOUND_MESSAGE_FORMAT = "Subject '%s' not found.";
     public static final int SUBJECT_NOT_FOUND_ERROR_CODE = 40401;
@@ -189,6 +192,18 @@ public class SchemaRegistryException extends RuntimeException {
             INVALID_SUBJECT_ERROR_CODE, HttpStatus.UNPROCESSABLE_ENTITY);
     }
 
+    public static SchemaRegistryException invalidCursorException(String cursor) {
+        return new SchemaRegistryException(
+            "The specified cursor '" + cursor + "' is not valid.",
+            BAD_REQUEST_ERROR_CODE, HttpStatus.BAD_REQUEST);
+    }
+
+    public static SchemaRegistryException invalidOffsetException(String offset) {
+        return new SchemaRegistryException(
+            "The specified offset '" + offset + "' is not valid.",
+            BAD_REQUEST_ERROR_CODE, HttpStatus.BAD_REQUEST);
+    }
+
     public static SchemaRegistryException storeException(String message, Throwable cause) {
         return new SchemaRegistryException(message, STORE_ERROR_CODE, HttpStatus.INTERNAL_SERVER_ERROR, cause);
     }
@@ -0,0 +1,237 @@
+package io.schemaregistry.mirror.leader;
+
+import io.schemaregistry.mirror.config.SchemaRegistryProperties;
+import io.schemaregistry.mirror.storage.KafkaSchemaStore;
+import io.schemaregistry.mirror.storage.model.NoopKey;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+// Elects one instance as the writer. Every instance joins the consumer group and subscribes to
+// _schemas; its single partition goes to exactly one member, which becomes the candidate. The
+// partition stays paused, so membership costs no fetches. The candidate produces a NOOP record and
+// waits until it has read it back, which means it has applied everything the previous leader
+// wrote. It then commits its instance id and URL as the group's offset metadata, where followers
+// look it up. The id is drawn per process, so an instance recognises its own stale announcement
+// even when another instance shares its URL.
+//
+// Each leadership has an epoch, above the group generation and every epoch read so far. The
+// catch-up NOOP announces it and every later write is tagged with it. Readers ignore tagged
+// records of an older epoch once a newer NOOP precedes them, so a leader that stalled past its
+// session and kept writing cannot apply anything after its successor's NOOP. Its writes fail,
+// and it resigns once it reads that NOOP.
+// With election disabled every instance is its own leader, as before.
+@Component
+public class LeaderElector {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaderElector.class);
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(500);
+
+    private final boolean enabled;
+    private final String url;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final TopicPartition partition;
+    private final KafkaSchemaStore store;
+    private final Consumer<byte[], byte[]> consumer;
+    private Thread thread;
+    private volatile boolean running = true;
+
+    // Election state, written by the election thread only
+    private volatile boolean assigned;
+    private volatile boolean leader;
+    private volatile String leaderUrl;
+    private int epoch;
+    private CompletableFuture<Void> catchUp;
+
+    @Autowired
+    public LeaderElector(SchemaRegistryProperties properties, KafkaSchemaStore store) {
+        this(properties, store, properties.isLeaderElectionEnabled() ? createConsumer(properties) : null);
+    }
+
+    LeaderElector(SchemaRegistryProperties properties, KafkaSchemaStore store, Consumer<byte[], byte[]> consumer) {
+        this.enabled = consumer != null;
+        if (enabled && (properties.getHost() == null || properties.getHost().isBlank())) {
+            // Every instance would advertise localhost, so followers would forward to themselves
+            throw new IllegalStateException(
+                "SCHEMA_REGISTRY_HOST must be set to an address other instances can reach when leader election is enabled");
+        }
+        this.url = "http://" + properties.getAdvertisedHost() + ":" + properties.getPort();
+        this.partition = new TopicPartition(properties.getTopic(), 0);
+        this.store = store;
+        this.consumer = consumer;
+    }
+
+    private static Consumer<byte[], byte[]> createConsumer(SchemaRegistryProperties properties) {
+        Properties props = new Properties();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, properties.getKafkaBootstrapServers());
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, properties.getGroupId());
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class.getName());
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class.getName());
+        return new KafkaConsumer<>(props);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        subscribe();
+        thread = new Thread(() -> {
+            while (running) {
+                try {
+                    pollOnce();
+                } catch (WakeupException e) {
+                    // shutdown
+                } catch (KafkaException e) {
+                    log.warn("Leader election poll failed", e);
+                }
+            }
+            consumer.close();
+        }, "leader-election");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void subscribe() {
+        consumer.subscribe(List.of(partition.topic()), new ConsumerRebalanceListener() {
+            @Override
+            public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+                // Membership only: never fetch from _schemas here
+                consumer.pause(partitions);
+                if (partitions.contains(partition)) {
+                    assigned = true;
+                    log.info("Assigned {}, catching up before taking leadership", partition);
+                }
+            }
+
+            @Override
+            public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+                if (partitions.contains(partition)) {
+                    resign();
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (consumer != null) {
+            consumer.wakeup();
+        }
+        if (thread != null) {
+            try {
+                thread.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // One round of the election loop; tests drive it directly after subscribe()
+    void pollOnce() {
+        consumer.poll(POLL_INTERVAL);
+        if (!assigned) {
+            leaderUrl = publishedLeader();
+            return;
+        }
+        if (leader) {
+            if (store.getFencedEpoch() > epoch) {
+                // A newer leader has announced itself; wait for the group to reassign the partition
+                log.warn("Fenced off by leader epoch {}, resigning epoch {}", store.getFencedEpoch(), epoch);
+                resign();
+            }
+            return;
+        }
+        if (catchUp == null) {
+            epoch = Math.max(consumer.groupMetadata().generationId(), store.getFencedEpoch() + 1);
+            store.setWriterEpoch(epoch);
+            catchUp = store.produce(new NoopKey(epoch), null);
+        } else if (catchUp.isDone()) {
+            boolean caughtUp = !catchUp.isCompletedExceptionally();
+            catchUp = null;
+            if (caughtUp) {
+                try {
+                    // Fails if the group has rebalanced since the assignment, so a stale
+                    // candidate cannot announce itself
+                    consumer.commitSync(Map.of(partition, new OffsetAndMetadata(0, instanceId + " " + url)));
+                } catch (KafkaException e) {
+                    log.warn("Could not announce leadership of {}, retrying", partition, e);
+                    return;
+                }
+                leaderUrl = url;
+                leader = true;
+                log.info("Elected leader at {} with epoch {}", url, epoch);
+            }
+        }
+    }
+
+    private void resign() {
+        if (leader) {
+            log.info("Lost leadership of {}", partition);
+        }
+        assigned = false;
+        leader = false;
+        leaderUrl = null;
+        catchUp = null;
+    }
+
+    private String publishedLeader() {
+        OffsetAndMetadata committed = consumer.committed(Set.of(partition)).get(partition);
+        String published = committed != null ? committed.metadata() : null;
+        if (published == null || published.isEmpty()) {
+            return null;
+        }
+        int separator = published.indexOf(' ');
+        if (separator < 0) {
+            // Announced by a version that published only its URL
+            return published;
+        }
+        // Our own id here is left over from a leadership we have since lost
+        return published.substring(0, separator).equals(instanceId) ? null : published.substring(separator + 1);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Whether this instance may accept writes
+    public boolean isLeader() {
+        return !enabled || leader;
+    }
+
+    // Base URL of the current leader, or null while none is known
+    public String getLeaderUrl() {
+        return enabled ? leaderUrl : url;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    String getInstanceId() {
+        return instanceId;
+    }
+}
@@ -0,0 +1,121 @@
+package io.schemaregistry.mirror.leader;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.schemaregistry.mirror.config.SchemaRegistryProperties;
+import io.schemaregistry.mirror.config.WebMvcConfig;
+import io.schemaregistry.mirror.consistency.WriteOffsetAdvice;
+import io.schemaregistry.mirror.exception.SchemaRegistryException;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Sends @LeaderOnly requests that reach a follower on to the leader, and relays the leader's
+// response. The forward is asynchronous, so the follower holds no thread while the leader works.
+// Reads never pass through here and are always served locally.
+@Component
+public class LeaderForwardingInterceptor implements HandlerInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaderForwardingInterceptor.class);
+
+    // Set on forwarded requests, so that an instance that is no longer leader fails them instead of
+    // forwarding them again
+    static final String FORWARDED_HEADER = "X-Schema-Registry-Forwarded-By";
+
+    private static final List<String> FORWARDED_HEADERS = List.of("Content-Type", "Accept", "Authorization");
+
+    private final LeaderElector elector;
+    private final ObjectMapper objectMapper;
+    private final Duration timeout;
+    private final HttpClient client;
+
+    public LeaderForwardingInterceptor(LeaderElector elector, SchemaRegistryProperties properties,
+                                       ObjectMapper objectMapper) {
+        this.elector = elector;
+        this.objectMapper = objectMapper;
+        this.timeout = Duration.ofMillis(properties.getLeaderForwardTimeoutMs());
+        this.client = HttpClient.newBuilder().connectTimeout(timeout).build();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        if (!(handler instanceof HandlerMethod method) || !method.hasMethodAnnotation(LeaderOnly.class)
+                || elector.isLeader()) {
+            return true;
+        }
+        if (request.getHeader(FORWARDED_HEADER) != null) {
+            throw SchemaRegistryException.unknownLeaderException(
+                "Request forwarded to " + elector.getUrl() + ", which is not the leader");
+        }
+        String leaderUrl = elector.getLeaderUrl();
+        if (leaderUrl == null) {
+            throw SchemaRegistryException.unknownLeaderException("Leader is not known yet");
+        }
+
+        String target = leaderUrl + request.getRequestURI()
+            + (request.getQueryString() != null ? "?" + request.getQueryString() : "");
+        byte[] body = request.getInputStream().readAllBytes();
+        HttpRequest.Builder forward = HttpRequest.newBuilder(URI.create(target))
+            .timeout(timeout)
+            .method(request.getMethod(), body.length > 0
+                ? HttpRequest.BodyPublishers.ofByteArray(body) : HttpRequest.BodyPublishers.noBody())
+            .header(FORWARDED_HEADER, elector.getUrl());
+        for (String header : FORWARDED_HEADERS) {
+            String value = request.getHeader(header);
+            if (value != null) {
+                forward.header(header, value);
+            }
+        }
+
+        // Pass the request and response in, so the relayed response goes through the same wrappers
+        AsyncContext async = request.startAsync(request, response);
+        async.setTimeout(timeout.toMillis() * 2);
+        client.sendAsync(forward.build(), HttpResponse.BodyHandlers.ofByteArray())
+            .whenComplete((leaderResponse, e) -> {
+                HttpServletResponse out = (HttpServletResponse) async.getResponse();
+                try {
+                    if (e != null) {
+                        log.warn("Forwarding {} {} to {} failed", request.getMethod(), request.getRequestURI(),
+                            leaderUrl, e);
+                        writeError(out, SchemaRegistryException.requestForwardingFailedException(
+                            "Error while forwarding the request to the leader " + leaderUrl, e));
+                    } else {
+                        out.setStatus(leaderResponse.statusCode());
+                        leaderResponse.headers().firstValue("Content-Type").ifPresent(out::setContentType);
+                        leaderResponse.headers().firstValue(WriteOffsetAdvice.OFFSET_HEADER)
+                            .ifPresent(offset -> out.setHeader(WriteOffsetAdvice.OFFSET_HEADER, offset));
+                        out.getOutputStream().write(leaderResponse.body());
+                    }
+                } catch (IOException | RuntimeException writeFailure) {
+                    log.warn("Could not relay the leader's response", writeFailure);
+                } finally {
+                    async.complete();
+                }
+            });
+        return false;
+    }
+
+    private void writeError(HttpServletResponse response, SchemaRegistryException e) throws IOException {
+        response.setStatus(e.getHttpStatus().value());
+        response.setContentType(WebMvcConfig.SCHEMA_REGISTRY_V1_JSON);
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("error_code", e.getErrorCode());
+        body.put("message", e.getMessage());
+        response.getWriter().write(objectMapper.writeValueAsString(body));
+    }
+}
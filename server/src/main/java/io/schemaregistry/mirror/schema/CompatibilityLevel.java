@@ -23,6 +23,11 @@ public enum CompatibilityLevel {
         return name;
     }
 
+    // Transitive levels check against every version; the others only against the latest
+    public boolean isTransitive() {
+        return this == BACKWARD_TRANSITIVE || this == FORWARD_TRANSITIVE || this == FULL_TRANSITIVE;
+    }
+
     public static CompatibilityLevel forName(String name) {
         if (name == null) return null;
         for (CompatibilityLevel level : values()) {
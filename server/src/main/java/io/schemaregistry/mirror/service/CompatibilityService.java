@@ -4,17 +4,27 @@ import io.confluent.kafka.schemaregistry.ParsedSchema;
 import io.confluent.kafka.schemaregistry.ParsedSchemaHolder;
 import io.confluent.kafka.schemaregistry.SchemaProvider;
 import io.confluent.kafka.schemaregistry.avro.AvroSchemaProvider;
+import io.confluent.kafka.schemaregistry.client.rest.entities.Schema;
 import io.confluent.kafka.schemaregistry.client.rest.entities.SchemaReference;
 import io.confluent.kafka.schemaregistry.json.JsonSchemaProvider;
 import io.confluent.kafka.schemaregistry.protobuf.ProtobufSchemaProvider;
+import io.schemaregistry.mirror.cache.BoundedCache;
+import io.schemaregistry.mirror.config.SchemaRegistryProperties;
 import io.schemaregistry.mirror.exception.SchemaRegistryException;
 import io.schemaregistry.mirror.schema.CompatibilityLevel;
+import io.schemaregistry.mirror.storage.SchemaDigest;
+import io.schemaregistry.mirror.storage.model.SchemaValue;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class CompatibilityService {
@@ -22,20 +32,141 @@ public class CompatibilityService {
     private static final Logger log = LoggerFactory.getLogger(CompatibilityService.class);
 
     private final Map<String, SchemaProvider> providers;
+    private final ReferenceResolver references;
 
-    public CompatibilityService() {
-        providers = new LinkedHashMap<>();
-        SchemaProvider avro = new AvroSchemaProvider();
-        SchemaProvider json = new JsonSchemaProvider();
-        SchemaProvider protobuf = new ProtobufSchemaProvider();
+    // Parsed schemas by content. Registering version N of a subject checks it against the N-1
+    // versions before it, and without the cache each check would parse them all again. Weighed by
+    // schema text length; the parsed form is larger, but grows with it. The key includes the
+    // fingerprint of what the references resolve to, so an entry parsed against a referenced
+    // version that a hard delete has since replaced is never served, on any instance.
+    private final BoundedCache<ParsedSchemaKey, CachedSchema> parsedSchemas;
+
+    // Incompatibility messages per (candidate, previous version, level). A verdict depends only on
+    // the content of the two schemas, so it stays valid across config changes; a different level
+    // is a different key. Content digests include what the references resolve to, so a verdict
+    // against a referenced version that a hard delete has since replaced is never served.
+    private final BoundedCache<VerdictKey, List<String>> verdicts;
+
+    // Canonical form and digest of normalize=true requests by the digest of their raw text, so that
+    // a client resending the same text is served without parsing it. Weighed by canonical length.
+    // Keyed like the parsed schemas, including what the references resolve to.
+    private final BoundedCache<ParsedSchemaKey, CanonicalSchema> canonicalForms;
+
+    // Runs the pairwise checks of transitive levels in parallel; null with a single thread
+    private final ForkJoinPool checkPool;
+
+    @Autowired
+    public CompatibilityService(SchemaRegistryProperties properties, ReferenceResolver references) {
+        this(properties, defaultProviders(references), references);
+    }
+
+    CompatibilityService(SchemaRegistryProperties properties, Map<String, SchemaProvider> providers,
+                         ReferenceResolver references) {
+        this.references = references;
+        this.parsedSchemas = new BoundedCache<>(properties.getParsedSchemaCacheBytes(), CachedSchema::weight);
+        this.verdicts = new BoundedCache<>(properties.getCompatibilityCacheSize());
+        this.canonicalForms = new BoundedCache<>(properties.getNormalizedSchemaCacheBytes(),
+            canonical -> canonical.schema().length());
+        int threads = properties.getCompatibilityCheckThreads() > 0
+            ? properties.getCompatibilityCheckThreads() : Runtime.getRuntime().availableProcessors();
+        if (threads > 1) {
+            AtomicInteger workers = new AtomicInteger();
+            this.checkPool = new ForkJoinPool(threads, pool -> {
+                ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                t.setName("compatibility-checker-" + workers.incrementAndGet());
+                return t;
+            }, null, false);
+        } else {
+            this.checkPool = null;
+        }
+        this.providers = providers;
+    }
+
+    // The providers resolve references through the store, with each version's closure cached
+    private static Map<String, SchemaProvider> defaultProviders(ReferenceResolver references) {
+        Map<String, SchemaProvider> providers = new LinkedHashMap<>();
+        SchemaProvider avro = new AvroSchemaProvider() {
+            @Override
+            public Map<String, String> resolveReferences(Schema schema) {
+                return references.resolve(schema.getReferences());
+            }
+        };
+        SchemaProvider json = new JsonSchemaProvider() {
+            @Override
+            public Map<String, String> resolveReferences(Schema schema) {
+                return references.resolve(schema.getReferences());
+            }
+        };
+        SchemaProvider protobuf = new ProtobufSchemaProvider() {
+            @Override
+            public Map<String, String> resolveReferences(Schema schema) {
+                return references.resolve(schema.getReferences());
+            }
+        };
         providers.put("AVRO", avro);
         providers.put("JSON", json);
         providers.put("PROTOBUF", protobuf);
+        Map<String, Object> config = Map.of(SchemaProvider.SCHEMA_VERSION_FETCHER_CONFIG, references);
+        providers.values().forEach(provider -> provider.configure(config));
+        return providers;
+    }
+
+    public ParsedContent parseSchema(String schemaType, String schema,
+                                     List<SchemaReference> references, boolean normalize) {
+        String type = schemaType != null ? schemaType : "AVRO";
+        if (schema == null) {
+            return new ParsedContent(parse(type, null, references, normalize), null);
+        }
+        return parseCached(type, schema, SchemaDigest.of(type, schema, references), references, normalize);
+    }
+
+    // A stored version is looked up by the digest it was registered with, so checking against a
+    // long history hashes no schema text
+    public ParsedContent parseSchema(SchemaValue stored) {
+        String type = stored.getSchemaType() != null ? stored.getSchemaType() : "AVRO";
+        String digest = stored.getMd5() != null
+            ? stored.getMd5() : SchemaDigest.of(type, stored.getSchema(), stored.getReferences());
+        return parseCached(type, stored.getSchema(), digest, stored.getReferences(), false);
     }
 
-    public ParsedSchema parseSchema(String schemaType, String schema,
-                                    List<SchemaReference> references, boolean normalize) {
+    private ParsedContent parseCached(String type, String schema, String digest,
+                                      List<SchemaReference> references, boolean normalize) {
+        ParsedSchemaKey key = new ParsedSchemaKey(type, digest, normalize, this.references.fingerprint(references));
+        return parsedSchemas.get(key, k -> new CachedSchema(
+            new ParsedContent(parse(type, schema, references, normalize), k.contentDigest()),
+            schema.length())).content();
+    }
+
+    // The normalized text of a schema and the content digest it is stored under
+    public CanonicalSchema canonicalize(String schemaType, String schema, List<SchemaReference> references) {
         String type = schemaType != null ? schemaType : "AVRO";
+        if (schema == null) {
+            return toCanonical(type, parseSchema(type, null, references, true).schema(), references);
+        }
+        ParsedSchemaKey key = new ParsedSchemaKey(type, SchemaDigest.of(type, schema, references), true,
+            this.references.fingerprint(references));
+        return canonicalForms.get(key,
+            k -> toCanonical(type, parseSchema(type, schema, references, true).schema(), references));
+    }
+
+    private static CanonicalSchema toCanonical(String type, ParsedSchema parsed, List<SchemaReference> references) {
+        String canonical = parsed.canonicalString();
+        return new CanonicalSchema(canonical, SchemaDigest.of(type, canonical, references));
+    }
+
+    public BoundedCache<?, ?> getParsedSchemaCache() {
+        return parsedSchemas;
+    }
+
+    public BoundedCache<?, ?> getVerdictCache() {
+        return verdicts;
+    }
+
+    public BoundedCache<?, ?> getCanonicalFormCache() {
+        return canonicalForms;
+    }
+
+    private ParsedSchema parse(String type, String schema, List<SchemaReference> references, boolean normalize) {
         SchemaProvider provider = providers.get(type);
         if (provider == null) {
             throw SchemaRegistryException.invalidSchemaException("Invalid schema type: " + type);
@@ -58,8 +189,9 @@ public class CompatibilityService {
     }
 
     public List<String> testCompatibility(CompatibilityLevel level,
-                                          ParsedSchema newSchema,
-                                          List<ParsedSchema> previousSchemas) {
+                                          ParsedContent newSchema,
+                                          List<ParsedContent> previousSchemas,
+                                          boolean verbose) {
         if (level == null || level == CompatibilityLevel.NONE) {
             return Collections.emptyList();
         }
@@ -72,18 +204,87 @@ public class CompatibilityService {
             return Collections.emptyList();
         }
 
-        // Wrap previous schemas as ParsedSchemaHolder
-        List<ParsedSchemaHolder> holders = previousSchemas.stream()
-            .map(ps -> (ParsedSchemaHolder) new SimpleParsedSchemaHolder(ps))
-            .collect(Collectors.toList());
+        if (previousSchemas.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // Checked pair by pair so each verdict can be cached. Like the Confluent checker, this
+        // starts at the newest version, stops at the first one that fails and, below the
+        // transitive levels, only looks at the newest. Verbose transitive checks go on and report
+        // every failing version, newest first.
+        int oldest = level.isTransitive() ? 0 : previousSchemas.size() - 1;
+        if (checkPool == null || previousSchemas.size() - oldest < 2) {
+            List<String> messages = new ArrayList<>();
+            for (int i = previousSchemas.size() - 1; i >= oldest; i--) {
+                messages.addAll(verdict(level, confluentLevel, newSchema, previousSchemas.get(i)));
+                if (!messages.isEmpty() && !verbose) {
+                    break;
+                }
+            }
+            return messages;
+        }
+
+        // Long histories are checked on the pool, newest versions submitted first. The results are
+        // still read newest first; a failure cancels the checks of older versions that have not
+        // started yet.
+        List<ForkJoinTask<List<String>>> checks = new ArrayList<>();
+        for (int i = previousSchemas.size() - 1; i >= oldest; i--) {
+            ParsedContent previous = previousSchemas.get(i);
+            checks.add(checkPool.submit(() -> verdict(level, confluentLevel, newSchema, previous)));
+        }
+        List<String> messages = new ArrayList<>();
+        for (int i = 0; i < checks.size(); i++) {
+            messages.addAll(checks.get(i).join());
+            if (!messages.isEmpty() && !verbose) {
+                checks.subList(i + 1, checks.size()).forEach(check -> check.cancel(false));
+                break;
+            }
+        }
+        return messages;
+    }
+
+    private List<String> verdict(CompatibilityLevel level,
+                                 io.confluent.kafka.schemaregistry.CompatibilityLevel confluentLevel,
+                                 ParsedContent newSchema, ParsedContent previous) {
+        return verdicts.get(new VerdictKey(newSchema.digest(), previous.digest(), level),
+            k -> List.copyOf(newSchema.schema().isCompatible(confluentLevel,
+                List.of(new SimpleParsedSchemaHolder(previous.schema())))));
+    }
 
-        return newSchema.isCompatible(confluentLevel, holders);
+    @PreDestroy
+    public void stop() {
+        if (checkPool != null) {
+            checkPool.shutdownNow();
+        }
     }
 
     public List<String> getSupportedTypes() {
         return List.of("AVRO", "JSON", "PROTOBUF");
     }
 
+    // The digest covers the type, text and reference coordinates, the fingerprint what the
+    // references resolve to
+    private record ParsedSchemaKey(String type, String digest, boolean normalize, String references) {
+
+        String contentDigest() {
+            String content = normalize ? digest + "/normalized" : digest;
+            return references.isEmpty() ? content : content + "/" + references;
+        }
+    }
+
+    private record CachedSchema(ParsedContent content, long weight) {
+    }
+
+    // A parsed schema and the digest of its content, computed once when it is parsed
+    public record ParsedContent(ParsedSchema schema, String digest) {
+    }
+
+    public record CanonicalSchema(String schema, String digest) {
+    }
+
+    private record VerdictKey(String candidate, String previous, CompatibilityLevel level) {
+    }
+
     private static class SimpleParsedSchemaHolder implements ParsedSchemaHolder {
         private ParsedSchema schema;
 
@@ -0,0 +1,158 @@
+package io.schemaregistry.mirror.service;
+
+import io.confluent.kafka.schemaregistry.client.SchemaVersionFetcher;
+import io.confluent.kafka.schemaregistry.client.rest.entities.Schema;
+import io.confluent.kafka.schemaregistry.client.rest.entities.SchemaReference;
+import io.schemaregistry.mirror.cache.BoundedCache;
+import io.schemaregistry.mirror.config.SchemaRegistryProperties;
+import io.schemaregistry.mirror.exception.SchemaRegistryException;
+import io.schemaregistry.mirror.storage.KafkaSchemaStore;
+import io.schemaregistry.mirror.storage.StoreSnapshot;
+import io.schemaregistry.mirror.storage.model.SchemaKey;
+import io.schemaregistry.mirror.storage.model.SchemaValue;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+// Resolves schema references against the in-memory store, for the schema providers to parse
+// schemas that import others. The transitive closure of each (subject, version) is computed once
+// and cached as reference name -> schema text, dependencies before the schemas that import them.
+// A cached closure records the id of every version it was built from and is rebuilt when one of
+// them no longer matches, so replicas that learn of a hard delete from _schemas do not serve a
+// stale closure.
+@Component
+public class ReferenceResolver implements SchemaVersionFetcher {
+
+    private final Supplier<StoreSnapshot> snapshots;
+    private final BoundedCache<SchemaKey, Closure> closures;
+
+    @Autowired
+    public ReferenceResolver(KafkaSchemaStore store, SchemaRegistryProperties properties) {
+        this(store::snapshot, properties.getReferenceCacheSize());
+    }
+
+    ReferenceResolver(Supplier<StoreSnapshot> snapshots, int cacheSize) {
+        this.snapshots = snapshots;
+        this.closures = new BoundedCache<>(cacheSize);
+    }
+
+    @Override
+    public Schema getByVersion(String subject, int version, boolean lookupDeletedSchema) {
+        StoreSnapshot snapshot = snapshots.get();
+        SchemaValue sv = snapshot.getSchema(subject, resolveVersion(snapshot, subject, version), lookupDeletedSchema);
+        if (sv == null) return null;
+        return new Schema(sv.getSubject(), sv.getVersion(), sv.getId(), sv.getSchemaType(),
+            sv.getReferences(), sv.getSchema());
+    }
+
+    // Schemas the references resolve to, directly or through other references, by reference name
+    public Map<String, String> resolve(List<SchemaReference> references) {
+        if (references == null || references.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> schemas = new LinkedHashMap<>();
+        addReferences(snapshots.get(), references, schemas, new ArrayList<>(), new HashSet<>());
+        return schemas;
+    }
+
+    // Ids of the versions the references resolve to, directly or through other references. An id
+    // stands for one schema text, so reference lists with the same names and fingerprint resolve
+    // to the same schemas, and caches keyed on it never serve content a hard delete replaced.
+    public String fingerprint(List<SchemaReference> references) {
+        if (references == null || references.isEmpty()) {
+            return "";
+        }
+        StoreSnapshot snapshot = snapshots.get();
+        StringBuilder ids = new StringBuilder();
+        for (SchemaReference ref : references) {
+            SchemaValue target = target(snapshot, ref);
+            ids.append(target.getId());
+            for (Dependency dependency : closureOf(snapshot, target, new HashSet<>()).dependencies()) {
+                ids.append(',').append(dependency.id());
+            }
+            ids.append(';');
+        }
+        return ids.toString();
+    }
+
+    public BoundedCache<?, ?> getClosureCache() {
+        return closures;
+    }
+
+    // inProgress holds the versions whose closures are being built further up the stack
+    private void addReferences(StoreSnapshot snapshot, List<SchemaReference> references,
+                               Map<String, String> schemas, List<Dependency> dependencies,
+                               Set<SchemaKey> inProgress) {
+        for (SchemaReference ref : references) {
+            if (ref.getName() == null) {
+                throw SchemaRegistryException.invalidSchemaException("Invalid reference: " + ref);
+            }
+            if (schemas.containsKey(ref.getName())) continue;
+
+            SchemaValue target = target(snapshot, ref);
+            Closure closure = closureOf(snapshot, target, inProgress);
+            closure.schemas().forEach(schemas::putIfAbsent);
+            schemas.put(ref.getName(), target.getSchema());
+            dependencies.add(new Dependency(target.toKey(), target.getId()));
+            dependencies.addAll(closure.dependencies());
+        }
+    }
+
+    private static SchemaValue target(StoreSnapshot snapshot, SchemaReference ref) {
+        int version = ref.getVersion() != null ? resolveVersion(snapshot, ref.getSubject(), ref.getVersion()) : -1;
+        SchemaValue target = snapshot.getSchema(ref.getSubject(), version, true);
+        if (target == null) {
+            throw SchemaRegistryException.invalidSchemaException("No schema reference found for subject \""
+                + ref.getSubject() + "\" and version " + ref.getVersion());
+        }
+        return target;
+    }
+
+    private Closure closureOf(StoreSnapshot snapshot, SchemaValue sv, Set<SchemaKey> inProgress) {
+        SchemaKey key = sv.toKey();
+        Closure cached = closures.get(key);
+        if (cached != null && cached.id() == sv.getId() && cached.isCurrent(snapshot)) {
+            return cached;
+        }
+        // Latest (-1) references, or versions re-registered after a hard delete, can close a cycle
+        if (!inProgress.add(key)) {
+            throw SchemaRegistryException.invalidSchemaException("Circular reference through subject \""
+                + key.getSubject() + "\" and version " + key.getVersion());
+        }
+        Map<String, String> schemas = new LinkedHashMap<>();
+        List<Dependency> dependencies = new ArrayList<>();
+        try {
+            if (sv.getReferences() != null) {
+                addReferences(snapshot, sv.getReferences(), schemas, dependencies, inProgress);
+            }
+        } finally {
+            inProgress.remove(key);
+        }
+        Closure closure = new Closure(sv.getId(), Collections.unmodifiableMap(schemas), List.copyOf(dependencies));
+        closures.put(key, closure);
+        return closure;
+    }
+
+    // -1 refers to the latest version, as in the Confluent clients
+    private static int resolveVersion(StoreSnapshot snapshot, String subject, int version) {
+        return version == -1 ? snapshot.getLatestVersion(subject, true) : version;
+    }
+
+    private record Dependency(SchemaKey key, int id) {
+    }
+
+    private record Closure(int id, Map<String, String> schemas, List<Dependency> dependencies) {
+
+        boolean isCurrent(StoreSnapshot snapshot) {
+            for (Dependency dependency : dependencies) {
+                SchemaKey key = dependency.key();
+                if (snapshot.getSchemaId(key.getSubject(), key.getVersion(), true) != dependency.id()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
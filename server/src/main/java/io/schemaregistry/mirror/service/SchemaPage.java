@@ -0,0 +1,25 @@
+package io.schemaregistry.mirror.service;
+
+import io.confluent.kafka.schemaregistry.client.rest.entities.Schema;
+
+import java.util.List;
+
+// One page of GET /schemas. nextCursor is null when there are no further pages.
+public class SchemaPage {
+
+    private final List<Schema> schemas;
+    private final String nextCursor;
+
+    public SchemaPage(List<Schema> schemas, String nextCursor) {
+        this.schemas = schemas;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Schema> getSchemas() {
+        return schemas;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -8,9 +8,13 @@ import io.schemaregistry.mirror.schema.CompatibilityLevel;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public interface SchemaRegistryService {
 
+    // Writes return futures that complete once the change is readable from the store, so callers
+    // need not hold a thread while Kafka acknowledges it. Validation errors are thrown directly.
+
     // Schema read operations
     Schema getSchemaById(int id, String subject, boolean fetchMaxId);
 
@@ -24,6 +28,9 @@ public interface SchemaRegistryService {
 
     List<String> getSchemaTypes();
 
+    SchemaPage listSchemas(String subjectPrefix, boolean lookupDeletedSchemas, boolean latestOnly,
+                           int offset, int limit, String cursor);
+
     // Subject operations
     List<String> listSubjects(String subjectPrefix, boolean lookupDeletedSubjects);
 
@@ -37,15 +44,15 @@ public interface SchemaRegistryService {
     List<Integer> getReferencedBy(String subject, String version);
 
     // Register
-    int registerSchema(String subject, RegisterSchemaRequest request, boolean normalize);
+    CompletableFuture<Integer> registerSchema(String subject, RegisterSchemaRequest request, boolean normalize);
 
     // Lookup
     Schema lookupSchema(String subject, RegisterSchemaRequest request, boolean normalize, boolean lookupDeletedSchema);
 
     // Delete
-    List<Integer> deleteSubject(String subject, boolean permanent);
+    CompletableFuture<List<Integer>> deleteSubject(String subject, boolean permanent);
 
-    int deleteSchemaVersion(String subject, String version, boolean permanent);
+    CompletableFuture<Integer> deleteSchemaVersion(String subject, String version, boolean permanent);
 
     // Compatibility
     List<String> testCompatibility(String subject, String version, RegisterSchemaRequest request, boolean verbose);
@@ -55,22 +62,22 @@ public interface SchemaRegistryService {
     // Config
     Map<String, String> getGlobalConfig();
 
-    Map<String, String> setGlobalConfig(CompatibilityLevel level);
+    CompletableFuture<Map<String, String>> setGlobalConfig(CompatibilityLevel level);
 
     Map<String, String> getSubjectConfig(String subject, boolean defaultToGlobal);
 
-    Map<String, String> setSubjectConfig(String subject, CompatibilityLevel level);
+    CompletableFuture<Map<String, String>> setSubjectConfig(String subject, CompatibilityLevel level);
 
-    Map<String, String> deleteSubjectConfig(String subject);
+    CompletableFuture<Map<String, String>> deleteSubjectConfig(String subject);
 
     // Mode
     Map<String, String> getGlobalMode();
 
-    Map<String, String> setGlobalMode(String mode, boolean force);
+    CompletableFuture<Map<String, String>> setGlobalMode(String mode, boolean force);
 
     Map<String, String> getSubjectMode(String subject, boolean defaultToGlobal);
 
-    Map<String, String> setSubjectMode(String subject, String mode, boolean force);
+    CompletableFuture<Map<String, String>> setSubjectMode(String subject, String mode, boolean force);
 
-    Map<String, String> deleteSubjectMode(String subject);
+    CompletableFuture<Map<String, String>> deleteSubjectMode(String subject);
 }
@@ -1,6 +1,5 @@
 package io.schemaregistry.mirror.service;
 
-import io.confluent.kafka.schemaregistry.ParsedSchema;
 import io.confluent.kafka.schemaregistry.client.rest.entities.Schema;
 import io.confluent.kafka.schemaregistry.client.rest.entities.SchemaReference;
 import io.confluent.kafka.schemaregistry.client.rest.entities.SchemaString;
@@ -9,12 +8,17 @@ import io.confluent.kafka.schemaregistry.client.rest.entities.requests.RegisterS
 import io.schemaregistry.mirror.exception.SchemaRegistryException;
 import io.schemaregistry.mirror.schema.CompatibilityLevel;
 import io.schemaregistry.mirror.storage.KafkaSchemaStore;
+import io.schemaregistry.mirror.storage.SchemaDigest;
+import io.schemaregistry.mirror.storage.StoreSnapshot;
+import io.schemaregistry.mirror.storage.model.SchemaKey;
 import io.schemaregistry.mirror.storage.model.SchemaValue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,10 +28,13 @@ public class SchemaRegistryServiceImpl implements SchemaRegistryService {
 
     private final KafkaSchemaStore store;
     private final CompatibilityService compatibilityService;
+    private final SubjectLocks subjectLocks;
 
-    public SchemaRegistryServiceImpl(KafkaSchemaStore store, CompatibilityService compatibilityService) {
+    public SchemaRegistryServiceImpl(KafkaSchemaStore store, CompatibilityService compatibilityService,
+                                     SubjectLocks subjectLocks) {
         this.store = store;
         this.compatibilityService = compatibilityService;
+        this.subjectLocks = subjectLocks;
     }
 
     // --- Schema read operations ---
@@ -44,7 +51,8 @@ public class SchemaRegistryServiceImpl implements SchemaRegistryService {
 
     @Override
     public SchemaString getSchemaStringById(int id, String subject, boolean fetchMaxId) {
-        SchemaValue sv = store.getSchemaById(id);
+        StoreSnapshot snapshot = store.snapshot();
+        SchemaValue sv = snapshot.getSchemaById(id);
         if (sv == null) {
             throw SchemaRegistryException.schemaNotFoundException(id);
         }
@@ -54,7 +62,7 @@ public class SchemaRegistryServiceImpl implements SchemaRegistryService {
             schemaString.setReferences(sv.getReferences());
         }
         if (fetchMaxId) {
-            schemaString.setMaxId(store.getMaxSchemaId());
+            schemaString.setMaxId(snapshot.getMaxSchemaId());
         }
         return schemaString;
     }
@@ -70,20 +78,22 @@ public class SchemaRegistryServiceImpl implements SchemaRegistryService {
 
     @Override
     public List<String> getSubjectsForSchemaId(int id, boolean lookupDeletedSubjects) {
-        SchemaValue sv = store.getSchemaById(id);
+        StoreSnapshot snapshot = store.snapshot();
+        SchemaValue sv = snapshot.getSchemaById(id);
         if (sv == null) {
             throw SchemaRegistryException.schemaNotFoundException(id);
         }
-        return store.getSubjectsForSchemaId(id, lookupDeletedSubjects);
+        return snapshot.getSubjectsForSchemaId(id, lookupDeletedSubjects);
     }
 
     @Override
     public List<SubjectVersion> getVersionsForSchemaId(int id, boolean lookupDeletedSubjects) {
-        SchemaValue sv = store.getSchemaById(id);
+        StoreSnapshot snapshot = store.snapshot();
+        SchemaValue sv = snapshot.getSchemaById(id);
         if (sv == null) {
             throw SchemaRegistryException.schemaNotFoundException(id);
         }
-        List<Map<String, Object>> versions = store.getVersionsForSchemaId(id, lookupDeletedSubjects);
+        List<Map<String, Object>> versions = snapshot.getVersionsForSchemaId(id, lookupDeletedSubjects);
         return versions.stream()
             .map(m -> new SubjectVersion((String) m.get("subject"), (Integer) m.get("version")))
             .collect(Collectors.toList());
@@ -94,45 +104,72 @@ public class SchemaRegistryServiceImpl implements SchemaRegistryService {
         return compatibilityService.getSupportedTypes();
     }
 
+    @Override
+    public SchemaPage listSchemas(String subjectPrefix, boolean lookupDeletedSchemas, boolean latestOnly,
+                                  int offset, int limit, String cursor) {
+        int afterId = -1;
+        SchemaKey afterKey = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            // Cursor is the (id, version, subject) of the last schema on the previous page
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                    .split(":", 3);
+                afterId = Integer.parseInt(parts[0]);
+                afterKey = new SchemaKey(parts[2], Integer.parseInt(parts[1]));
+            } catch (RuntimeException e) {
+                throw SchemaRegistryException.invalidCursorException(cursor);
+            }
+        }
+
+        List<SchemaValue> page = store.getAllSchemas(
+            subjectPrefix, lookupDeletedSchemas, latestOnly, afterId, afterKey, Math.max(0, offset), limit);
+        List<Schema> schemas = page.stream().map(this::toSchemaEntity).collect(Collectors.toList());
+
+        String nextCursor = null;
+        if (limit > 0 && page.size() == limit) {
+            SchemaValue last = page.get(page.size() - 1);
+            String position = last.getId() + ":" + last.getVersion() + ":" + last.getSubject();
+            nextCursor = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(position.getBytes(StandardCharsets.UTF_8));
+        }
+        return new SchemaPage(schemas, nextCursor);
+    }
+
     // --- Subject operations ---
 
     @Override
     public List<String> listSubjects(String subjectPrefix, boolean lookupDeletedSubjects) {
-        List<String> subjects = store.getSubjects(lookupDeletedSubjects);
-        if (subjectPrefix != null && !subjectPrefix.isEmpty()) {
-            return subjects.stream()
-                .filter(s -> s.startsWith(subjectPrefix))
-                .collect(Collectors.toList());
-        }
-        return subjects;
+        return store.getSubjects(subjectPrefix, lookupDeletedSubjects);
     }
 
     // --- Version operations ---
 
     @Override
     public List<Integer> listVersions(String subject, boolean lookupDeletedVersions) {
-        if (!store.hasSubject(subject, true)) {
+        StoreSnapshot snapshot = store.snapshot();
+        if (!snapshot.hasSubject(subject, true)) {
             throw SchemaRegistryException.subjectNotFoundException(subject);
         }
-        if (!lookupDeletedVersions && !store.hasSubject(subject, false)) {
+        if (!lookupDeletedVersions && !snapshot.hasSubject(subject, false)) {
             throw SchemaRegistryException.subjectNotFoundException(subject);
         }
-        return store.getVersions(subject, lookupDeletedVersions);
+        return snapshot.getVersions(subject, lookupDeletedVersions);
     }
 
     @Override
     public Schema getSchemaByVersion(String subject, String version, boolean lookupDeletedSchema) {
-        int versionInt = resolveVersion(subject, version, lookupDeletedSchema);
+        StoreSnapshot snapshot = store.snapshot();
+        int versionInt = resolveVersion(snapshot, subject, version, lookupDeletedSchema);
 
-        if (!store.hasSubject(subject, true)) {
+        if (!snapshot.hasSubject(subject, true)) {
             throw SchemaRegistryException.subjectNotFoundException(subject);
         }
 
-        SchemaValue sv = store.getSchema(subject, versionInt, lookupDeletedSchema);
+        SchemaValue sv = snapshot.getSchema(subject, versionInt, lookupDeletedSchema);
         if (sv == null) {
             if (!lookupDeletedSchema) {
                 // Check if it exists but is deleted
-                SchemaValue deletedSv = store.getSchema(subject, versionInt, true);
+                SchemaValue deletedSv = snapshot.getSchema(subject, versionInt, true);
                 if (deletedSv != null && deletedSv.isDeleted()) {
                     throw SchemaRegistryException.schemaVersionSoftDeletedException(subject, version);
                 }
@@ -151,21 +188,33 @@ public class SchemaRegistryServiceImpl implements SchemaRegistryService {
 
     @Override
     public List<Integer> getReferencedBy(String subject, String version) {
-        int versionInt = resolveVersion(subject, version, false);
-        if (!store.hasSubject(subject, false)) {
+        StoreSnapshot snapshot = store.snapshot();
+        int versionInt = resolveVersion(snapshot, subject, version, false);
+        if (!snapshot.hasSubject(subject, false)) {
             throw SchemaRegistryException.subjectNotFoundException(subject);
         }
-        SchemaValue sv = store.getSchema(subject, versionInt, false);
+        SchemaValue sv = snapshot.getSchema(subject, versionInt, false);
         if (sv == null) {
             throw SchemaRegistryException.versionNotFoundException(versionInt);
         }
-        return store.getReferencedBy(subject, versionInt);
+        return snapshot.getReferencedBy(subject, versionInt);
     }
 
     // --- Register ---
 
+    // The versions a registration is checked against. Below the transitive levels that is only the
+    // latest, so its cost does not grow with the subject's history.
+    private List<SchemaValue> compatibilityWindow(StoreSnapshot snapshot, String subject, CompatibilityLevel level) {
+        if (level.isTransitive()) {
+            return snapshot.getSchemasBySubject(subject, false);
+        }
+        int latest = snapshot.getLatestVersion(subject, false);
+        SchemaValue sv = latest > 0 ? snapshot.getSchema(subject, latest, false) : null;
+        return sv != null ? List.of(sv) : List.of();
+    }
+
     @Override
-    public int registerSchema(String subject, RegisterSchemaRequest request, boolean normalize) {
+    public CompletableFuture<Integer> registerSchema(String subject, RegisterSchemaRequest request, boolean normalize) {
         validateSubject(subject);
 
         String schemaType = request.getSchemaType() != null ? request.getSchemaType() : "AVRO";
@@ -173,30 +222,52 @@ public class SchemaRegistryServiceImpl implements SchemaRegistryService {
         List<SchemaReference> references = request.getReferences();
 
         // Parse schema first (validate before checking mode, matching Confluent behavior)
-        ParsedSchema parsedSchema = compatibilityService.parseSchema(
+        CompatibilityService.ParsedContent parsedSchema = compatibilityService.parseSchema(
             schemaType, schemaString, references, normalize);
 
+        // The version is assigned from the subject's latest state, so registrations to one subject
+        // run one at a time, each reading the snapshot its predecessor's write produced
+        return subjectLocks.withLock(subject,
+            () -> register(subject, request, normalize, schemaType, references, parsedSchema));
+    }
+
+    private CompletableFuture<Integer> register(String subject, RegisterSchemaRequest request, boolean normalize,
+                                                String schemaType, List<SchemaReference> references,
+                                                CompatibilityService.ParsedContent parsedSchema) {
+        StoreSnapshot snapshot = store.snapshot();
+        String schemaString = request.getSchema();
+
         // Check mode
-        String mode = store.getInMemoryStore().getEffectiveMode(subject);
+        String mode = snapshot.getEffectiveMode(subject);
         if ("READONLY".equals(mode)) {
             throw SchemaRegistryException.operationNotPermittedException(
                 "Subject " + subject + " is in read-only mode");
         }
 
-        String canonicalString = normalize ? parsedSchema.canonicalString() : schemaString;
+        String canonicalString;
+        String digest;
+        if (normalize) {
+            CompatibilityService.CanonicalSchema canonical =
+                compatibilityService.canonicalize(schemaType, schemaString, references);
+            canonicalString = canonical.schema();
+            digest = canonical.digest();
+        } else {
+            canonicalString = schemaString;
+            digest = SchemaDigest.of(schemaType, schemaString, references);
+        }
 
         // Content-addressed dedup: check if identical schema already exists
-        SchemaValue existing = store.lookupSchemaByContent(
-            subject, canonicalString, schemaType, references, true);
+        SchemaValue existing = snapshot.lookupSchemaByContent(
+            subject, digest, canonicalString, schemaType, references, true);
         if (existing != null && !existing.isDeleted()) {
-            return existing.getId();
+            return CompletableFuture.completedFuture(existing.getId());
         }
 
         // If request specifies an ID, use it
         Integer requestedId = request.getId();
         if (requestedId != null && requestedId > 0) {
             // Check that there's no conflicting schema with this ID
-            SchemaValue existingById = store.getSchemaById(requestedId);
+            SchemaValue existingById = snapshot.getSchemaById(requestedId);
             if (existingById != null && !canonicalString.equals(existingById.getSchema())) {
                 throw SchemaRegistryException.idDoesNotMatchException(
                     "Schema already registered with id " + requestedId + " is not identical to the schema being registered");
@@ -204,22 +275,20 @@ public class SchemaRegistryServiceImpl implements SchemaRegistryService {
         }
 
         // Compatibility check
-        CompatibilityLevel compatLevel = store.getInMemoryStore().getEffectiveCompatibilityLevel(subject);
+        CompatibilityLevel compatLevel = snapshot.getEffectiveCompatibilityLevel(subject);
         if (compatLevel != CompatibilityLevel.NONE) {
-            List<SchemaValue> previousSchemas = store.getSchemasBySubject(subject, false);
+            List<SchemaValue> previousSchemas = compatibilityWindow(snapshot, subject, compatLevel);
             if (!previousSchemas.isEmpty()) {
-                List<ParsedSchema> parsedPrevious = new ArrayList<>();
+                List<CompatibilityService.ParsedContent> parsedPrevious = new ArrayList<>();
                 for (SchemaValue prev : previousSchemas) {
                     try {
-                        ParsedSchema parsed = compatibilityService.parseSchema(
-                            prev.getSchemaType(), prev.getSchema(), prev.getReferences(), false);
-                        parsedPrevious.add(parsed);
+                        parsedPrevious.add(compatibilityService.parseSchema(prev));
                     } catch (Exception e) {
                         log.warn("Could not parse previous schema version {} for {}", prev.getVersion(), subject, e);
                     }
                 }
                 List<String> incompatibilities = compatibilityService.testCompatibility(
-                    compatLevel, parsedSchema, parsedPrevious);
+                    compatLevel, parsedSchema, parsedPrevious, false);
                 if (!incompatibilities.isEmpty()) {
                     String msg = String.join("; ", incompatibilities);
                     throw SchemaRegistryException.incompatibleSchemaException(msg);
@@ -227,46 +296,31 @@ public class SchemaRegistryServiceImpl implements SchemaRegistryService {
             }
         }
 
-        // Assign ID
-        int id;
+        // Assign ID; a new one may have to wait for an ID lease to be written
+        CompletableFuture<Integer> id;
         if (requestedId != null && requestedId > 0) {
-            id = requestedId;
-            // Update max ID if necessary
-            store.getInMemoryStore().getMaxSchemaId(); // just read
+            id = CompletableFuture.completedFuture(requestedId);
         } else if (existing != null && existing.isDeleted()) {
             // Reuse the existing ID if the schema was deleted and re-registered
-            id = existing.getId();
+            id = CompletableFuture.completedFuture(existing.getId());
         } else {
             // Check if this same schema content is registered under a different subject
-            id = findExistingSchemaId(canonicalString, schemaType, references);
-            if (id < 0) {
-                id = store.getInMemoryStore().nextSchemaId();
-            }
+            int sharedId = snapshot.lookupSchemaIdByContent(digest, canonicalString, schemaType, references);
+            id = sharedId >= 0 ? CompletableFuture.completedFuture(sharedId) : store.nextSchemaId();
         }
 
         // Determine next version
-        int latestVersion = store.getLatestVersion(subject, true);
+        int latestVersion = snapshot.getLatestVersion(subject, true);
         int newVersion = Math.max(1, latestVersion + 1);
 
         // Write to Kafka
-        SchemaValue schemaValue = new SchemaValue(
-            subject, newVersion, id, null, schemaType,
-            references, null, null, canonicalString, false
-        );
-        store.registerSchema(schemaValue);
-
-        return id;
-    }
-
-    private int findExistingSchemaId(String schema, String schemaType, List<SchemaReference> references) {
-        // Check all subjects for a matching schema content to reuse the ID
-        for (String subject : store.getSubjects(true)) {
-            SchemaValue match = store.lookupSchemaByContent(subject, schema, schemaType, references, true);
-            if (match != null) {
-                return match.getId();
-            }
-        }
-        return -1;
+        return id.thenCompose(registeredId -> {
+            SchemaValue schemaValue = new SchemaValue(
+                subject, newVersion, registeredId, digest, schemaType,
+                references, null, null, canonicalString, false
+            );
+            return store.registerSchema(schemaValue).thenApply(v -> registeredId);
+        });
     }
 
     // --- Lookup ---
@@ -274,10 +328,11 @@ public class SchemaRegistryServiceImpl implements SchemaRegistryService {
     @Override
     public Schema lookupSchema(String subject, RegisterSchemaRequest request, boolean normalize,
                                boolean lookupDeletedSchema) {
-        if (!store.hasSubject(subject, true)) {
+        StoreSnapshot snapshot = store.snapshot();
+        if (!snapshot.hasSubject(subject, true)) {
             throw SchemaRegistryException.subjectNotFoundException(subject);
         }
-        if (!lookupDeletedSchema && !store.hasSubject(subject, false)) {
+        if (!lookupDeletedSchema && !snapshot.hasSubject(subject, false)) {
             throw SchemaRegistryException.subjectNotFoundException(subject);
         }
 
@@ -285,12 +340,16 @@ public class SchemaRegistryServiceImpl implements SchemaRegistryService {
         String schemaString = request.getSchema();
         List<SchemaReference> references = request.getReferences();
 
+        SchemaValue sv;
         if (normalize) {
-            ParsedSchema parsed = compatibilityService.parseSchema(schemaType, schemaString, references, true);
-            schemaString = parsed.canonicalString();
+            // Clients resend the same text, so its canonical form usually comes from the cache unparsed
+            CompatibilityService.CanonicalSchema canonical =
+                compatibilityService.canonicalize(schemaType, schemaString, references);
+            sv = snapshot.lookupSchemaByContent(subject, canonical.digest(), canonical.schema(), schemaType,
+                references, lookupDeletedSchema);
+        } else {
+            sv = snapshot.lookupSchemaByContent(subject, schemaString, schemaType, references, lookupDeletedSchema);
         }
-
-        SchemaValue sv = store.lookupSchemaByContent(subject, schemaString, schemaType, references, lookupDeletedSchema);
         if (sv == null) {
             throw SchemaRegistryException.schemaNotFoundException();
         }
@@ -301,12 +360,17 @@ public class SchemaRegistryServiceImpl implements SchemaRegistryService {
     // --- Delete ---
 
     @Override
-    public List<Integer> deleteSubject(String subject, boolean permanent) {
-        if (!store.hasSubject(subject, true)) {
+    public CompletableFuture<List<Integer>> deleteSubject(String subject, boolean permanent) {
+        return subjectLocks.withLock(subject, () -> doDeleteSubject(subject, permanent));
+    }
+
+    private CompletableFuture<List<Integer>> doDeleteSubject(String subject, boolean permanent) {
+        StoreSnapshot snapshot = store.snapshot();
+        if (!snapshot.hasSubject(subject, true)) {
             throw SchemaRegistryException.subjectNotFoundException(subject);
         }
 
-        String mode = store.getInMemoryStore().getEffectiveMode(subject);
+        String mode = snapshot.getEffectiveMode(subject);
         if ("READONLY".equals(mode)) {
             throw SchemaRegistryException.operationNotPermittedException(
                 "Subject " + subject + " is in read-only mode");
@@ -314,41 +378,46 @@ public class SchemaRegistryServiceImpl implements SchemaRegistryService {
 
         if (permanent) {
             // Must be soft-deleted first
-            if (!store.getInMemoryStore().isSubjectSoftDeleted(subject)) {
+            if (!snapshot.isSubjectSoftDeleted(subject)) {
                 throw SchemaRegistryException.subjectNotSoftDeletedException(subject);
             }
 
-            List<Integer> versions = store.getVersions(subject, true);
-            store.hardDeleteSubject(subject);
-            return versions;
+            List<Integer> versions = snapshot.getVersions(subject, true);
+            return store.hardDeleteSubject(subject).thenApply(v -> versions);
         } else {
             // Soft delete
-            if (!store.hasSubject(subject, false)) {
+            if (!snapshot.hasSubject(subject, false)) {
                 throw SchemaRegistryException.subjectSoftDeletedException(subject);
             }
 
-            // Check for references
-            List<Integer> versions = store.getVersions(subject, false);
-            store.softDeleteSubject(subject);
-            return versions;
+            List<Integer> versions = snapshot.getVersions(subject, false);
+            for (int version : versions) {
+                checkNotReferenced(snapshot, subject, version);
+            }
+            return store.softDeleteSubject(subject).thenApply(v -> versions);
         }
     }
 
     @Override
-    public int deleteSchemaVersion(String subject, String version, boolean permanent) {
-        if (!store.hasSubject(subject, true)) {
+    public CompletableFuture<Integer> deleteSchemaVersion(String subject, String version, boolean permanent) {
+        return subjectLocks.withLock(subject, () -> doDeleteSchemaVersion(subject, version, permanent));
+    }
+
+    private CompletableFuture<Integer> doDeleteSchemaVersion(String subject, String version, boolean permanent) {
+        StoreSnapshot snapshot = store.snapshot();
+        if (!snapshot.hasSubject(subject, true)) {
             throw SchemaRegistryException.subjectNotFoundException(subject);
         }
 
-        String mode = store.getInMemoryStore().getEffectiveMode(subject);
+        String mode = snapshot.getEffectiveMode(subject);
         if ("READONLY".equals(mode)) {
             throw SchemaRegistryException.operationNotPermittedException(
                 "Subject " + subject + " is in read-only mode");
         }
 
-        int versionInt = resolveVersion(subject, version, true);
+        int versionInt = resolveVersion(snapshot, subject, version, true);
 
-        SchemaValue sv = store.getSchema(subject, versionInt, true);
+        SchemaValue sv = snapshot.getSchema(subject, versionInt, true);
         if (sv == null) {
             throw SchemaRegistryException.versionNotFoundException(versionInt);
         }
@@ -357,22 +426,14 @@ public class SchemaRegistryServiceImpl implements SchemaRegistryService {
             if (!sv.isDeleted()) {
                 throw SchemaRegistryException.schemaVersionNotSoftDeletedException(subject, String.valueOf(versionInt));
             }
-            store.hardDeleteSchema(subject, versionInt);
+            return store.hardDeleteSchema(subject, versionInt).thenApply(v -> versionInt);
         } else {
             if (sv.isDeleted()) {
                 throw SchemaRegistryException.schemaVersionSoftDeletedException(subject, String.valueOf(versionInt));
             }
-            // Check references
-            List<Integer> refs = store.getReferencedBy(subject, versionInt);
-            if (!refs.isEmpty()) {
-                throw SchemaRegistryException.referenceExistsException(
-                    "One or more references exist to the schema {magic=1,keytype=SCHEMA,subject=" + subject
-                        + ",version=" + versionInt + "}.");
-            }
-            store.softDeleteSchema(subject, versionInt);
+            checkNotReferenced(snapshot, subject, versionInt);
+            return store.softDeleteSchema(subject, versionInt).thenApply(v -> versionInt);
         }
-
-        return versionInt;
     }
 
     // --- Compatibility ---
@@ -380,34 +441,34 @@ public class SchemaRegistryServiceImpl implements SchemaRegistryService {
     @Override
     public List<String> testCompatibility(String subject, String version, RegisterSchemaRequest request,
                                           boolean verbose) {
+        StoreSnapshot snapshot = store.snapshot();
         String schemaType = request.getSchemaType() != null ? request.getSchemaType() : "AVRO";
         String schemaString = request.getSchema();
         List<SchemaReference> references = request.getReferences();
 
-        ParsedSchema parsedSchema = compatibilityService.parseSchema(schemaType, schemaString, references, false);
+        CompatibilityService.ParsedContent parsedSchema =
+            compatibilityService.parseSchema(schemaType, schemaString, references, false);
 
-        List<ParsedSchema> previousSchemas = new ArrayList<>();
+        List<CompatibilityService.ParsedContent> previousSchemas = new ArrayList<>();
         if ("latest".equals(version)) {
-            int latestVer = store.getLatestVersion(subject, false);
+            int latestVer = snapshot.getLatestVersion(subject, false);
             if (latestVer > 0) {
-                SchemaValue sv = store.getSchema(subject, latestVer, false);
+                SchemaValue sv = snapshot.getSchema(subject, latestVer, false);
                 if (sv != null) {
-                    previousSchemas.add(compatibilityService.parseSchema(
-                        sv.getSchemaType(), sv.getSchema(), sv.getReferences(), false));
+                    previousSchemas.add(compatibilityService.parseSchema(sv));
                 }
             }
         } else {
             int versionInt = parseVersionId(version);
-            SchemaValue sv = store.getSchema(subject, versionInt, false);
+            SchemaValue sv = snapshot.getSchema(subject, versionInt, false);
             if (sv == null) {
                 throw SchemaRegistryException.versionNotFoundException(versionInt);
             }
-            previousSchemas.add(compatibilityService.parseSchema(
-                sv.getSchemaType(), sv.getSchema(), sv.getReferences(), false));
+            previousSchemas.add(compatibilityService.parseSchema(sv));
         }
 
-        CompatibilityLevel level = store.getInMemoryStore().getEffectiveCompatibilityLevel(subject);
-        return compatibilityService.testCompatibility(level, parsedSchema, previousSchemas);
+        CompatibilityLevel level = snapshot.getEffectiveCompatibilityLevel(subject);
+        return compatibilityService.testCompatibility(level, parsedSchema, previousSchemas, verbose);
     }
 
     @Override
@@ -426,21 +487,23 @@ public class SchemaRegistryServiceImpl implements SchemaRegistryService {
     }
 
     @Override
-    public Map<String, String> setGlobalConfig(CompatibilityLevel level) {
-        store.setGlobalCompatibilityLevel(level);
-        Map<String, String> config = new LinkedHashMap<>();
-        config.put("compatibility", level.getName());
-        return config;
+    public CompletableFuture<Map<String, String>> setGlobalConfig(CompatibilityLevel level) {
+        return store.setGlobalCompatibilityLevel(level).thenApply(v -> {
+            Map<String, String> config = new LinkedHashMap<>();
+            config.put("compatibility", level.getName());
+            return config;
+        });
     }
 
     @Override
     public Map<String, String> getSubjectConfig(String subject, boolean defaultToGlobal) {
-        if (!defaultToGlobal && !store.hasSubjectCompatibilityLevel(subject)) {
+        StoreSnapshot snapshot = store.snapshot();
+        if (!defaultToGlobal && !snapshot.hasSubjectCompatibilityLevel(subject)) {
             throw SchemaRegistryException.subjectLevelCompatibilityNotConfigured(subject);
         }
-        CompatibilityLevel level = store.getSubjectCompatibilityLevel(subject);
+        CompatibilityLevel level = snapshot.getSubjectCompatibilityLevel(subject);
         if (level == null && defaultToGlobal) {
-            level = store.getGlobalCompatibilityLevel();
+            level = snapshot.getGlobalCompatibilityLevel();
         }
         if (level == null) {
             throw SchemaRegistryException.subjectLevelCompatibilityNotConfigured(subject);
@@ -451,23 +514,25 @@ public class SchemaRegistryServiceImpl implements SchemaRegistryService {
     }
 
     @Override
-    public Map<String, String> setSubjectConfig(String subject, CompatibilityLevel level) {
-        store.setSubjectCompatibilityLevel(subject, level);
-        Map<String, String> config = new LinkedHashMap<>();
-        config.put("compatibility", level.getName());
-        return config;
+    public CompletableFuture<Map<String, String>> setSubjectConfig(String subject, CompatibilityLevel level) {
+        return store.setSubjectCompatibilityLevel(subject, level).thenApply(v -> {
+            Map<String, String> config = new LinkedHashMap<>();
+            config.put("compatibility", level.getName());
+            return config;
+        });
     }
 
     @Override
-    public Map<String, String> deleteSubjectConfig(String subject) {
+    public CompletableFuture<Map<String, String>> deleteSubjectConfig(String subject) {
         CompatibilityLevel level = store.getSubjectCompatibilityLevel(subject);
         if (level == null) {
             throw SchemaRegistryException.subjectLevelCompatibilityNotConfigured(subject);
         }
-        store.deleteSubjectCompatibilityLevel(subject);
-        Map<String, String> config = new LinkedHashMap<>();
-        config.put("compatibilityLevel", level.getName());
-        return config;
+        return store.deleteSubjectCompatibilityLevel(subject).thenApply(v -> {
+            Map<String, String> config = new LinkedHashMap<>();
+            config.put("compatibilityLevel", level.getName());
+            return config;
+        });
     }
 
     // --- Mode ---
@@ -480,22 +545,20 @@ public class SchemaRegistryServiceImpl implements SchemaRegistryService {
     }
 
     @Override
-    public Map<String, String> setGlobalMode(String mode, boolean force) {
+    public CompletableFuture<Map<String, String>> setGlobalMode(String mode, boolean force) {
         validateMode(mode);
-        store.setGlobalMode(mode);
-        Map<String, String> result = new LinkedHashMap<>();
-        result.put("mode", mode);
-        return result;
+        return store.setGlobalMode(mode).thenApply(v -> modeResult(mode));
     }
 
     @Override
     public Map<String, String> getSubjectMode(String subject, boolean defaultToGlobal) {
-        if (!defaultToGlobal && !store.hasSubjectMode(subject)) {
+        StoreSnapshot snapshot = store.snapshot();
+        if (!defaultToGlobal && !snapshot.hasSubjectMode(subject)) {
             throw SchemaRegistryException.subjectLevelModeNotConfigured(subject);
         }
-        String mode = store.getSubjectMode(subject);
+        String mode = snapshot.getSubjectMode(subject);
         if (mode == null && defaultToGlobal) {
-            mode = store.getGlobalMode();
+            mode = snapshot.getGlobalMode();
         }
         if (mode == null) {
             throw SchemaRegistryException.subjectLevelModeNotConfigured(subject);
@@ -506,7 +569,7 @@ public class SchemaRegistryServiceImpl implements SchemaRegistryService {
     }
 
     @Override
-    public Map<String, String> setSubjectMode(String subject, String mode, boolean force) {
+    public CompletableFuture<Map<String, String>> setSubjectMode(String subject, String mode, boolean force) {
         validateMode(mode);
         if ("IMPORT".equalsIgnoreCase(mode) && !force) {
             List<String> subjects = store.getSubjects(false);
@@ -515,29 +578,29 @@ public class SchemaRegistryServiceImpl implements SchemaRegistryService {
                     "Cannot import since found existing subjects");
             }
         }
-        store.setSubjectMode(subject, mode);
-        Map<String, String> result = new LinkedHashMap<>();
-        result.put("mode", mode);
-        return result;
+        return store.setSubjectMode(subject, mode).thenApply(v -> modeResult(mode));
     }
 
     @Override
-    public Map<String, String> deleteSubjectMode(String subject) {
+    public CompletableFuture<Map<String, String>> deleteSubjectMode(String subject) {
         String mode = store.getSubjectMode(subject);
         if (mode == null) {
             throw SchemaRegistryException.subjectNotFoundException(subject);
         }
-        store.deleteSubjectMode(subject);
+        return store.deleteSubjectMode(subject).thenApply(v -> modeResult(mode));
+    }
+
+    // --- Helpers ---
+
+    private Map<String, String> modeResult(String mode) {
         Map<String, String> result = new LinkedHashMap<>();
         result.put("mode", mode);
         return result;
     }
 
-    // --- Helpers ---
-
-    private int resolveVersion(String subject, String version, boolean lookupDeletedSchema) {
+    private int resolveVersion(StoreSnapshot snapshot, String subject, String version, boolean lookupDeletedSchema) {
         if ("latest".equalsIgnoreCase(version) || "-1".equals(version)) {
-            int latest = store.getLatestVersion(subject, lookupDeletedSchema);
+            int latest = snapshot.getLatestVersion(subject, lookupDeletedSchema);
             if (latest < 0) {
                 throw SchemaRegistryException.versionNotFoundException(-1);
             }
@@ -545,7 +608,7 @@ public class SchemaRegistryServiceImpl implements SchemaRegistryService {
         }
         if ("-2".equals(version)) {
             // Earliest version
-            List<Integer> versions = store.getVersions(subject, lookupDeletedSchema);
+            List<Integer> versions = snapshot.getVersions(subject, lookupDeletedSchema);
             if (versions.isEmpty()) {
                 throw SchemaRegistryException.versionNotFoundException(-2);
             }
@@ -554,6 +617,14 @@ public class SchemaRegistryServiceImpl implements SchemaRegistryService {
         return parseVersionId(version);
     }
 
+    private void checkNotReferenced(StoreSnapshot snapshot, String subject, int version) {
+        if (!snapshot.getReferencedBy(subject, version).isEmpty()) {
+            throw SchemaRegistryException.referenceExistsException(
+                "One or more references exist to the schema {magic=1,keytype=SCHEMA,subject=" + subject
+                    + ",version=" + version + "}.");
+        }
+    }
+
     private int parseVersionId(String version) {
         try {
             int v = Integer.parseInt(version);
@@ -0,0 +1,199 @@
+package io.schemaregistry.mirror.service;
+
+import io.schemaregistry.mirror.config.SchemaRegistryProperties;
+import io.schemaregistry.mirror.storage.UnsettledWriteException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// Serializes writes per subject without holding threads. Subjects hash onto a fixed set of
+// stripes. An operation holds its stripe until the future it returns completes, i.e. until its
+// write has been read back, and the next queued operation then starts on the executor. Writes to
+// one subject are therefore linearizable while other stripes proceed in parallel.
+// An operation whose write failed for it while the record may still land, e.g. by timing out,
+// fails with an UnsettledWriteException. The stripe is then held until that record has settled,
+// for at most the settle timeout, so the next operation reads a snapshot that includes it. Any
+// other failure releases the stripe at once.
+@Component
+public final class SubjectLocks {
+
+    private final Stripe[] stripes;
+    private final Executor executor;
+    private final long settleTimeoutMs;
+    // Set when the executor is owned here rather than passed in
+    private final ExecutorService ownedExecutor;
+
+    @Autowired
+    public SubjectLocks(SchemaRegistryProperties properties) {
+        this(properties.getSubjectLockStripes(), handoverPool(properties.getSubjectLockThreads()),
+            properties.getKafkaStoreTimeoutMs(), true);
+    }
+
+    public SubjectLocks(int stripeCount, Executor executor) {
+        this(stripeCount, executor, 0, false);
+    }
+
+    public SubjectLocks(int stripeCount, Executor executor, long settleTimeoutMs) {
+        this(stripeCount, executor, settleTimeoutMs, false);
+    }
+
+    private SubjectLocks(int stripeCount, Executor executor, long settleTimeoutMs, boolean ownsExecutor) {
+        this.stripes = new Stripe[Math.max(1, stripeCount)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.executor = executor;
+        this.settleTimeoutMs = settleTimeoutMs;
+        this.ownedExecutor = ownsExecutor ? (ExecutorService) executor : null;
+    }
+
+    // Queued operations parse schemas and run compatibility checks, which may block on the check
+    // pool, so they get their own bounded pool rather than the common pool
+    private static ExecutorService handoverPool(int threads) {
+        AtomicInteger workers = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads > 0 ? threads : Runtime.getRuntime().availableProcessors(), r -> {
+            Thread t = new Thread(r, "subject-lock-handover-" + workers.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdownNow();
+        }
+    }
+
+    // Runs the operation once every earlier operation on the subject's stripe has completed
+    public <T> CompletableFuture<T> withLock(String subject, Supplier<CompletableFuture<T>> operation) {
+        Stripe stripe = stripes[stripeOf(subject)];
+        CompletableFuture<T> result = new CompletableFuture<>();
+        long queuedAt = System.nanoTime();
+        Runnable task = () -> {
+            stripe.waitNanos.add(System.nanoTime() - queuedAt);
+            CompletableFuture<T> pending;
+            try {
+                pending = operation.get();
+            } catch (Throwable e) {
+                // Validation errors must still release the stripe
+                pending = CompletableFuture.failedFuture(e);
+            }
+            pending.whenComplete((value, e) -> {
+                if (e != null) {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof UnsettledWriteException unsettled) {
+                        unsettled.whenSettled().copy()
+                            .completeOnTimeout(null, settleTimeoutMs, TimeUnit.MILLISECONDS)
+                            .whenComplete((v, ignored) -> stripe.release(executor));
+                    } else {
+                        stripe.release(executor);
+                    }
+                    result.completeExceptionally(cause);
+                } else {
+                    stripe.release(executor);
+                    result.complete(value);
+                }
+            });
+        };
+        if (stripe.acquire(task)) {
+            task.run();
+        }
+        return result;
+    }
+
+    public int stripeCount() {
+        return stripes.length;
+    }
+
+    int stripeOf(String subject) {
+        // Spread the hash so subjects that differ only in their last characters still scatter
+        int h = subject.hashCode();
+        h ^= h >>> 16;
+        return Math.floorMod(h, stripes.length);
+    }
+
+    public long getAcquisitions(int stripe) {
+        return stripes[stripe].acquisitions.sum();
+    }
+
+    public long getContended(int stripe) {
+        return stripes[stripe].contended.sum();
+    }
+
+    public long getWaitNanos(int stripe) {
+        return stripes[stripe].waitNanos.sum();
+    }
+
+    public int getQueued(int stripe) {
+        return stripes[stripe].queued();
+    }
+
+    private static final class Stripe {
+        // Guards held and waiters only; never held while an operation runs
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Queue<Runnable> waiters = new ArrayDeque<>();
+        private boolean held;
+
+        private final LongAdder acquisitions = new LongAdder();
+        private final LongAdder contended = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+
+        // Returns true if the caller now holds the stripe; otherwise the task runs when it is handed over
+        boolean acquire(Runnable task) {
+            acquisitions.increment();
+            lock.lock();
+            try {
+                if (!held) {
+                    held = true;
+                    return true;
+                }
+                waiters.add(task);
+            } finally {
+                lock.unlock();
+            }
+            contended.increment();
+            return false;
+        }
+
+        void release(Executor executor) {
+            Runnable next;
+            lock.lock();
+            try {
+                next = waiters.poll();
+                if (next == null) {
+                    held = false;
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (next != null) {
+                // Hand over on the executor: release() runs wherever the previous write completed,
+                // typically the store reader thread
+                executor.execute(next);
+            }
+        }
+
+        int queued() {
+            lock.lock();
+            try {
+                return waiters.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
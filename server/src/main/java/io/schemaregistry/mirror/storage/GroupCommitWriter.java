@@ -0,0 +1,165 @@
+package io.schemaregistry.mirror.storage;
+
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Group commit for writes to _schemas. Callers queue records and get a future for their offset.
+// A single writer thread takes everything queued, waiting up to lingerMs for more, and sends it
+// as one group. It then flushes once, so the group costs one broker round trip instead of one
+// per write. Records go out in queue order on one partition through the idempotent producer, so
+// their offsets follow submission order.
+final class GroupCommitWriter extends Thread {
+
+    private static final Logger log = LoggerFactory.getLogger(GroupCommitWriter.class);
+
+    // Header carrying the epoch of the leader that wrote a record, a 4-byte big-endian int
+    static final String EPOCH_HEADER = "schema-registry-epoch";
+
+    private final Producer<byte[], byte[]> producer;
+    private final String topic;
+    private final long lingerMs;
+    private final int maxBatchSize;
+    private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+    private volatile boolean running = true;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder records = new LongAdder();
+
+    GroupCommitWriter(Producer<byte[], byte[]> producer, String topic, long lingerMs, int maxBatchSize) {
+        super("kafka-store-writer");
+        this.producer = producer;
+        this.topic = topic;
+        this.lingerMs = lingerMs;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        setDaemon(true);
+    }
+
+    // Completes with the record's offset once the broker has acknowledged it
+    CompletableFuture<Long> submit(byte[] key, byte[] value) {
+        return submit(key, value, 0);
+    }
+
+    // As submit(key, value), tagging the record with a leader epoch unless it is 0
+    CompletableFuture<Long> submit(byte[] key, byte[] value, int epoch) {
+        PendingWrite write = new PendingWrite(key, value, epoch);
+        if (!running) {
+            write.future.completeExceptionally(new IllegalStateException("Writer for " + topic + " is closed"));
+            return write.future;
+        }
+        queue.add(write);
+        // shutdown() may have drained the queue between the check and the add
+        if (!running && queue.remove(write)) {
+            write.future.completeExceptionally(new IllegalStateException("Writer for " + topic + " is closed"));
+        }
+        return write.future;
+    }
+
+    long getBatchCount() {
+        return batches.sum();
+    }
+
+    long getRecordCount() {
+        return records.sum();
+    }
+
+    @Override
+    public void run() {
+        List<PendingWrite> batch = new ArrayList<>();
+        while (running) {
+            try {
+                PendingWrite first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - batch.size());
+                long deadlineNs = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+                while (batch.size() < maxBatchSize) {
+                    long remainingNs = deadlineNs - System.nanoTime();
+                    if (remainingNs <= 0) break;
+                    PendingWrite next = queue.poll(remainingNs, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+                send(batch);
+            } catch (InterruptedException e) {
+                if (!running) break;
+            } finally {
+                batch.clear();
+            }
+        }
+        failQueued();
+    }
+
+    private void send(List<PendingWrite> batch) {
+        for (PendingWrite write : batch) {
+            try {
+                List<Header> headers = write.epoch != 0
+                    ? List.of(new RecordHeader(EPOCH_HEADER, ByteBuffer.allocate(4).putInt(write.epoch).array()))
+                    : List.of();
+                producer.send(new ProducerRecord<>(topic, 0, null, write.key, write.value, headers), (metadata, e) -> {
+                    if (e != null) {
+                        write.future.completeExceptionally(e);
+                    } else {
+                        write.future.complete(metadata.offset());
+                    }
+                });
+            } catch (RuntimeException e) {
+                write.future.completeExceptionally(e);
+            }
+        }
+        try {
+            producer.flush();
+        } catch (RuntimeException e) {
+            log.error("Failed to flush a group of {} writes to {}", batch.size(), topic, e);
+            batch.forEach(write -> write.future.completeExceptionally(e));
+        }
+        batches.increment();
+        records.add(batch.size());
+    }
+
+    void shutdown() {
+        running = false;
+        interrupt();
+    }
+
+    private void failQueued() {
+        PendingWrite write;
+        while ((write = queue.poll()) != null) {
+            write.future.completeExceptionally(new IllegalStateException("Writer for " + topic + " is closed"));
+        }
+    }
+
+    // The epoch a record was tagged with, or 0 if it has none
+    static int epochOf(Headers headers) {
+        Header header = headers.lastHeader(EPOCH_HEADER);
+        return header != null && header.value() != null && header.value().length == 4
+            ? ByteBuffer.wrap(header.value()).getInt()
+            : 0;
+    }
+
+    private static final class PendingWrite {
+        final byte[] key;
+        final byte[] value;
+        final int epoch;
+        final CompletableFuture<Long> future = new CompletableFuture<>();
+
+        PendingWrite(byte[] key, byte[] value, int epoch) {
+            this.key = key;
+            this.value = value;
+            this.epoch = epoch;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package io.schemaregistry.mirror.storage;
+
+import io.schemaregistry.mirror.storage.model.IdLeaseValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Hands out schema IDs from blocks reserved in _schemas. A block is leased by writing an ID_LEASE
+// record and reading it back; the store accepts it only if no earlier lease covers its start, so
+// two writers never own the same IDs. Within a block, IDs are taken with a CAS and no Kafka round
+// trip. IDs left in a block when the process stops are never used.
+final class IdLeaseAllocator {
+
+    private static final Logger log = LoggerFactory.getLogger(IdLeaseAllocator.class);
+
+    private final String owner;
+    private final int leaseSize;
+    private final Supplier<StoreSnapshot> snapshots;
+    // Writes the lease record and completes with its offset once the store has applied it
+    private final Function<IdLeaseValue, CompletableFuture<Long>> writeLease;
+
+    // Next ID to hand out in the high half and the block's last ID in the low half, so that both
+    // change in one CAS. Starts exhausted.
+    private final AtomicLong block = new AtomicLong(pack(1, 0));
+    // The lease request in flight, shared by every caller that finds the block exhausted
+    private final AtomicReference<CompletableFuture<Void>> pending = new AtomicReference<>();
+
+    private final LongAdder leaseRequests = new LongAdder();
+    private final LongAdder leaseConflicts = new LongAdder();
+    private final LongAdder leaseNanos = new LongAdder();
+
+    IdLeaseAllocator(String owner, int leaseSize, Supplier<StoreSnapshot> snapshots,
+                     Function<IdLeaseValue, CompletableFuture<Long>> writeLease) {
+        this.owner = owner;
+        this.leaseSize = Math.max(1, leaseSize);
+        this.snapshots = snapshots;
+        this.writeLease = writeLease;
+    }
+
+    CompletableFuture<Integer> next() {
+        while (true) {
+            long current = block.get();
+            int id = nextOf(current);
+            if (id > endOf(current)) {
+                return renew(current).thenCompose(v -> next());
+            }
+            if (block.compareAndSet(current, pack(id + 1, endOf(current)))) {
+                // Imports may have registered IDs inside the block with an explicit id
+                if (snapshots.get().getSchemaById(id) != null) {
+                    continue;
+                }
+                return CompletableFuture.completedFuture(id);
+            }
+        }
+    }
+
+    private CompletableFuture<Void> renew(long exhausted) {
+        while (true) {
+            CompletableFuture<Void> inFlight = pending.get();
+            if (inFlight != null) {
+                return inFlight;
+            }
+            if (block.get() != exhausted) {
+                // Another caller has already installed a new block
+                return CompletableFuture.completedFuture(null);
+            }
+            CompletableFuture<Void> lease = new CompletableFuture<>();
+            if (pending.compareAndSet(null, lease)) {
+                if (block.get() != exhausted) {
+                    pending.set(null);
+                    lease.complete(null);
+                } else {
+                    requestLease(lease);
+                }
+                return lease;
+            }
+        }
+    }
+
+    private void requestLease(CompletableFuture<Void> lease) {
+        long startNs = System.nanoTime();
+        StoreSnapshot snapshot = snapshots.get();
+        int start = Math.max(snapshot.getMaxLeasedId(), snapshot.getMaxSchemaId()) + 1;
+        int end = start + leaseSize - 1;
+        leaseRequests.increment();
+        CompletableFuture<Long> written;
+        try {
+            written = writeLease.apply(new IdLeaseValue(owner, start, end));
+        } catch (RuntimeException e) {
+            written = CompletableFuture.failedFuture(e);
+        }
+        written.whenComplete((offset, e) -> {
+            leaseNanos.add(System.nanoTime() - startNs);
+            if (e == null) {
+                // Only the last accepted lease is tracked, so a lease that was accepted and then
+                // followed by another writer's is also dropped. That wastes the block, never IDs.
+                if (snapshots.get().getLastLeaseOffset() == offset) {
+                    block.set(pack(start, end));
+                    log.debug("Leased schema IDs {} to {}", start, end);
+                } else {
+                    leaseConflicts.increment();
+                    log.info("Lease of schema IDs {} to {} lost to another writer, retrying", start, end);
+                }
+            }
+            pending.set(null);
+            if (e != null) {
+                lease.completeExceptionally(e);
+            } else {
+                lease.complete(null);
+            }
+        });
+    }
+
+    int getLeaseSize() {
+        return leaseSize;
+    }
+
+    int getRemaining() {
+        long current = block.get();
+        return Math.max(0, endOf(current) - nextOf(current) + 1);
+    }
+
+    long getLeaseRequests() {
+        return leaseRequests.sum();
+    }
+
+    long getLeaseConflicts() {
+        return leaseConflicts.sum();
+    }
+
+    long getLeaseNanos() {
+        return leaseNanos.sum();
+    }
+
+    private static long pack(int next, int end) {
+        return ((long) next << 32) | (end & 0xFFFFFFFFL);
+    }
+
+    private static int nextOf(long block) {
+        return (int) (block >>> 32);
+    }
+
+    private static int endOf(long block) {
+        return (int) block;
+    }
+}
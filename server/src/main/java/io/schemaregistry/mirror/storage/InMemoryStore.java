@@ -1,356 +1,390 @@
 package io.schemaregistry.mirror.storage;
 
-import io.confluent.kafka.schemaregistry.client.rest.entities.SchemaReference;
 import io.schemaregistry.mirror.schema.CompatibilityLevel;
+import io.schemaregistry.mirror.storage.model.IdLeaseKey;
+import io.schemaregistry.mirror.storage.model.IdLeaseValue;
+import io.schemaregistry.mirror.storage.model.SchemaKey;
 import io.schemaregistry.mirror.storage.model.SchemaValue;
 
-import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentSkipListMap;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
+import java.util.HashMap;
+import java.util.Map;
 
+// Materialized state of the _schemas topic. Mutations are staged by the single writer (the reader
+// thread) on persistent maps and become visible to readers only when commit() publishes a new
+// StoreSnapshot. Readers never see a partially applied batch and never need locks.
 public class InMemoryStore {
 
+    // Last published state
+    private volatile StoreSnapshot current;
+
+    // Encoding of the text in contentById (plain or compressed)
+    private final SchemaTextStorage textStorage;
+
+    // ---- Staged state, only touched by the writer ----
+
     // subject -> (version -> SchemaValue)
-    private final ConcurrentHashMap<String, ConcurrentSkipListMap<Integer, SchemaValue>> schemas = new ConcurrentHashMap<>();
+    private PersistentSortedMap<String, PersistentSortedMap<Integer, SchemaValue>> schemas = PersistentSortedMap.empty();
+
+    // subject -> live count and latest versions, replaced on every mutation of the subject
+    private PersistentSortedMap<String, SubjectMetadata> subjectMetadata = PersistentSortedMap.empty();
+
+    // subjects with at least one live version, kept in step with subjectMetadata
+    private PersistentSortedMap<String, Boolean> liveSubjects = PersistentSortedMap.empty();
+
+    // id -> schema text, stored once per id. Entries in schemas and schemasById whose text matches
+    // it are kept with a null schema and get it back on read, so the same schema under many subjects
+    // costs one String; an entry whose text differs from its id's keeps its own copy. The by-id entry
+    // outlives hard deletes and reads its text from here, so an id's text is kept for the id's lifetime.
+    private PersistentSortedMap<Integer, SchemaText> contentById = PersistentSortedMap.empty();
 
     // id -> SchemaValue (first registration wins)
-    private final ConcurrentHashMap<Integer, SchemaValue> schemasById = new ConcurrentHashMap<>();
+    private PersistentSortedMap<Integer, SchemaValue> schemasById = PersistentSortedMap.empty();
+
+    // id -> (subject, version) pairs registered with that id, ordered by id, then subject, then version
+    private PersistentSortedMap<Integer, PersistentSortedMap<SchemaKey, Boolean>> subjectVersionsById = PersistentSortedMap.empty();
+
+    // content digest -> (subject, version) pairs with that content, ordered by subject then version
+    private PersistentSortedMap<String, PersistentSortedMap<SchemaKey, Boolean>> subjectVersionsByDigest = PersistentSortedMap.empty();
+
+    // (subject, version) reference edges in both directions
+    private ReferenceGraph referenceGraph = ReferenceGraph.EMPTY;
 
     // subject -> CompatibilityLevel
-    private final ConcurrentHashMap<String, CompatibilityLevel> subjectCompatibility = new ConcurrentHashMap<>();
+    private PersistentSortedMap<String, CompatibilityLevel> subjectCompatibility = PersistentSortedMap.empty();
 
     // Global compatibility level
-    private volatile CompatibilityLevel globalCompatibility = CompatibilityLevel.BACKWARD;
+    private CompatibilityLevel globalCompatibility = CompatibilityLevel.BACKWARD;
 
     // subject -> mode
-    private final ConcurrentHashMap<String, String> subjectModes = new ConcurrentHashMap<>();
+    private PersistentSortedMap<String, String> subjectModes = PersistentSortedMap.empty();
 
     // Global mode
-    private volatile String globalMode = "READWRITE";
+    private String globalMode = "READWRITE";
 
-    // Set of soft-deleted subjects
-    private final ConcurrentHashMap<String, Boolean> softDeletedSubjects = new ConcurrentHashMap<>();
+    // Max schema ID seen in the topic
+    private int maxId = 0;
 
-    // Max schema ID
-    private final AtomicInteger maxId = new AtomicInteger(0);
+    // End of the highest accepted ID lease, and the offset of the last accepted lease record
+    private int maxLeasedId = 0;
+    private long lastLeaseOffset = -1;
 
-    // ---- Schema operations ----
+    // Leases still under the per-lease keys used before leases were keyed per owner, with their
+    // ends. Read by the writer, which tombstones them once a newer lease supersedes them. Few, so
+    // each change publishes a copy.
+    private Map<IdLeaseKey, Integer> legacyLeases = Map.of();
 
-    public void put(SchemaValue value) {
-        if (value == null) return;
+    // Highest leader epoch announced by a NOOP so far; 0 before any
+    private int fencedEpoch = 0;
 
-        String subject = value.getSubject();
-        int version = value.getVersion();
-        int id = value.getId();
+    public InMemoryStore() {
+        this(SchemaTextStorage.plain());
+    }
 
-        schemas.computeIfAbsent(subject, k -> new ConcurrentSkipListMap<>()).put(version, value);
-        schemasById.putIfAbsent(id, value);
-
-        int currentMax;
-        do {
-            currentMax = maxId.get();
-            if (id <= currentMax) break;
-        } while (!maxId.compareAndSet(currentMax, id));
-
-        // Track soft deleted state
-        if (value.isDeleted()) {
-            // Check if all versions are deleted
-            ConcurrentSkipListMap<Integer, SchemaValue> versions = schemas.get(subject);
-            if (versions != null && versions.values().stream().allMatch(SchemaValue::isDeleted)) {
-                softDeletedSubjects.put(subject, true);
-            }
-        } else {
-            softDeletedSubjects.remove(subject);
-        }
+    public InMemoryStore(SchemaTextStorage textStorage) {
+        this.textStorage = textStorage;
+        this.current = StoreSnapshot.empty(textStorage);
     }
 
-    public void markDeleted(String subject, int version) {
-        ConcurrentSkipListMap<Integer, SchemaValue> versions = schemas.get(subject);
-        if (versions != null) {
-            SchemaValue sv = versions.get(version);
-            if (sv != null) {
-                sv.setDeleted(true);
-            }
-            if (versions.values().stream().allMatch(SchemaValue::isDeleted)) {
-                softDeletedSubjects.put(subject, true);
-            }
-        }
+    public SchemaTextStorage getTextStorage() {
+        return textStorage;
     }
 
-    public void hardDelete(String subject, int version) {
-        ConcurrentSkipListMap<Integer, SchemaValue> versions = schemas.get(subject);
-        if (versions != null) {
-            versions.remove(version);
-            if (versions.isEmpty()) {
-                schemas.remove(subject);
-                softDeletedSubjects.remove(subject);
-            }
-        }
+    // ---- Snapshot publication ----
+
+    public StoreSnapshot snapshot() {
+        return current;
     }
 
-    public void softDeleteSubject(String subject) {
-        ConcurrentSkipListMap<Integer, SchemaValue> versions = schemas.get(subject);
-        if (versions != null) {
-            versions.values().forEach(sv -> sv.setDeleted(true));
-            softDeletedSubjects.put(subject, true);
-        }
+    // Publishes everything staged so far as the state at the given topic offset
+    public void commit(long offset) {
+        current = new StoreSnapshot(offset, current.getGeneration() + 1,
+            schemas, subjectMetadata, liveSubjects, contentById, schemasById, subjectVersionsById, subjectVersionsByDigest,
+            referenceGraph, textStorage, subjectCompatibility, globalCompatibility, subjectModes, globalMode, maxId,
+            maxLeasedId, lastLeaseOffset, legacyLeases, fencedEpoch);
     }
 
-    public void hardDeleteSubject(String subject) {
-        schemas.remove(subject);
-        softDeletedSubjects.remove(subject);
-        subjectCompatibility.remove(subject);
-        subjectModes.remove(subject);
+    public int getMaxSchemaId() {
+        return current.getMaxSchemaId();
     }
 
-    public SchemaValue getSchemaById(int id) {
-        return schemasById.get(id);
+    // ---- ID leases ----
+
+    // Leases are applied in topic order. One is accepted only if it starts above every lease
+    // before it, so of two writers racing for the same IDs the first record wins. A rejected lease
+    // still raises the high-water mark, so the mark depends only on the highest end in the topic
+    // and is the same whether or not compaction has dropped older leases.
+    public boolean applyIdLease(IdLeaseValue lease, long offset) {
+        if (lease.getEnd() < lease.getStart()) {
+            return false;
+        }
+        boolean accepted = lease.getStart() > maxLeasedId;
+        maxLeasedId = Math.max(maxLeasedId, lease.getEnd());
+        if (accepted) {
+            lastLeaseOffset = offset;
+        }
+        return accepted;
     }
 
-    public SchemaValue getSchema(String subject, int version, boolean lookupDeletedSchema) {
-        ConcurrentSkipListMap<Integer, SchemaValue> versions = schemas.get(subject);
-        if (versions == null) return null;
-        SchemaValue sv = versions.get(version);
-        if (sv == null) return null;
-        if (!lookupDeletedSchema && sv.isDeleted()) return null;
-        return sv;
+    void addLegacyLease(IdLeaseKey key, int end) {
+        Map<IdLeaseKey, Integer> updated = new HashMap<>(legacyLeases);
+        updated.put(key, end);
+        legacyLeases = Map.copyOf(updated);
     }
 
-    public List<Integer> getVersions(String subject, boolean lookupDeletedSchema) {
-        ConcurrentSkipListMap<Integer, SchemaValue> versions = schemas.get(subject);
-        if (versions == null) return Collections.emptyList();
-        if (lookupDeletedSchema) {
-            return new ArrayList<>(versions.keySet());
+    void removeLegacyLease(IdLeaseKey key) {
+        if (legacyLeases.containsKey(key)) {
+            Map<IdLeaseKey, Integer> updated = new HashMap<>(legacyLeases);
+            updated.remove(key);
+            legacyLeases = Map.copyOf(updated);
         }
-        return versions.entrySet().stream()
-            .filter(e -> !e.getValue().isDeleted())
-            .map(Map.Entry::getKey)
-            .collect(Collectors.toList());
     }
 
-    public List<String> getSubjects(boolean lookupDeletedSubjects) {
-        if (lookupDeletedSubjects) {
-            return schemas.keySet().stream().sorted().collect(Collectors.toList());
+    void restoreLeases(int maxLeasedId, long lastLeaseOffset, Map<IdLeaseKey, Integer> legacyLeases) {
+        this.maxLeasedId = Math.max(this.maxLeasedId, maxLeasedId);
+        this.lastLeaseOffset = lastLeaseOffset;
+        this.legacyLeases = Map.copyOf(legacyLeases);
+    }
+
+    // ---- Leader epochs ----
+
+    // Read by the reader thread between commits, so it sees fences raised earlier in its batch
+    int getFencedEpoch() {
+        return fencedEpoch;
+    }
+
+    void fence(int epoch) {
+        fencedEpoch = Math.max(fencedEpoch, epoch);
+    }
+
+    // ---- Schema operations ----
+
+    public void put(SchemaValue value) {
+        if (value == null) return;
+
+        String subject = value.getSubject();
+        int version = value.getVersion();
+        int id = value.getId();
+
+        PersistentSortedMap<Integer, SchemaValue> versions = schemas.get(subject);
+        SchemaValue previous = versions != null ? versions.get(version) : null;
+        if (previous != null) {
+            unindexContent(previous);
+            if (previous.getId() != id) {
+                unindexId(previous);
+            }
+        }
+        SchemaValue stored = shareContent(value);
+        versions = (versions != null ? versions : PersistentSortedMap.<Integer, SchemaValue>empty()).put(version, stored);
+        schemas = schemas.put(subject, versions);
+        indexId(value);
+        indexContent(value);
+        referenceGraph = referenceGraph.add(value);
+        SchemaValue registered = schemasById.get(id);
+        if (registered == null || registered.toKey().equals(value.toKey())) {
+            schemasById = schemasById.put(id, stored);
+        }
+        maxId = Math.max(maxId, id);
+
+        SubjectMetadata meta = subjectMetadata.get(subject);
+        int liveCount = meta != null ? meta.getLiveCount() : 0;
+        int latestLive = meta != null ? meta.getLatestLiveVersion() : -1;
+        int latest = meta != null ? meta.getLatestVersion() : -1;
+        if (previous != null && !previous.isDeleted()) {
+            liveCount--;
         }
-        return schemas.entrySet().stream()
-            .filter(e -> e.getValue().values().stream().anyMatch(sv -> !sv.isDeleted()))
-            .map(Map.Entry::getKey)
-            .sorted()
-            .collect(Collectors.toList());
-    }
-
-    public int getLatestVersion(String subject, boolean lookupDeletedSchema) {
-        ConcurrentSkipListMap<Integer, SchemaValue> versions = schemas.get(subject);
-        if (versions == null || versions.isEmpty()) return -1;
-        if (lookupDeletedSchema) {
-            return versions.lastKey();
+        if (!value.isDeleted()) {
+            liveCount++;
+            latestLive = Math.max(latestLive, version);
+        } else if (version == latestLive) {
+            latestLive = latestLiveVersionBelow(versions, version);
         }
-        return versions.descendingMap().entrySet().stream()
-            .filter(e -> !e.getValue().isDeleted())
-            .map(Map.Entry::getKey)
-            .findFirst()
-            .orElse(-1);
+        setMetadata(subject, new SubjectMetadata(liveCount, latestLive, Math.max(latest, version)));
     }
 
-    public boolean hasSubject(String subject, boolean lookupDeletedSubjects) {
-        ConcurrentSkipListMap<Integer, SchemaValue> versions = schemas.get(subject);
-        if (versions == null || versions.isEmpty()) return false;
-        if (lookupDeletedSubjects) return true;
-        return versions.values().stream().anyMatch(sv -> !sv.isDeleted());
+    // Sets the by-id entry outright, for restoring one that put() alone would not reproduce
+    void restoreSchemaById(SchemaValue value) {
+        schemasById = schemasById.put(value.getId(), shareContent(value));
+        maxId = Math.max(maxId, value.getId());
     }
 
-    public boolean isSubjectSoftDeleted(String subject) {
-        return softDeletedSubjects.containsKey(subject);
+    public void markDeleted(String subject, int version) {
+        PersistentSortedMap<Integer, SchemaValue> versions = schemas.get(subject);
+        if (versions == null) return;
+        SchemaValue sv = versions.get(version);
+        if (sv == null || sv.isDeleted()) return;
+
+        versions = replaceVersion(versions, sv.withDeleted(true));
+        schemas = schemas.put(subject, versions);
+        SubjectMetadata meta = subjectMetadata.get(subject);
+        if (meta != null) {
+            int latestLive = meta.getLatestLiveVersion() == version
+                ? latestLiveVersionBelow(versions, version) : meta.getLatestLiveVersion();
+            setMetadata(subject, new SubjectMetadata(meta.getLiveCount() - 1, latestLive, meta.getLatestVersion()));
+        }
     }
 
-    public List<SchemaValue> getSchemasBySubject(String subject, boolean lookupDeletedSchema) {
-        ConcurrentSkipListMap<Integer, SchemaValue> versions = schemas.get(subject);
-        if (versions == null) return Collections.emptyList();
-        if (lookupDeletedSchema) {
-            return new ArrayList<>(versions.values());
+    public void hardDelete(String subject, int version) {
+        PersistentSortedMap<Integer, SchemaValue> versions = schemas.get(subject);
+        if (versions == null) return;
+        SchemaValue removed = versions.get(version);
+        if (removed == null) return;
+
+        versions = versions.remove(version);
+        unindexContent(removed);
+        unindexId(removed);
+        referenceGraph = referenceGraph.remove(removed.toKey());
+        if (versions.isEmpty()) {
+            schemas = schemas.remove(subject);
+            removeMetadata(subject);
+            return;
+        }
+        schemas = schemas.put(subject, versions);
+        SubjectMetadata meta = subjectMetadata.get(subject);
+        if (meta != null) {
+            int liveCount = removed.isDeleted() ? meta.getLiveCount() : meta.getLiveCount() - 1;
+            int latestLive = meta.getLatestLiveVersion() == version
+                ? latestLiveVersionBelow(versions, version) : meta.getLatestLiveVersion();
+            int latest = meta.getLatestVersion() == version ? versions.lastKey() : meta.getLatestVersion();
+            setMetadata(subject, new SubjectMetadata(liveCount, latestLive, latest));
         }
-        return versions.values().stream()
-            .filter(sv -> !sv.isDeleted())
-            .collect(Collectors.toList());
     }
 
-    public SchemaValue lookupSchemaByContent(String subject, String schema, String schemaType,
-                                             List<SchemaReference> references, boolean lookupDeletedSchema) {
-        String type = schemaType != null ? schemaType : "AVRO";
-        ConcurrentSkipListMap<Integer, SchemaValue> versions = schemas.get(subject);
-        if (versions == null) return null;
+    public void softDeleteSubject(String subject) {
+        PersistentSortedMap<Integer, SchemaValue> versions = schemas.get(subject);
+        if (versions == null) return;
 
         for (SchemaValue sv : versions.values()) {
-            if (!lookupDeletedSchema && sv.isDeleted()) continue;
-            if (type.equals(sv.getSchemaType()) && schema.equals(sv.getSchema())) {
-                // Check references match
-                List<SchemaReference> svRefs = sv.getReferences();
-                if (referencesMatch(references, svRefs)) {
-                    return sv;
-                }
+            if (!sv.isDeleted()) {
+                versions = replaceVersion(versions, sv.withDeleted(true));
             }
         }
-        return null;
-    }
-
-    private boolean referencesMatch(List<SchemaReference> refs1, List<SchemaReference> refs2) {
-        List<SchemaReference> r1 = refs1 != null ? refs1 : Collections.emptyList();
-        List<SchemaReference> r2 = refs2 != null ? refs2 : Collections.emptyList();
-        if (r1.size() != r2.size()) return false;
-        for (int i = 0; i < r1.size(); i++) {
-            SchemaReference a = r1.get(i);
-            SchemaReference b = r2.get(i);
-            if (!Objects.equals(a.getName(), b.getName()) ||
-                !Objects.equals(a.getSubject(), b.getSubject()) ||
-                a.getVersion() != b.getVersion()) {
-                return false;
-            }
-        }
-        return true;
-    }
-
-    public List<String> getSubjectsForSchemaId(int id, boolean lookupDeletedSubjects) {
-        List<String> result = new ArrayList<>();
-        for (Map.Entry<String, ConcurrentSkipListMap<Integer, SchemaValue>> entry : schemas.entrySet()) {
-            for (SchemaValue sv : entry.getValue().values()) {
-                if (sv.getId() == id) {
-                    if (lookupDeletedSubjects || !sv.isDeleted()) {
-                        result.add(entry.getKey());
-                        break;
-                    }
-                }
+        schemas = schemas.put(subject, versions);
+        SubjectMetadata meta = subjectMetadata.get(subject);
+        int latest = meta != null ? meta.getLatestVersion() : versions.lastKey();
+        setMetadata(subject, new SubjectMetadata(0, -1, latest));
+    }
+
+    public void hardDeleteSubject(String subject) {
+        PersistentSortedMap<Integer, SchemaValue> removed = schemas.get(subject);
+        if (removed != null) {
+            for (SchemaValue sv : removed.values()) {
+                unindexContent(sv);
+                unindexId(sv);
+                referenceGraph = referenceGraph.remove(sv.toKey());
             }
+            schemas = schemas.remove(subject);
         }
-        Collections.sort(result);
-        return result;
-    }
-
-    public List<Map<String, Object>> getVersionsForSchemaId(int id, boolean lookupDeletedSubjects) {
-        List<Map<String, Object>> result = new ArrayList<>();
-        for (Map.Entry<String, ConcurrentSkipListMap<Integer, SchemaValue>> entry : schemas.entrySet()) {
-            for (SchemaValue sv : entry.getValue().values()) {
-                if (sv.getId() == id) {
-                    if (lookupDeletedSubjects || !sv.isDeleted()) {
-                        Map<String, Object> subjectVersion = new LinkedHashMap<>();
-                        subjectVersion.put("subject", entry.getKey());
-                        subjectVersion.put("version", sv.getVersion());
-                        result.add(subjectVersion);
-                    }
-                }
-            }
+        removeMetadata(subject);
+        subjectCompatibility = subjectCompatibility.remove(subject);
+        subjectModes = subjectModes.remove(subject);
+    }
+
+    // Drops the schema text from values whose text is already stored for their id
+    private SchemaValue shareContent(SchemaValue value) {
+        String schema = value.getSchema();
+        if (schema == null) return value;
+        SchemaText shared = contentById.get(value.getId());
+        if (shared == null) {
+            contentById = contentById.put(value.getId(), textStorage.encode(schema));
+            return value.withSchema(null);
         }
-        return result;
-    }
-
-    public List<Integer> getReferencedBy(String subject, int version) {
-        SchemaValue target = getSchema(subject, version, true);
-        if (target == null) return Collections.emptyList();
-
-        List<Integer> result = new ArrayList<>();
-        for (Map.Entry<String, ConcurrentSkipListMap<Integer, SchemaValue>> entry : schemas.entrySet()) {
-            for (SchemaValue sv : entry.getValue().values()) {
-                if (sv.getReferences() != null) {
-                    for (SchemaReference ref : sv.getReferences()) {
-                        if (subject.equals(ref.getSubject()) && version == ref.getVersion()) {
-                            if (!sv.isDeleted()) {
-                                result.add(sv.getId());
-                            }
-                        }
-                    }
-                }
-            }
+        return textStorage.decode(shared).equals(schema) ? value.withSchema(null) : value;
+    }
+
+    private String schemaText(SchemaValue stored) {
+        if (stored.getSchema() != null) return stored.getSchema();
+        SchemaText shared = contentById.get(stored.getId());
+        return shared != null ? textStorage.decode(shared) : null;
+    }
+
+    // Swaps in a new copy of an existing version, keeping the by-id entry pointing at the current copy
+    private PersistentSortedMap<Integer, SchemaValue> replaceVersion(PersistentSortedMap<Integer, SchemaValue> versions,
+                                                                     SchemaValue updated) {
+        SchemaValue registered = schemasById.get(updated.getId());
+        if (registered != null && registered.toKey().equals(updated.toKey())) {
+            schemasById = schemasById.put(updated.getId(), updated);
         }
-        return result;
+        return versions.put(updated.getVersion(), updated);
     }
 
-    public int getMaxSchemaId() {
-        return maxId.get();
+    private void setMetadata(String subject, SubjectMetadata meta) {
+        subjectMetadata = subjectMetadata.put(subject, meta);
+        liveSubjects = meta.isLive() ? liveSubjects.put(subject, Boolean.TRUE) : liveSubjects.remove(subject);
     }
 
-    public int nextSchemaId() {
-        return maxId.incrementAndGet();
+    private void removeMetadata(String subject) {
+        liveSubjects = liveSubjects.remove(subject);
+        subjectMetadata = subjectMetadata.remove(subject);
     }
 
-    // All schemas for listing (GET /schemas)
-    public List<SchemaValue> getAllSchemas(String subjectPrefix, boolean lookupDeletedSchemas, Integer limit, Integer offset) {
-        List<SchemaValue> all = new ArrayList<>();
-        for (Map.Entry<String, ConcurrentSkipListMap<Integer, SchemaValue>> entry : schemas.entrySet()) {
-            if (subjectPrefix != null && !entry.getKey().startsWith(subjectPrefix)) continue;
-            for (SchemaValue sv : entry.getValue().values()) {
-                if (!lookupDeletedSchemas && sv.isDeleted()) continue;
-                all.add(sv);
+    // Only walks past versions newer than the answer, which are all soft-deleted
+    private static int latestLiveVersionBelow(PersistentSortedMap<Integer, SchemaValue> versions, int version) {
+        for (Map.Entry<Integer, SchemaValue> entry : versions.descendingHead(version, false)) {
+            if (!entry.getValue().isDeleted()) {
+                return entry.getKey();
             }
         }
-        // Sort by ID
-        all.sort(Comparator.comparingInt(SchemaValue::getId));
-        // Apply offset/limit
-        int start = offset != null ? offset : 0;
-        int end = limit != null ? Math.min(start + limit, all.size()) : all.size();
-        if (start >= all.size()) return Collections.emptyList();
-        return all.subList(start, end);
+        return -1;
     }
 
-    // ---- Config operations ----
-
-    public CompatibilityLevel getGlobalCompatibilityLevel() {
-        return globalCompatibility;
+    private void indexId(SchemaValue value) {
+        subjectVersionsById = addKey(subjectVersionsById, value.getId(), value.toKey());
     }
 
-    public void setGlobalCompatibilityLevel(CompatibilityLevel level) {
-        this.globalCompatibility = level;
+    private void unindexId(SchemaValue value) {
+        subjectVersionsById = removeKey(subjectVersionsById, value.getId(), value.toKey());
     }
 
-    public CompatibilityLevel getSubjectCompatibilityLevel(String subject) {
-        return subjectCompatibility.get(subject);
+    private void indexContent(SchemaValue value) {
+        String digest = SchemaDigest.of(value.getSchemaType(), value.getSchema(), value.getReferences());
+        subjectVersionsByDigest = addKey(subjectVersionsByDigest, digest, value.toKey());
     }
 
-    public void setSubjectCompatibilityLevel(String subject, CompatibilityLevel level) {
-        subjectCompatibility.put(subject, level);
+    private void unindexContent(SchemaValue stored) {
+        String digest = SchemaDigest.of(stored.getSchemaType(), schemaText(stored), stored.getReferences());
+        subjectVersionsByDigest = removeKey(subjectVersionsByDigest, digest, stored.toKey());
     }
 
-    public void deleteSubjectCompatibilityLevel(String subject) {
-        subjectCompatibility.remove(subject);
+    private static <I extends Comparable<? super I>> PersistentSortedMap<I, PersistentSortedMap<SchemaKey, Boolean>> addKey(
+            PersistentSortedMap<I, PersistentSortedMap<SchemaKey, Boolean>> index, I indexKey, SchemaKey key) {
+        PersistentSortedMap<SchemaKey, Boolean> keys = index.get(indexKey);
+        if (keys == null) keys = PersistentSortedMap.empty();
+        return index.put(indexKey, keys.put(key, Boolean.TRUE));
     }
 
-    public boolean hasSubjectCompatibilityLevel(String subject) {
-        return subjectCompatibility.containsKey(subject);
+    private static <I extends Comparable<? super I>> PersistentSortedMap<I, PersistentSortedMap<SchemaKey, Boolean>> removeKey(
+            PersistentSortedMap<I, PersistentSortedMap<SchemaKey, Boolean>> index, I indexKey, SchemaKey key) {
+        PersistentSortedMap<SchemaKey, Boolean> keys = index.get(indexKey);
+        if (keys == null) return index;
+        keys = keys.remove(key);
+        return keys.isEmpty() ? index.remove(indexKey) : index.put(indexKey, keys);
     }
 
-    public CompatibilityLevel getEffectiveCompatibilityLevel(String subject) {
-        CompatibilityLevel subjectLevel = subjectCompatibility.get(subject);
-        return subjectLevel != null ? subjectLevel : globalCompatibility;
+    // ---- Config operations ----
+
+    public void setGlobalCompatibilityLevel(CompatibilityLevel level) {
+        this.globalCompatibility = level;
     }
 
-    // ---- Mode operations ----
+    public void setSubjectCompatibilityLevel(String subject, CompatibilityLevel level) {
+        subjectCompatibility = subjectCompatibility.put(subject, level);
+    }
 
-    public String getGlobalMode() {
-        return globalMode;
+    public void deleteSubjectCompatibilityLevel(String subject) {
+        subjectCompatibility = subjectCompatibility.remove(subject);
     }
 
+    // ---- Mode operations ----
+
     public void setGlobalMode(String mode) {
         this.globalMode = mode;
     }
 
-    public String getSubjectMode(String subject) {
-        return subjectModes.get(subject);
-    }
-
     public void setSubjectMode(String subject, String mode) {
-        subjectModes.put(subject, mode);
+        subjectModes = subjectModes.put(subject, mode);
     }
 
     public void deleteSubjectMode(String subject) {
-        subjectModes.remove(subject);
-    }
-
-    public boolean hasSubjectMode(String subject) {
-        return subjectModes.containsKey(subject);
-    }
-
-    public String getEffectiveMode(String subject) {
-        String mode = subjectModes.get(subject);
-        return mode != null ? mode : globalMode;
+        subjectModes = subjectModes.remove(subject);
     }
 }
@@ -7,10 +7,13 @@ import io.schemaregistry.mirror.exception.SchemaRegistryException;
 import io.schemaregistry.mirror.schema.CompatibilityLevel;
 import io.schemaregistry.mirror.storage.model.*;
 import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.Config;
+import org.apache.kafka.clients.admin.ConfigEntry;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
 import org.apache.kafka.clients.producer.KafkaProducer;
-import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.config.ConfigResource;
 import org.apache.kafka.common.config.TopicConfig;
 import org.apache.kafka.common.errors.TopicExistsException;
 import org.slf4j.Logger;
@@ -19,23 +22,41 @@ import org.springframework.stereotype.Component;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Component
 public class KafkaSchemaStore implements SchemaStore {
 
     private static final Logger log = LoggerFactory.getLogger(KafkaSchemaStore.class);
 
+    // Kafka's default delete.retention.ms (one day)
+    private static final long DEFAULT_DELETE_RETENTION_MS = TimeUnit.DAYS.toMillis(1);
+
     private final SchemaRegistryProperties properties;
     private final AdminClient adminClient;
     private final KafkaProducer<byte[], byte[]> producer;
     private final KafkaConsumer<byte[], byte[]> consumer;
     private final ObjectMapper objectMapper;
     private final InMemoryStore store;
+    private final StoreCheckpoint checkpoint;
+    private final IdLeaseAllocator idAllocator;
     private KafkaStoreReaderThread readerThread;
+    private GroupCommitWriter writer;
+    private ScheduledExecutorService checkpointScheduler;
+    private volatile long checkpointedOffset = -1;
     private volatile boolean initialized = false;
+    // Epoch every record is tagged with, set by the leader elector; 0 while election is disabled
+    private volatile int writerEpoch = 0;
+
 
     public KafkaSchemaStore(SchemaRegistryProperties properties,
                             AdminClient adminClient,
@@ -47,7 +68,14 @@ public class KafkaSchemaStore implements SchemaStore {
         this.producer = producer;
         this.consumer = consumer;
         this.objectMapper = objectMapper;
-        this.store = new InMemoryStore();
+        SchemaTextStorage.Mode storageMode;
+        try {
+            storageMode = SchemaTextStorage.Mode.forName(properties.getStorageMode());
+        } catch (IllegalArgumentException e) {
+            log.warn("Unknown storage mode {}, using PLAIN", properties.getStorageMode());
+            storageMode = SchemaTextStorage.Mode.PLAIN;
+        }
+        this.store = new InMemoryStore(new SchemaTextStorage(storageMode, properties.getSchemaTextCacheSize()));
 
         // Set initial compatibility from config
         CompatibilityLevel defaultLevel;
@@ -58,6 +86,34 @@ public class KafkaSchemaStore implements SchemaStore {
         }
         store.setGlobalCompatibilityLevel(defaultLevel);
         store.setGlobalMode(properties.getMode());
+        store.commit(-1);
+
+        String checkpointPath = properties.getCheckpointPath();
+        this.checkpoint = checkpointPath != null && !checkpointPath.isBlank()
+            ? new StoreCheckpoint(Path.of(checkpointPath), properties.getTopic(), defaultLevel.getName(),
+                properties.getMode(), objectMapper)
+            : null;
+
+        // Stable across restarts, so a restarted instance overwrites the lease of its previous
+        // run instead of adding a key. Its first lease starts above that lease once caught up.
+        String owner = properties.getAdvertisedHost() + ":" + properties.getPort();
+        this.idAllocator = new IdLeaseAllocator(owner, properties.getIdLeaseSize(), store::snapshot,
+            this::writeLease);
+    }
+
+    private CompletableFuture<Long> writeLease(IdLeaseValue lease) {
+        return produceAndWait(lease.toKey(), lease).thenApply(offset -> {
+            // Leases under the old per-lease keys that end below this one are superseded by it,
+            // so tombstoning them cannot lower the high-water mark left after compaction
+            for (IdLeaseKey legacy : store.snapshot().getLegacyLeasesEndingBelow(lease.getStart())) {
+                produce(legacy, null).whenComplete((v, e) -> {
+                    if (e != null) {
+                        log.warn("Failed to tombstone superseded ID lease {}", legacy, e);
+                    }
+                });
+            }
+            return offset;
+        });
     }
 
     @PostConstruct
@@ -65,7 +121,11 @@ public class KafkaSchemaStore implements SchemaStore {
     public void start() throws Exception {
         createTopicIfNeeded();
 
-        readerThread = new KafkaStoreReaderThread(consumer, properties.getTopic(), store, objectMapper);
+        long startOffset = restoreCheckpoint();
+        int decodeThreads = properties.getReaderDecodeThreads() > 0
+            ? properties.getReaderDecodeThreads() : Runtime.getRuntime().availableProcessors();
+        readerThread = new KafkaStoreReaderThread(consumer, properties.getTopic(), store, objectMapper,
+            startOffset, decodeThreads);
         readerThread.start();
 
         boolean loaded = readerThread.waitForInitialLoad(properties.getInitTimeout());
@@ -73,13 +133,38 @@ public class KafkaSchemaStore implements SchemaStore {
             log.warn("Initial load did not complete within timeout");
         }
 
+        writer = new GroupCommitWriter(producer, properties.getTopic(),
+            properties.getWriteLingerMs(), properties.getWriteMaxBatchSize());
+        writer.start();
+
         initialized = true;
         log.info("KafkaSchemaStore initialized. Max schema ID: {}", store.getMaxSchemaId());
+
+        if (checkpoint != null && properties.getCheckpointIntervalMs() > 0) {
+            checkpointScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "store-checkpoint");
+                t.setDaemon(true);
+                return t;
+            });
+            long interval = properties.getCheckpointIntervalMs();
+            checkpointScheduler.scheduleWithFixedDelay(this::writeCheckpoint, interval, interval, TimeUnit.MILLISECONDS);
+        }
     }
 
     @PreDestroy
     @Override
     public void stop() {
+        if (checkpointScheduler != null) {
+            checkpointScheduler.shutdownNow();
+        }
+        if (writer != null) {
+            writer.shutdown();
+            try {
+                writer.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
         if (readerThread != null) {
             readerThread.shutdown();
             try {
@@ -88,6 +173,85 @@ public class KafkaSchemaStore implements SchemaStore {
                 Thread.currentThread().interrupt();
             }
         }
+        if (initialized) {
+            writeCheckpoint();
+        }
+    }
+
+    // Loads the local checkpoint into the store and returns its offset. Returns -1, meaning replay
+    // from the beginning, when there is none or it does not fit the topic's current offset range.
+    private long restoreCheckpoint() {
+        if (checkpoint == null) return -1;
+        StoreCheckpoint.State state;
+        try {
+            state = checkpoint.load();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable checkpoint {}, replaying {} from the beginning",
+                checkpoint.getPath(), properties.getTopic(), e);
+            return -1;
+        }
+        if (state == null) {
+            log.info("No usable checkpoint at {}, replaying {} from the beginning", checkpoint.getPath(), properties.getTopic());
+            return -1;
+        }
+
+        // Compaction drops tombstones older than delete.retention.ms, so an older checkpoint could
+        // miss hard deletes
+        long retentionMs = deleteRetentionMs();
+        if (System.currentTimeMillis() - state.getWrittenAt() > retentionMs) {
+            log.warn("Checkpoint {} is older than {} delete.retention.ms ({} ms), replaying from the beginning",
+                checkpoint.getPath(), properties.getTopic(), retentionMs);
+            return -1;
+        }
+
+        // Before the log start offset, deletes may have been compacted away, and past the end
+        // the topic has been recreated; either way the checkpoint no longer describes it
+        TopicPartition topicPartition = new TopicPartition(properties.getTopic(), 0);
+        long beginning = consumer.beginningOffsets(List.of(topicPartition)).getOrDefault(topicPartition, 0L);
+        long end = consumer.endOffsets(List.of(topicPartition)).getOrDefault(topicPartition, 0L);
+        long next = state.getOffset() + 1;
+        if (next < beginning || next > end) {
+            log.warn("Checkpoint offset {} is outside {} [{}, {}), replaying from the beginning",
+                state.getOffset(), properties.getTopic(), beginning, end);
+            return -1;
+        }
+
+        state.applyTo(store);
+        store.commit(state.getOffset());
+        checkpointedOffset = state.getOffset();
+        log.info("Restored checkpoint {} at offset {} with {} schema versions",
+            checkpoint.getPath(), state.getOffset(), state.getSchemas().size());
+        return state.getOffset();
+    }
+
+    private long deleteRetentionMs() {
+        ConfigResource resource = new ConfigResource(ConfigResource.Type.TOPIC, properties.getTopic());
+        try {
+            Config config = adminClient.describeConfigs(List.of(resource)).all().get(30, TimeUnit.SECONDS).get(resource);
+            ConfigEntry entry = config != null ? config.get(TopicConfig.DELETE_RETENTION_MS_CONFIG) : null;
+            if (entry != null && entry.value() != null) {
+                return Long.parseLong(entry.value());
+            }
+        } catch (Exception e) {
+            log.warn("Could not read {} of {}, assuming the broker default", TopicConfig.DELETE_RETENTION_MS_CONFIG,
+                properties.getTopic(), e);
+        }
+        return DEFAULT_DELETE_RETENTION_MS;
+    }
+
+    private void writeCheckpoint() {
+        if (checkpoint == null) return;
+        StoreSnapshot snapshot = store.snapshot();
+        if (snapshot.getOffset() < 0 || snapshot.getOffset() == checkpointedOffset) return;
+        try {
+            long startNs = System.nanoTime();
+            checkpoint.write(snapshot);
+            checkpointedOffset = snapshot.getOffset();
+            log.info("Wrote checkpoint {} at offset {} in {} ms", checkpoint.getPath(), snapshot.getOffset(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNs));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to write checkpoint {}", checkpoint.getPath(), e);
+        }
     }
 
     private void createTopicIfNeeded() {
@@ -129,89 +293,155 @@ public class KafkaSchemaStore implements SchemaStore {
 
     // ---- Write to Kafka and wait for readback ----
 
-    public void produce(SchemaRegistryKey key, SchemaRegistryValue value) {
-        try {
-            byte[] keyBytes = objectMapper.writeValueAsBytes(key);
-            byte[] valueBytes = value != null ? objectMapper.writeValueAsBytes(value) : null;
-
-            ProducerRecord<byte[], byte[]> record = new ProducerRecord<>(properties.getTopic(), 0, keyBytes, valueBytes);
-            long offset = producer.send(record).get(properties.getKafkaStoreTimeoutMs(), TimeUnit.MILLISECONDS).offset();
+    // Completes once Kafka has acknowledged the record and the store has applied it. No thread
+    // is held in between: the writer completes the acknowledgement, the reader the readback.
+    public CompletableFuture<Void> produce(SchemaRegistryKey key, SchemaRegistryValue value) {
+        return produceAndWait(key, value).thenApply(offset -> null);
+    }
 
-            // Wait for reader thread to catch up
-            waitForOffset(offset);
-        } catch (Exception e) {
-            throw SchemaRegistryException.storeException("Error writing to Kafka store", e);
+    // As produce(), completing with the record's offset
+    private CompletableFuture<Long> produceAndWait(SchemaRegistryKey key, SchemaRegistryValue value) {
+        byte[] keyBytes;
+        byte[] valueBytes;
+        try {
+            keyBytes = objectMapper.writeValueAsBytes(key);
+            valueBytes = value != null ? objectMapper.writeValueAsBytes(value) : null;
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(
+                SchemaRegistryException.storeException("Error writing to Kafka store", e));
         }
-    }
 
-    private void waitForOffset(long offset) throws InterruptedException {
-        long startMs = System.currentTimeMillis();
+        // One deadline covers both the acknowledgement and the readback
         long timeoutMs = properties.getKafkaStoreTimeoutMs();
-        while (readerThread.getLastWrittenOffset() < offset) {
-            if (System.currentTimeMillis() - startMs > timeoutMs) {
-                throw SchemaRegistryException.operationTimeoutException(
-                    "Timed out waiting for store to catch up to offset " + offset);
-            }
-            Thread.sleep(10);
-        }
+        long deadlineNs = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        CompletableFuture<Long> acked = writer.submit(keyBytes, valueBytes, writerEpoch);
+        CompletableFuture<Void> settled = acked
+            .handle((offset, e) -> offset)
+            .thenCompose(offset -> offset != null
+                ? readerThread.whenApplied(offset).handle((applied, e) -> (Void) null)
+                : CompletableFuture.<Void>completedFuture(null));
+        // copy() so that the timeout does not settle the write itself
+        return acked.copy()
+            .orTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+            .exceptionallyCompose(e -> CompletableFuture.failedFuture(
+                SchemaRegistryException.storeException("Error writing to Kafka store", unwrap(e))))
+            .thenCompose(offset -> waitForOffset(offset,
+                Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadlineNs - System.nanoTime()))))
+            .exceptionallyCompose(e -> {
+                // The record may still be applied after its caller has given up on it
+                Throwable cause = unwrap(e);
+                if (!settled.isDone() && cause instanceof SchemaRegistryException failure) {
+                    return CompletableFuture.failedFuture(new UnsettledWriteException(failure, settled));
+                }
+                return CompletableFuture.failedFuture(cause);
+            });
+    }
+
+    // Completes once the store has applied the given offset. Fails with an operation timeout
+    // after the store timeout, so callers can wait without holding a thread.
+    public CompletableFuture<Long> waitForOffset(long offset) {
+        return waitForOffset(offset, properties.getKafkaStoreTimeoutMs());
+    }
+
+    public CompletableFuture<Long> waitForOffset(long offset, long timeoutMs) {
+        // copy() so that the timeout only fails this caller, not others waiting on the same offset
+        return readerThread.whenApplied(offset).copy()
+            .orTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+            .exceptionallyCompose(e -> {
+                Throwable cause = unwrap(e);
+                if (cause instanceof TimeoutException) {
+                    return CompletableFuture.failedFuture(SchemaRegistryException.operationTimeoutException(
+                        "Timed out waiting for store to catch up to offset " + offset));
+                }
+                if (cause instanceof SchemaRegistryException rejected) {
+                    return CompletableFuture.failedFuture(rejected);
+                }
+                return CompletableFuture.failedFuture(SchemaRegistryException.storeException(
+                    "Store stopped before catching up to offset " + offset, cause));
+            });
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+
+    // ---- Schema read operations (delegate to the current snapshot) ----
+
+    @Override
+    public StoreSnapshot snapshot() {
+        return store.snapshot();
     }
 
-    // ---- Schema read operations (delegate to InMemoryStore) ----
-
     @Override
     public SchemaValue getSchemaById(int id) {
-        return store.getSchemaById(id);
+        return store.snapshot().getSchemaById(id);
     }
 
     @Override
     public SchemaValue getSchema(String subject, int version, boolean lookupDeletedSchema) {
-        return store.getSchema(subject, version, lookupDeletedSchema);
+        return store.snapshot().getSchema(subject, version, lookupDeletedSchema);
     }
 
     @Override
     public List<Integer> getVersions(String subject, boolean lookupDeletedSchema) {
-        return store.getVersions(subject, lookupDeletedSchema);
+        return store.snapshot().getVersions(subject, lookupDeletedSchema);
     }
 
     @Override
     public List<String> getSubjects(boolean lookupDeletedSubjects) {
-        return store.getSubjects(lookupDeletedSubjects);
+        return store.snapshot().getSubjects(lookupDeletedSubjects);
+    }
+
+    @Override
+    public List<String> getSubjects(String subjectPrefix, boolean lookupDeletedSubjects) {
+        return store.snapshot().getSubjects(subjectPrefix, lookupDeletedSubjects);
     }
 
     @Override
     public int getLatestVersion(String subject, boolean lookupDeletedSchema) {
-        return store.getLatestVersion(subject, lookupDeletedSchema);
+        return store.snapshot().getLatestVersion(subject, lookupDeletedSchema);
     }
 
     @Override
     public boolean hasSubject(String subject, boolean lookupDeletedSubjects) {
-        return store.hasSubject(subject, lookupDeletedSubjects);
+        return store.snapshot().hasSubject(subject, lookupDeletedSubjects);
     }
 
     @Override
     public List<SchemaValue> getSchemasBySubject(String subject, boolean lookupDeletedSchema) {
-        return store.getSchemasBySubject(subject, lookupDeletedSchema);
+        return store.snapshot().getSchemasBySubject(subject, lookupDeletedSchema);
     }
 
     @Override
     public SchemaValue lookupSchemaByContent(String subject, String schema, String schemaType,
                                              List<SchemaReference> references, boolean lookupDeletedSchema) {
-        return store.lookupSchemaByContent(subject, schema, schemaType, references, lookupDeletedSchema);
+        return store.snapshot().lookupSchemaByContent(subject, schema, schemaType, references, lookupDeletedSchema);
+    }
+
+    @Override
+    public int lookupSchemaIdByContent(String schema, String schemaType, List<SchemaReference> references) {
+        return store.snapshot().lookupSchemaIdByContent(schema, schemaType, references);
     }
 
     @Override
     public List<String> getSubjectsForSchemaId(int id, boolean lookupDeletedSubjects) {
-        return store.getSubjectsForSchemaId(id, lookupDeletedSubjects);
+        return store.snapshot().getSubjectsForSchemaId(id, lookupDeletedSubjects);
     }
 
     @Override
     public List<Map<String, Object>> getVersionsForSchemaId(int id, boolean lookupDeletedSubjects) {
-        return store.getVersionsForSchemaId(id, lookupDeletedSubjects);
+        return store.snapshot().getVersionsForSchemaId(id, lookupDeletedSubjects);
     }
 
     @Override
     public List<Integer> getReferencedBy(String subject, int version) {
-        return store.getReferencedBy(subject, version);
+        return store.snapshot().getReferencedBy(subject, version);
+    }
+
+    @Override
+    public List<SchemaValue> getAllSchemas(String subjectPrefix, boolean lookupDeletedSchemas, boolean latestOnly,
+                                           int afterId, SchemaKey afterKey, int offset, int limit) {
+        return store.snapshot().getAllSchemas(subjectPrefix, lookupDeletedSchemas, latestOnly, afterId, afterKey, offset, limit);
     }
 
     @Override
@@ -219,127 +449,203 @@ public class KafkaSchemaStore implements SchemaStore {
         return store.getMaxSchemaId();
     }
 
+    @Override
+    public CompletableFuture<Integer> nextSchemaId() {
+        return idAllocator.next();
+    }
+
     // ---- Schema write operations ----
 
     @Override
-    public void registerSchema(SchemaValue schemaValue) {
+    public CompletableFuture<Void> registerSchema(SchemaValue schemaValue) {
         SchemaKey key = schemaValue.toKey();
-        produce(key, schemaValue);
+        return produce(key, schemaValue);
     }
 
     @Override
-    public void softDeleteSchema(String subject, int version) {
-        SchemaValue existing = store.getSchema(subject, version, true);
+    public CompletableFuture<Void> softDeleteSchema(String subject, int version) {
+        SchemaValue existing = store.snapshot().getSchema(subject, version, true);
         if (existing != null) {
             SchemaValue deleted = new SchemaValue(
                 existing.getSubject(), existing.getVersion(), existing.getId(),
                 existing.getMd5(), existing.getSchemaType(), existing.getReferences(),
                 existing.getMetadata(), existing.getRuleSet(), existing.getSchema(), true
             );
-            produce(deleted.toKey(), deleted);
+            return produce(deleted.toKey(), deleted);
         }
+        return CompletableFuture.completedFuture(null);
     }
 
     @Override
-    public void hardDeleteSchema(String subject, int version) {
+    public CompletableFuture<Void> hardDeleteSchema(String subject, int version) {
         SchemaKey key = new SchemaKey(subject, version);
-        produce(key, null); // tombstone
+        return produce(key, null); // tombstone
     }
 
     @Override
-    public void softDeleteSubject(String subject) {
+    public CompletableFuture<Void> softDeleteSubject(String subject) {
         DeleteSubjectKey key = new DeleteSubjectKey(subject);
-        int latestVersion = store.getLatestVersion(subject, true);
+        int latestVersion = store.snapshot().getLatestVersion(subject, true);
         DeleteSubjectValue value = new DeleteSubjectValue(subject, latestVersion);
-        produce(key, value);
+        return produce(key, value);
     }
 
     @Override
-    public void hardDeleteSubject(String subject) {
-        // Write tombstones for all versions
-        List<Integer> versions = store.getVersions(subject, true);
+    public CompletableFuture<Void> hardDeleteSubject(String subject) {
+        // Write tombstones for all versions. They are queued together, so they share a group commit.
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        List<Integer> versions = store.snapshot().getVersions(subject, true);
         for (int version : versions) {
             SchemaKey key = new SchemaKey(subject, version);
-            produce(key, null);
+            writes.add(produce(key, null));
         }
         // Clear subject config
         ClearSubjectKey clearKey = new ClearSubjectKey(subject);
         ClearSubjectValue clearValue = new ClearSubjectValue(subject);
-        produce(clearKey, clearValue);
+        writes.add(produce(clearKey, clearValue));
+        return CompletableFuture.allOf(writes.toArray(new CompletableFuture[0]))
+            .exceptionallyCompose(e -> CompletableFuture.failedFuture(UnsettledWriteException.ofGroup(unwrap(e), writes)));
     }
 
     // ---- Config operations ----
 
     @Override
     public CompatibilityLevel getGlobalCompatibilityLevel() {
-        return store.getGlobalCompatibilityLevel();
+        return store.snapshot().getGlobalCompatibilityLevel();
     }
 
     @Override
-    public void setGlobalCompatibilityLevel(CompatibilityLevel level) {
+    public CompletableFuture<Void> setGlobalCompatibilityLevel(CompatibilityLevel level) {
         ConfigKey key = new ConfigKey(null);
         ConfigValue value = new ConfigValue(null, level);
-        produce(key, value);
+        return produce(key, value);
     }
 
     @Override
     public CompatibilityLevel getSubjectCompatibilityLevel(String subject) {
-        return store.getSubjectCompatibilityLevel(subject);
+        return store.snapshot().getSubjectCompatibilityLevel(subject);
     }
 
     @Override
-    public void setSubjectCompatibilityLevel(String subject, CompatibilityLevel level) {
+    public CompletableFuture<Void> setSubjectCompatibilityLevel(String subject, CompatibilityLevel level) {
         ConfigKey key = new ConfigKey(subject);
         ConfigValue value = new ConfigValue(subject, level);
-        produce(key, value);
+        return produce(key, value);
     }
 
     @Override
-    public void deleteSubjectCompatibilityLevel(String subject) {
+    public CompletableFuture<Void> deleteSubjectCompatibilityLevel(String subject) {
         ConfigKey key = new ConfigKey(subject);
-        produce(key, null); // tombstone
+        return produce(key, null); // tombstone
     }
 
     @Override
     public boolean hasSubjectCompatibilityLevel(String subject) {
-        return store.hasSubjectCompatibilityLevel(subject);
+        return store.snapshot().hasSubjectCompatibilityLevel(subject);
     }
 
     // ---- Mode operations ----
 
     @Override
     public String getGlobalMode() {
-        return store.getGlobalMode();
+        return store.snapshot().getGlobalMode();
     }
 
     @Override
-    public void setGlobalMode(String mode) {
+    public CompletableFuture<Void> setGlobalMode(String mode) {
         ModeKey key = new ModeKey(null);
         ModeValue value = new ModeValue(null, mode);
-        produce(key, value);
+        return produce(key, value);
     }
 
     @Override
     public String getSubjectMode(String subject) {
-        return store.getSubjectMode(subject);
+        return store.snapshot().getSubjectMode(subject);
     }
 
     @Override
-    public void setSubjectMode(String subject, String mode) {
+    public CompletableFuture<Void> setSubjectMode(String subject, String mode) {
         ModeKey key = new ModeKey(subject);
         ModeValue value = new ModeValue(subject, mode);
-        produce(key, value);
+        return produce(key, value);
     }
 
     @Override
-    public void deleteSubjectMode(String subject) {
+    public CompletableFuture<Void> deleteSubjectMode(String subject) {
         ModeKey key = new ModeKey(subject);
-        produce(key, null); // tombstone
+        return produce(key, null); // tombstone
     }
 
     @Override
     public boolean hasSubjectMode(String subject) {
-        return store.hasSubjectMode(subject);
+        return store.snapshot().hasSubjectMode(subject);
+    }
+
+    public long getSchemaTextBytes() {
+        return store.getTextStorage().getStoredBytes();
+    }
+
+    public double getSchemaTextCacheHitRatio() {
+        return store.getTextStorage().getCacheHitRatio();
+    }
+
+    public long getWriterBatchCount() {
+        return writer != null ? writer.getBatchCount() : 0;
+    }
+
+    public long getWriterRecordCount() {
+        return writer != null ? writer.getRecordCount() : 0;
+    }
+
+    // Tags this instance's later writes; readers ignore them once a newer epoch is announced
+    public void setWriterEpoch(int epoch) {
+        writerEpoch = epoch;
+    }
+
+    public int getWriterEpoch() {
+        return writerEpoch;
+    }
+
+    // Highest leader epoch the store has read
+    public int getFencedEpoch() {
+        return store.snapshot().getFencedEpoch();
+    }
+
+    // Last _schemas offset applied to the store, -1 before the first record
+    public long getLastWrittenOffset() {
+        return readerThread != null ? readerThread.getLastWrittenOffset() : -1;
+    }
+
+    public long getReaderDecodeNanos() {
+        return readerThread != null ? readerThread.getDecodeNanos() : 0;
+    }
+
+    public long getReaderApplyNanos() {
+        return readerThread != null ? readerThread.getApplyNanos() : 0;
+    }
+
+    public long getReaderRecordsRead() {
+        return readerThread != null ? readerThread.getRecordsRead() : 0;
+    }
+
+    public int getIdLeaseSize() {
+        return idAllocator.getLeaseSize();
+    }
+
+    public int getIdLeaseRemaining() {
+        return idAllocator.getRemaining();
+    }
+
+    public long getIdLeaseRequests() {
+        return idAllocator.getLeaseRequests();
+    }
+
+    public long getIdLeaseConflicts() {
+        return idAllocator.getLeaseConflicts();
+    }
+
+    public long getIdLeaseNanos() {
+        return idAllocator.getLeaseNanos();
     }
 
     public InMemoryStore getInMemoryStore() {
@@ -1,69 +1,115 @@
 package io.schemaregistry.mirror.storage;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.schemaregistry.mirror.exception.SchemaRegistryException;
 import io.schemaregistry.mirror.schema.CompatibilityLevel;
 import io.schemaregistry.mirror.storage.model.*;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
-import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.errors.WakeupException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.concurrent.CountDownLatch;
+import java.util.List;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 public class KafkaStoreReaderThread extends Thread {
 
     private static final Logger log = LoggerFactory.getLogger(KafkaStoreReaderThread.class);
 
-    private final KafkaConsumer<byte[], byte[]> consumer;
+    // Batches up to this size are decoded on the reader thread; splitting them costs more than it saves
+    private static final int MIN_DECODE_CHUNK = 64;
+
+    private final Consumer<byte[], byte[]> consumer;
     private final String topic;
     private final InMemoryStore store;
     private final ObjectMapper objectMapper;
+    private final long startOffset;
+    private final int decodeThreads;
+    private ExecutorService decodePool;
     private final AtomicBoolean running = new AtomicBoolean(true);
     private final CountDownLatch initialLoadComplete = new CountDownLatch(1);
-    private final AtomicLong lastWrittenOffset = new AtomicLong(-1);
+    private final OffsetWaiters offsetWaiters;
     private volatile long offsetInSchemasTopic = -1;
 
-    public KafkaStoreReaderThread(KafkaConsumer<byte[], byte[]> consumer, String topic,
+    // Time spent in each stage: decoding is summed over the pool's threads, applying is on this thread
+    private final LongAdder decodeNanos = new LongAdder();
+    private final LongAdder applyNanos = new LongAdder();
+    private final LongAdder recordsRead = new LongAdder();
+
+    public KafkaStoreReaderThread(Consumer<byte[], byte[]> consumer, String topic,
                                   InMemoryStore store, ObjectMapper objectMapper) {
+        this(consumer, topic, store, objectMapper, -1, 1);
+    }
+
+    // startOffset is the last offset already applied to the store (from a checkpoint), or -1 to
+    // read the topic from the beginning. Polled batches are decoded on decodeThreads threads.
+    public KafkaStoreReaderThread(Consumer<byte[], byte[]> consumer, String topic,
+                                  InMemoryStore store, ObjectMapper objectMapper, long startOffset,
+                                  int decodeThreads) {
         super("kafka-store-reader");
         this.consumer = consumer;
         this.topic = topic;
         this.store = store;
         this.objectMapper = objectMapper;
+        this.startOffset = startOffset;
+        this.decodeThreads = Math.max(1, decodeThreads);
+        this.offsetWaiters = new OffsetWaiters(startOffset);
+        this.offsetInSchemasTopic = startOffset;
         setDaemon(true);
     }
 
     @Override
     public void run() {
+        if (decodeThreads > 1) {
+            AtomicInteger workers = new AtomicInteger();
+            decodePool = Executors.newFixedThreadPool(decodeThreads, r -> {
+                Thread t = new Thread(r, "kafka-store-decoder-" + workers.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
         try {
             TopicPartition topicPartition = new TopicPartition(topic, 0);
             consumer.assign(Collections.singletonList(topicPartition));
-            consumer.seekToBeginning(Collections.singletonList(topicPartition));
+            if (startOffset >= 0) {
+                consumer.seek(topicPartition, startOffset + 1);
+            } else {
+                consumer.seekToBeginning(Collections.singletonList(topicPartition));
+            }
 
             // Get the end offset to know when initial load is complete
             long endOffset = consumer.endOffsets(Collections.singletonList(topicPartition))
                 .getOrDefault(topicPartition, 0L);
 
-            log.info("Starting to read {} from beginning, end offset: {}", topic, endOffset);
+            if (startOffset >= 0) {
+                log.info("Starting to read {} after checkpoint offset {}, end offset: {}", topic, startOffset, endOffset);
+            } else {
+                log.info("Starting to read {} from beginning, end offset: {}", topic, endOffset);
+            }
 
-            if (endOffset == 0) {
-                log.info("Topic {} is empty, initial load complete", topic);
+            if (offsetInSchemasTopic >= endOffset - 1) {
+                log.info("Topic {} has nothing to replay, initial load complete", topic);
                 initialLoadComplete.countDown();
             }
 
             while (running.get()) {
                 try {
                     ConsumerRecords<byte[], byte[]> records = consumer.poll(Duration.ofMillis(1000));
-                    for (ConsumerRecord<byte[], byte[]> record : records) {
-                        processRecord(record);
-                        offsetInSchemasTopic = record.offset();
+                    if (!records.isEmpty()) {
+                        long lastOffset = processBatch(records);
+                        // Publish the batch before releasing writers waiting on its offsets
+                        store.commit(lastOffset);
+                        offsetInSchemasTopic = lastOffset;
+                        offsetWaiters.advance(lastOffset);
                     }
 
                     // Check if we've caught up to the end offset (initial load)
@@ -80,35 +126,135 @@ public class KafkaStoreReaderThread extends Thread {
             log.error("Error in KafkaStoreReaderThread", e);
             // Ensure initial load completes (even if failed) to unblock waiters
             initialLoadComplete.countDown();
+        } finally {
+            if (decodePool != null) {
+                decodePool.shutdownNow();
+            }
+            offsetWaiters.failAll(new IllegalStateException("Reader of " + topic + " has stopped"));
+        }
+    }
+
+    // Decodes the batch in chunks on the pool and applies the chunks in offset order, each one as
+    // soon as it is decoded. Returns the batch's last offset.
+    private long processBatch(ConsumerRecords<byte[], byte[]> records) throws InterruptedException {
+        List<ConsumerRecord<byte[], byte[]>> batch = new ArrayList<>(records.count());
+        records.forEach(batch::add);
+        recordsRead.add(batch.size());
+
+        if (decodePool == null || batch.size() <= MIN_DECODE_CHUNK) {
+            apply(decodeAll(batch));
+        } else {
+            int chunkSize = Math.max(MIN_DECODE_CHUNK, (batch.size() + decodeThreads - 1) / decodeThreads);
+            List<Future<List<DecodedRecord>>> chunks = new ArrayList<>();
+            for (int from = 0; from < batch.size(); from += chunkSize) {
+                List<ConsumerRecord<byte[], byte[]>> chunk = batch.subList(from, Math.min(from + chunkSize, batch.size()));
+                chunks.add(decodePool.submit(() -> decodeAll(chunk)));
+            }
+            for (Future<List<DecodedRecord>> chunk : chunks) {
+                try {
+                    apply(chunk.get());
+                } catch (ExecutionException e) {
+                    // decode() catches per record, so this is an Error from the pool thread
+                    throw new IllegalStateException("Decoding a batch of " + topic + " failed", e.getCause());
+                }
+            }
+        }
+        return batch.get(batch.size() - 1).offset();
+    }
+
+    private List<DecodedRecord> decodeAll(List<ConsumerRecord<byte[], byte[]>> records) {
+        long startNs = System.nanoTime();
+        List<DecodedRecord> decoded = new ArrayList<>(records.size());
+        for (ConsumerRecord<byte[], byte[]> record : records) {
+            decoded.add(decode(record));
+        }
+        decodeNanos.add(System.nanoTime() - startNs);
+        return decoded;
+    }
+
+    private void apply(List<DecodedRecord> decoded) {
+        long startNs = System.nanoTime();
+        for (DecodedRecord record : decoded) {
+            if (record.error() != null) {
+                log.error("Error processing record at offset {}", record.offset(), record.error());
+            } else if (record.key() != null && !fenced(record)) {
+                applyRecord(record);
+            }
+        }
+        applyNanos.add(System.nanoTime() - startNs);
+    }
+
+    // A record tagged with a leader epoch is ignored once a NOOP of a newer leader precedes it,
+    // so a deposed leader that is still writing cannot change the store. The outcome depends only
+    // on the order of _schemas, so every reader ignores the same records. Its writer's wait fails.
+    private boolean fenced(DecodedRecord record) {
+        int fence = store.getFencedEpoch();
+        boolean stale = record.epoch() != 0 && record.epoch() < fence;
+        if (!stale && record.key() instanceof NoopKey noop && noop.getEpoch() != null) {
+            // Two leaders of one epoch would not fence each other
+            stale = noop.getEpoch() <= fence;
+            if (!stale) {
+                store.fence(noop.getEpoch());
+            }
+        }
+        if (stale) {
+            log.warn("Ignoring record at offset {} from leader epoch {}, fenced by epoch {}",
+                record.offset(), record.epoch(), fence);
+            offsetWaiters.reject(record.offset(), SchemaRegistryException.storeException(
+                "Write at offset " + record.offset() + " was fenced off by a newer leader", null));
         }
+        return stale;
     }
 
-    private void processRecord(ConsumerRecord<byte[], byte[]> record) {
+    // Parses the key, and the value for the key types whose apply step reads it. Tombstones keep
+    // a null value; applyRecord gives them their delete meaning for the key type.
+    private DecodedRecord decode(ConsumerRecord<byte[], byte[]> record) {
+        boolean tombstone = record.value() == null;
         try {
             if (record.key() == null) {
                 log.warn("Ignoring record with null key at offset {}", record.offset());
-                return;
+                return new DecodedRecord(record.offset(), 0, null, null, tombstone, null);
             }
 
             SchemaRegistryKey key = objectMapper.readValue(record.key(), SchemaRegistryKey.class);
+            SchemaRegistryValue value = null;
+            if (!tombstone) {
+                if (key instanceof SchemaKey) {
+                    value = objectMapper.readValue(record.value(), SchemaValue.class);
+                    value.setOffset(record.offset());
+                    value.setTimestamp(record.timestamp());
+                } else if (key instanceof ConfigKey) {
+                    value = objectMapper.readValue(record.value(), ConfigValue.class);
+                } else if (key instanceof ModeKey) {
+                    value = objectMapper.readValue(record.value(), ModeValue.class);
+                } else if (key instanceof IdLeaseKey) {
+                    value = objectMapper.readValue(record.value(), IdLeaseValue.class);
+                }
+            }
+            return new DecodedRecord(record.offset(), GroupCommitWriter.epochOf(record.headers()), key, value, tombstone, null);
+        } catch (Exception e) {
+            return new DecodedRecord(record.offset(), 0, null, null, tombstone, e);
+        }
+    }
+
+    private void applyRecord(DecodedRecord record) {
+        try {
+            SchemaRegistryKey key = record.key();
 
             if (key instanceof SchemaKey schemaKey) {
-                if (record.value() == null) {
+                if (record.tombstone()) {
                     // Tombstone = hard delete
                     store.hardDelete(schemaKey.getSubject(), schemaKey.getVersion());
                 } else {
-                    SchemaValue value = objectMapper.readValue(record.value(), SchemaValue.class);
-                    value.setOffset(record.offset());
-                    value.setTimestamp(record.timestamp());
-                    store.put(value);
+                    store.put((SchemaValue) record.value());
                 }
             } else if (key instanceof ConfigKey configKey) {
-                if (record.value() == null) {
+                if (record.tombstone()) {
                     if (configKey.getSubject() != null && !configKey.getSubject().isEmpty()) {
                         store.deleteSubjectCompatibilityLevel(configKey.getSubject());
                     }
                 } else {
-                    ConfigValue value = objectMapper.readValue(record.value(), ConfigValue.class);
+                    ConfigValue value = (ConfigValue) record.value();
                     if (configKey.getSubject() != null && !configKey.getSubject().isEmpty()) {
                         store.setSubjectCompatibilityLevel(configKey.getSubject(), value.getCompatibilityLevel());
                     } else {
@@ -116,12 +262,12 @@ public class KafkaStoreReaderThread extends Thread {
                     }
                 }
             } else if (key instanceof ModeKey modeKey) {
-                if (record.value() == null) {
+                if (record.tombstone()) {
                     if (modeKey.getSubject() != null && !modeKey.getSubject().isEmpty()) {
                         store.deleteSubjectMode(modeKey.getSubject());
                     }
                 } else {
-                    ModeValue value = objectMapper.readValue(record.value(), ModeValue.class);
+                    ModeValue value = (ModeValue) record.value();
                     if (modeKey.getSubject() != null && !modeKey.getSubject().isEmpty()) {
                         store.setSubjectMode(modeKey.getSubject(), value.getMode());
                     } else {
@@ -129,16 +275,27 @@ public class KafkaStoreReaderThread extends Thread {
                     }
                 }
             } else if (key instanceof DeleteSubjectKey deleteKey) {
-                if (record.value() != null) {
+                if (!record.tombstone()) {
                     store.softDeleteSubject(deleteKey.getSubject());
                 }
             } else if (key instanceof ClearSubjectKey clearKey) {
                 store.hardDeleteSubject(clearKey.getSubject());
+            } else if (key instanceof IdLeaseKey leaseKey) {
+                if (record.tombstone()) {
+                    store.removeLegacyLease(leaseKey);
+                } else {
+                    IdLeaseValue lease = (IdLeaseValue) record.value();
+                    if (!store.applyIdLease(lease, record.offset())) {
+                        log.debug("Ignoring ID lease {} at offset {}, it overlaps an earlier lease",
+                            lease, record.offset());
+                    }
+                    if (leaseKey.getStart() != null) {
+                        store.addLegacyLease(leaseKey, lease.getEnd());
+                    }
+                }
             } else if (key instanceof NoopKey) {
                 // No-op, used for leader election
             }
-
-            lastWrittenOffset.set(record.offset());
         } catch (Exception e) {
             log.error("Error processing record at offset {}", record.offset(), e);
         }
@@ -153,15 +310,42 @@ public class KafkaStoreReaderThread extends Thread {
     }
 
     public long getLastWrittenOffset() {
-        return lastWrittenOffset.get();
+        return offsetWaiters.getAppliedOffset();
+    }
+
+    // Completes once the record at the given offset has been applied and published
+    public CompletableFuture<Long> whenApplied(long offset) {
+        return offsetWaiters.waitFor(offset);
+    }
+
+    public int getPendingOffsetWaiters() {
+        return offsetWaiters.pending();
     }
 
     public long getOffsetInSchemasTopic() {
         return offsetInSchemasTopic;
     }
 
+    public long getDecodeNanos() {
+        return decodeNanos.sum();
+    }
+
+    public long getApplyNanos() {
+        return applyNanos.sum();
+    }
+
+    public long getRecordsRead() {
+        return recordsRead.sum();
+    }
+
     public void shutdown() {
         running.set(false);
         consumer.wakeup();
     }
+
+    // One record after the decode stage: either its parsed key and value or the decode error.
+    // epoch is the leader epoch the record was tagged with, or 0.
+    private record DecodedRecord(long offset, int epoch, SchemaRegistryKey key, SchemaRegistryValue value,
+                                 boolean tombstone, Exception error) {
+    }
 }
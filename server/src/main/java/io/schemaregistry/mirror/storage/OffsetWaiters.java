@@ -0,0 +1,105 @@
+package io.schemaregistry.mirror.storage;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Futures for "the store has applied offset N". Writers register for the offset their record was
+// produced at. The reader thread calls advance() after publishing each batch. That completes the
+// waiters in offset order, so a write returns as soon as its record is readable. A record the
+// reader ignored, such as one fenced off by a newer leader, fails its waiters instead.
+final class OffsetWaiters {
+
+    // Rejections are rare, and a writer waits on its offset right after the acknowledgement
+    private static final int MAX_REJECTED = 1000;
+
+    private final AtomicLong appliedOffset;
+
+    // offset -> future shared by everyone waiting for that offset
+    private final ConcurrentSkipListMap<Long, CompletableFuture<Long>> waiters = new ConcurrentSkipListMap<>();
+    // Set by failAll(); later waiters fail at once instead of waiting for an advance that never comes
+    private volatile Throwable failure;
+    // offset -> why the record there was not applied; recorded before the offset is advanced past
+    private final ConcurrentSkipListMap<Long, Throwable> rejected = new ConcurrentSkipListMap<>();
+
+    OffsetWaiters(long appliedOffset) {
+        this.appliedOffset = new AtomicLong(appliedOffset);
+    }
+
+    long getAppliedOffset() {
+        return appliedOffset.get();
+    }
+
+    int pending() {
+        return waiters.size();
+    }
+
+    // Completes with the applied offset once it has reached the given one
+    CompletableFuture<Long> waitFor(long offset) {
+        Throwable rejection = rejected.get(offset);
+        if (rejection != null) {
+            return CompletableFuture.failedFuture(rejection);
+        }
+        long applied = appliedOffset.get();
+        if (applied >= offset) {
+            return CompletableFuture.completedFuture(applied);
+        }
+        if (failure != null) {
+            return CompletableFuture.failedFuture(failure);
+        }
+        CompletableFuture<Long> future = waiters.computeIfAbsent(offset, o -> new CompletableFuture<>());
+        // advance() or failAll() may have run between the checks above and the registration
+        if (appliedOffset.get() >= offset) {
+            complete(appliedOffset.get());
+        }
+        if (failure != null) {
+            failPending();
+        }
+        return future;
+    }
+
+    void advance(long offset) {
+        appliedOffset.accumulateAndGet(offset, Math::max);
+        complete(offset);
+    }
+
+    // Called by the reader for a record it did not apply, before advancing past it
+    void reject(long offset, Throwable cause) {
+        rejected.put(offset, cause);
+        while (rejected.size() > MAX_REJECTED) {
+            rejected.pollFirstEntry();
+        }
+        CompletableFuture<Long> future = waiters.remove(offset);
+        if (future != null) {
+            future.completeExceptionally(cause);
+        }
+    }
+
+    // Fails every pending waiter, e.g. when the reader stops
+    void failAll(Throwable cause) {
+        failure = cause;
+        failPending();
+    }
+
+    private void failPending() {
+        Map.Entry<Long, CompletableFuture<Long>> entry;
+        while ((entry = waiters.pollFirstEntry()) != null) {
+            entry.getValue().completeExceptionally(failure);
+        }
+    }
+
+    private void complete(long offset) {
+        Map.Entry<Long, CompletableFuture<Long>> entry;
+        while ((entry = waiters.firstEntry()) != null && entry.getKey() <= offset) {
+            if (waiters.remove(entry.getKey(), entry.getValue())) {
+                Throwable rejection = rejected.get(entry.getKey());
+                if (rejection != null) {
+                    entry.getValue().completeExceptionally(rejection);
+                } else {
+                    entry.getValue().complete(offset);
+                }
+            }
+        }
+    }
+}
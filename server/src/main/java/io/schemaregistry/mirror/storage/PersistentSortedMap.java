@@ -0,0 +1,258 @@
+package io.schemaregistry.mirror.storage;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+// Immutable sorted map. put and remove return a new map that shares every untouched subtree
+// with the old one (an AVL tree with path copying), so a published map never changes under readers.
+final class PersistentSortedMap<K extends Comparable<? super K>, V> implements Iterable<Map.Entry<K, V>> {
+
+    private static final PersistentSortedMap<?, ?> EMPTY = new PersistentSortedMap<>(null);
+
+    private final Node<K, V> root;
+
+    private PersistentSortedMap(Node<K, V> root) {
+        this.root = root;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K extends Comparable<? super K>, V> PersistentSortedMap<K, V> empty() {
+        return (PersistentSortedMap<K, V>) EMPTY;
+    }
+
+    int size() {
+        return root != null ? root.size : 0;
+    }
+
+    boolean isEmpty() {
+        return root == null;
+    }
+
+    V get(K key) {
+        Node<K, V> n = root;
+        while (n != null) {
+            int c = key.compareTo(n.key);
+            if (c == 0) return n.value;
+            n = c < 0 ? n.left : n.right;
+        }
+        return null;
+    }
+
+    boolean containsKey(K key) {
+        return get(key) != null;
+    }
+
+    K firstKey() {
+        Node<K, V> n = root;
+        if (n == null) return null;
+        while (n.left != null) n = n.left;
+        return n.key;
+    }
+
+    K lastKey() {
+        Node<K, V> n = root;
+        if (n == null) return null;
+        while (n.right != null) n = n.right;
+        return n.key;
+    }
+
+    PersistentSortedMap<K, V> put(K key, V value) {
+        Node<K, V> updated = put(root, key, value);
+        return updated == root ? this : new PersistentSortedMap<>(updated);
+    }
+
+    PersistentSortedMap<K, V> remove(K key) {
+        Node<K, V> updated = remove(root, key);
+        return updated == root ? this : new PersistentSortedMap<>(updated);
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+        return new EntryIterator<>(root, null, true, true);
+    }
+
+    // Entries with keys above (or at, when inclusive) the given key, ascending
+    Iterable<Map.Entry<K, V>> tail(K from, boolean inclusive) {
+        return () -> new EntryIterator<>(root, from, inclusive, true);
+    }
+
+    Iterable<Map.Entry<K, V>> descending() {
+        return () -> new EntryIterator<>(root, null, true, false);
+    }
+
+    // Entries with keys below (or at, when inclusive) the given key, descending
+    Iterable<Map.Entry<K, V>> descendingHead(K from, boolean inclusive) {
+        return () -> new EntryIterator<>(root, from, inclusive, false);
+    }
+
+    Iterable<K> tailKeys(K from, boolean inclusive) {
+        return () -> new MappingIterator<>(new EntryIterator<>(root, from, inclusive, true), true);
+    }
+
+    Iterable<K> keys() {
+        return () -> new MappingIterator<>(iterator(), true);
+    }
+
+    Iterable<V> values() {
+        return () -> new MappingIterator<>(iterator(), false);
+    }
+
+    private static <K extends Comparable<? super K>, V> Node<K, V> put(Node<K, V> n, K key, V value) {
+        if (n == null) return new Node<>(key, value, null, null);
+        int c = key.compareTo(n.key);
+        if (c < 0) {
+            Node<K, V> left = put(n.left, key, value);
+            return left == n.left ? n : balance(n.key, n.value, left, n.right);
+        }
+        if (c > 0) {
+            Node<K, V> right = put(n.right, key, value);
+            return right == n.right ? n : balance(n.key, n.value, n.left, right);
+        }
+        return n.value == value ? n : new Node<>(key, value, n.left, n.right);
+    }
+
+    private static <K extends Comparable<? super K>, V> Node<K, V> remove(Node<K, V> n, K key) {
+        if (n == null) return null;
+        int c = key.compareTo(n.key);
+        if (c < 0) {
+            Node<K, V> left = remove(n.left, key);
+            return left == n.left ? n : balance(n.key, n.value, left, n.right);
+        }
+        if (c > 0) {
+            Node<K, V> right = remove(n.right, key);
+            return right == n.right ? n : balance(n.key, n.value, n.left, right);
+        }
+        if (n.left == null) return n.right;
+        if (n.right == null) return n.left;
+        Node<K, V> min = n.right;
+        while (min.left != null) min = min.left;
+        return balance(min.key, min.value, n.left, removeMin(n.right));
+    }
+
+    private static <K, V> Node<K, V> removeMin(Node<K, V> n) {
+        if (n.left == null) return n.right;
+        return balance(n.key, n.value, removeMin(n.left), n.right);
+    }
+
+    // Inputs differ in height by at most two, which a single or double rotation always fixes
+    private static <K, V> Node<K, V> balance(K key, V value, Node<K, V> left, Node<K, V> right) {
+        int hl = height(left);
+        int hr = height(right);
+        if (hl > hr + 1) {
+            if (height(left.left) >= height(left.right)) {
+                return new Node<>(left.key, left.value, left.left, new Node<>(key, value, left.right, right));
+            }
+            Node<K, V> lr = left.right;
+            return new Node<>(lr.key, lr.value,
+                new Node<>(left.key, left.value, left.left, lr.left), new Node<>(key, value, lr.right, right));
+        }
+        if (hr > hl + 1) {
+            if (height(right.right) >= height(right.left)) {
+                return new Node<>(right.key, right.value, new Node<>(key, value, left, right.left), right.right);
+            }
+            Node<K, V> rl = right.left;
+            return new Node<>(rl.key, rl.value,
+                new Node<>(key, value, left, rl.left), new Node<>(right.key, right.value, rl.right, right.right));
+        }
+        return new Node<>(key, value, left, right);
+    }
+
+    private static int height(Node<?, ?> n) {
+        return n != null ? n.height : 0;
+    }
+
+    private static final class Node<K, V> implements Map.Entry<K, V> {
+        final K key;
+        final V value;
+        final Node<K, V> left;
+        final Node<K, V> right;
+        final int height;
+        final int size;
+
+        Node(K key, V value, Node<K, V> left, Node<K, V> right) {
+            this.key = key;
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.height = Math.max(height(left), height(right)) + 1;
+            this.size = (left != null ? left.size : 0) + (right != null ? right.size : 0) + 1;
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(V value) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static final class EntryIterator<K extends Comparable<? super K>, V> implements Iterator<Map.Entry<K, V>> {
+        private final Deque<Node<K, V>> stack = new ArrayDeque<>();
+        private final boolean ascending;
+
+        EntryIterator(Node<K, V> root, K from, boolean inclusive, boolean ascending) {
+            this.ascending = ascending;
+            Node<K, V> n = root;
+            while (n != null) {
+                int c = from != null ? from.compareTo(n.key) : (ascending ? -1 : 1);
+                boolean inRange = ascending ? (c < 0 || (c == 0 && inclusive)) : (c > 0 || (c == 0 && inclusive));
+                if (inRange) {
+                    stack.push(n);
+                    n = ascending ? n.left : n.right;
+                } else {
+                    n = ascending ? n.right : n.left;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (stack.isEmpty()) throw new NoSuchElementException();
+            Node<K, V> n = stack.pop();
+            Node<K, V> next = ascending ? n.right : n.left;
+            while (next != null) {
+                stack.push(next);
+                next = ascending ? next.left : next.right;
+            }
+            return n;
+        }
+    }
+
+    private static final class MappingIterator<K, V, T> implements Iterator<T> {
+        private final Iterator<Map.Entry<K, V>> entries;
+        private final boolean keys;
+
+        MappingIterator(Iterator<Map.Entry<K, V>> entries, boolean keys) {
+            this.entries = entries;
+            this.keys = keys;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return entries.hasNext();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            Map.Entry<K, V> entry = entries.next();
+            return (T) (keys ? entry.getKey() : entry.getValue());
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package io.schemaregistry.mirror.storage;
+
+import io.confluent.kafka.schemaregistry.client.rest.entities.SchemaReference;
+import io.schemaregistry.mirror.storage.model.SchemaKey;
+import io.schemaregistry.mirror.storage.model.SchemaValue;
+
+import java.util.*;
+
+// Schema references between (subject, version) pairs, indexed in both directions.
+// Soft-delete state is not tracked here; callers check it against the snapshot.
+// Immutable: add and remove return a new graph.
+final class ReferenceGraph {
+
+    static final ReferenceGraph EMPTY = new ReferenceGraph(PersistentSortedMap.empty(), PersistentSortedMap.empty());
+
+    // referenced (subject, version) -> (subject, version) pairs whose references point at it
+    private final PersistentSortedMap<SchemaKey, PersistentSortedMap<SchemaKey, Boolean>> referencedBy;
+
+    // referencing (subject, version) -> (subject, version) pairs it references
+    private final PersistentSortedMap<SchemaKey, List<SchemaKey>> references;
+
+    private ReferenceGraph(PersistentSortedMap<SchemaKey, PersistentSortedMap<SchemaKey, Boolean>> referencedBy,
+                           PersistentSortedMap<SchemaKey, List<SchemaKey>> references) {
+        this.referencedBy = referencedBy;
+        this.references = references;
+    }
+
+    ReferenceGraph add(SchemaValue value) {
+        SchemaKey referrer = value.toKey();
+        ReferenceGraph graph = remove(referrer);
+        if (value.getReferences() == null || value.getReferences().isEmpty()) return graph;
+
+        PersistentSortedMap<SchemaKey, PersistentSortedMap<SchemaKey, Boolean>> updated = graph.referencedBy;
+        List<SchemaKey> targets = new ArrayList<>();
+        for (SchemaReference ref : value.getReferences()) {
+            if (ref.getSubject() == null || ref.getVersion() == null) continue;
+            SchemaKey target = new SchemaKey(ref.getSubject(), ref.getVersion());
+            targets.add(target);
+            PersistentSortedMap<SchemaKey, Boolean> referrers = updated.get(target);
+            updated = updated.put(target,
+                (referrers != null ? referrers : PersistentSortedMap.<SchemaKey, Boolean>empty()).put(referrer, Boolean.TRUE));
+        }
+        if (targets.isEmpty()) return graph;
+        return new ReferenceGraph(updated, graph.references.put(referrer, Collections.unmodifiableList(targets)));
+    }
+
+    ReferenceGraph remove(SchemaKey referrer) {
+        List<SchemaKey> targets = references.get(referrer);
+        if (targets == null) return this;
+
+        PersistentSortedMap<SchemaKey, PersistentSortedMap<SchemaKey, Boolean>> updated = referencedBy;
+        for (SchemaKey target : targets) {
+            PersistentSortedMap<SchemaKey, Boolean> referrers = updated.get(target);
+            if (referrers == null) continue;
+            referrers = referrers.remove(referrer);
+            updated = referrers.isEmpty() ? updated.remove(target) : updated.put(target, referrers);
+        }
+        return new ReferenceGraph(updated, references.remove(referrer));
+    }
+
+    Iterable<SchemaKey> getReferencedBy(SchemaKey target) {
+        PersistentSortedMap<SchemaKey, Boolean> referrers = referencedBy.get(target);
+        return referrers != null ? referrers.keys() : Collections.emptyList();
+    }
+
+    List<SchemaKey> getReferences(SchemaKey referrer) {
+        List<SchemaKey> targets = references.get(referrer);
+        return targets != null ? targets : Collections.emptyList();
+    }
+
+    Set<SchemaKey> getTransitiveReferencedBy(SchemaKey target) {
+        Set<SchemaKey> visited = new LinkedHashSet<>();
+        Deque<SchemaKey> pending = new ArrayDeque<>();
+        getReferencedBy(target).forEach(pending::add);
+        while (!pending.isEmpty()) {
+            SchemaKey referrer = pending.poll();
+            if (visited.add(referrer)) {
+                getReferencedBy(referrer).forEach(pending::add);
+            }
+        }
+        return visited;
+    }
+}
@@ -0,0 +1,51 @@
+package io.schemaregistry.mirror.storage;
+
+import io.confluent.kafka.schemaregistry.client.rest.entities.SchemaReference;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
+
+public final class SchemaDigest {
+
+    private SchemaDigest() {
+    }
+
+    // Base64 MD5 over (schemaType, schema, references). Each field is length-prefixed so that
+    // different field splits never produce the same input bytes.
+    public static String of(String schemaType, String schema, List<SchemaReference> references) {
+        MessageDigest md = newDigest();
+        update(md, schemaType != null ? schemaType : "AVRO");
+        update(md, schema);
+        int count = references != null ? references.size() : 0;
+        md.update(ByteBuffer.allocate(4).putInt(count).array());
+        for (int i = 0; i < count; i++) {
+            SchemaReference ref = references.get(i);
+            update(md, ref.getName());
+            update(md, ref.getSubject());
+            update(md, ref.getVersion() != null ? String.valueOf(ref.getVersion()) : null);
+        }
+        return Base64.getEncoder().encodeToString(md.digest());
+    }
+
+    private static void update(MessageDigest md, String value) {
+        if (value == null) {
+            md.update(ByteBuffer.allocate(4).putInt(-1).array());
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        md.update(ByteBuffer.allocate(4).putInt(bytes.length).array());
+        md.update(bytes);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 digest not available", e);
+        }
+    }
+}
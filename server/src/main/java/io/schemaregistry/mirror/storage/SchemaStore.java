@@ -1,10 +1,12 @@
 package io.schemaregistry.mirror.storage;
 
 import io.schemaregistry.mirror.schema.CompatibilityLevel;
+import io.schemaregistry.mirror.storage.model.SchemaKey;
 import io.schemaregistry.mirror.storage.model.SchemaValue;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public interface SchemaStore {
 
@@ -16,7 +18,10 @@ public interface SchemaStore {
 
     void waitForInit() throws InterruptedException;
 
-    // Schema read operations
+    // Schema read operations. Each call reads the latest snapshot; use snapshot() when
+    // several reads must agree with each other.
+    StoreSnapshot snapshot();
+
     SchemaValue getSchemaById(int id);
 
     SchemaValue getSchema(String subject, int version, boolean lookupDeletedSchema);
@@ -25,6 +30,8 @@ public interface SchemaStore {
 
     List<String> getSubjects(boolean lookupDeletedSubjects);
 
+    List<String> getSubjects(String subjectPrefix, boolean lookupDeletedSubjects);
+
     int getLatestVersion(String subject, boolean lookupDeletedSchema);
 
     boolean hasSubject(String subject, boolean lookupDeletedSubjects);
@@ -35,48 +42,58 @@ public interface SchemaStore {
                                       List<io.confluent.kafka.schemaregistry.client.rest.entities.SchemaReference> references,
                                       boolean lookupDeletedSchema);
 
+    int lookupSchemaIdByContent(String schema, String schemaType,
+                                List<io.confluent.kafka.schemaregistry.client.rest.entities.SchemaReference> references);
+
     List<String> getSubjectsForSchemaId(int id, boolean lookupDeletedSubjects);
 
     List<Map<String, Object>> getVersionsForSchemaId(int id, boolean lookupDeletedSubjects);
 
     List<Integer> getReferencedBy(String subject, int version);
 
+    List<SchemaValue> getAllSchemas(String subjectPrefix, boolean lookupDeletedSchemas, boolean latestOnly,
+                                    int afterId, SchemaKey afterKey, int offset, int limit);
+
     int getMaxSchemaId();
 
-    // Schema write operations
-    void registerSchema(SchemaValue schemaValue);
+    // Reserves a new schema ID, leasing a block of IDs in the topic first when needed
+    CompletableFuture<Integer> nextSchemaId();
+
+    // Schema write operations. Each completes once the write has been acknowledged by Kafka and
+    // applied to the in-memory store.
+    CompletableFuture<Void> registerSchema(SchemaValue schemaValue);
 
-    void softDeleteSchema(String subject, int version);
+    CompletableFuture<Void> softDeleteSchema(String subject, int version);
 
-    void hardDeleteSchema(String subject, int version);
+    CompletableFuture<Void> hardDeleteSchema(String subject, int version);
 
-    void softDeleteSubject(String subject);
+    CompletableFuture<Void> softDeleteSubject(String subject);
 
-    void hardDeleteSubject(String subject);
+    CompletableFuture<Void> hardDeleteSubject(String subject);
 
     // Config operations
     CompatibilityLevel getGlobalCompatibilityLevel();
 
-    void setGlobalCompatibilityLevel(CompatibilityLevel level);
+    CompletableFuture<Void> setGlobalCompatibilityLevel(CompatibilityLevel level);
 
     CompatibilityLevel getSubjectCompatibilityLevel(String subject);
 
-    void setSubjectCompatibilityLevel(String subject, CompatibilityLevel level);
+    CompletableFuture<Void> setSubjectCompatibilityLevel(String subject, CompatibilityLevel level);
 
-    void deleteSubjectCompatibilityLevel(String subject);
+    CompletableFuture<Void> deleteSubjectCompatibilityLevel(String subject);
 
     boolean hasSubjectCompatibilityLevel(String subject);
 
     // Mode operations
     String getGlobalMode();
 
-    void setGlobalMode(String mode);
+    CompletableFuture<Void> setGlobalMode(String mode);
 
     String getSubjectMode(String subject);
 
-    void setSubjectMode(String subject, String mode);
+    CompletableFuture<Void> setSubjectMode(String subject, String mode);
 
-    void deleteSubjectMode(String subject);
+    CompletableFuture<Void> deleteSubjectMode(String subject);
 
     boolean hasSubjectMode(String subject);
 }
@@ -0,0 +1,54 @@
+package io.schemaregistry.mirror.storage;
+
+// Schema text as held in the content table. It is either the String itself, or its UTF-8 bytes
+// deflated against the preset dictionary that was current when it was encoded. Immutable. It
+// keeps identity equality because SchemaTextStorage uses the instance as its decode cache key.
+final class SchemaText {
+
+    private final String plain;
+    private final byte[] compressed;
+    private final int length;
+    private final byte[] dictionary;
+
+    private SchemaText(String plain, byte[] compressed, int length, byte[] dictionary) {
+        this.plain = plain;
+        this.compressed = compressed;
+        this.length = length;
+        this.dictionary = dictionary;
+    }
+
+    static SchemaText plain(String text) {
+        return new SchemaText(text, null, text.length(), null);
+    }
+
+    static SchemaText compressed(byte[] data, int utf8Length, byte[] dictionary) {
+        return new SchemaText(null, data, utf8Length, dictionary);
+    }
+
+    boolean isCompressed() {
+        return compressed != null;
+    }
+
+    String getPlain() {
+        return plain;
+    }
+
+    byte[] getCompressed() {
+        return compressed;
+    }
+
+    // UTF-8 length of the decoded text when compressed
+    int getLength() {
+        return length;
+    }
+
+    byte[] getDictionary() {
+        return dictionary;
+    }
+
+    // Approximate heap taken by the text. Plain text counts one byte per char, since schema text
+    // is nearly always Latin-1 and stored that way by compact strings.
+    long sizeInBytes() {
+        return compressed != null ? compressed.length : length;
+    }
+}
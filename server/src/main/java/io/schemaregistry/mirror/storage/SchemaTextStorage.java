@@ -0,0 +1,145 @@
+package io.schemaregistry.mirror.storage;
+
+import io.schemaregistry.mirror.cache.StripedCache;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// Encodes schema text for the content table. In COMPRESSED mode, text is deflated against a preset
+// dictionary, a fixed sample of the first schemas the store sees, and a striped LRU keeps recently
+// decoded text. encode is called only by the writer. decode may be called from any thread.
+public final class SchemaTextStorage {
+
+    public enum Mode {
+        PLAIN, COMPRESSED;
+
+        public static Mode forName(String name) {
+            return Mode.valueOf(name.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    // Deflate looks back at most 32 KB, so a longer preset dictionary would go unused
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+    // Taken from the start of each schema, so the dictionary covers at least 32 schemas
+    private static final int SAMPLE_BYTES_PER_SCHEMA = 1024;
+
+    private final Mode mode;
+    private final StripedCache<SchemaText, String> decoded;
+    private final AtomicLong storedBytes = new AtomicLong();
+
+    // ---- Writer-only state ----
+
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+
+    // Text seen until the dictionary is built, newest last
+    private ByteArrayOutputStream samples = new ByteArrayOutputStream();
+    private byte[] dictionary;
+
+    public SchemaTextStorage(Mode mode, int cacheSize) {
+        this.mode = mode;
+        this.decoded = new StripedCache<>(mode == Mode.COMPRESSED ? cacheSize : 0);
+    }
+
+    public static SchemaTextStorage plain() {
+        return new SchemaTextStorage(Mode.PLAIN, 0);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    // Heap held by the text of every schema in the content table. Text stays for its id's lifetime,
+    // so this only grows.
+    public long getStoredBytes() {
+        return storedBytes.get();
+    }
+
+    public double getCacheHitRatio() {
+        return decoded.hitRatio();
+    }
+
+    public int getCacheSize() {
+        return decoded.size();
+    }
+
+    SchemaText encode(String text) {
+        SchemaText encoded = mode == Mode.COMPRESSED ? compress(text) : SchemaText.plain(text);
+        storedBytes.addAndGet(encoded.sizeInBytes());
+        return encoded;
+    }
+
+    String decode(SchemaText text) {
+        if (!text.isCompressed()) return text.getPlain();
+        return decoded.get(text, SchemaTextStorage::inflate);
+    }
+
+    private SchemaText compress(String text) {
+        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+        sample(utf8);
+
+        deflater.reset();
+        if (dictionary != null) {
+            deflater.setDictionary(dictionary);
+        }
+        deflater.setInput(utf8);
+        deflater.finish();
+        byte[] buffer = new byte[Math.max(64, utf8.length / 2)];
+        int n = 0;
+        while (!deflater.finished()) {
+            if (n == buffer.length) {
+                // No saving to be had once the output has caught up with the plain text
+                if (n >= text.length()) return SchemaText.plain(text);
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            n += deflater.deflate(buffer, n, buffer.length - n);
+        }
+        if (n >= text.length()) return SchemaText.plain(text);
+        return SchemaText.compressed(Arrays.copyOf(buffer, n), utf8.length, dictionary);
+    }
+
+    // The dictionary is the first SAMPLE_BYTES_PER_SCHEMA bytes of each schema seen, up to
+    // DICTIONARY_SIZE in all. It is fixed once full and never rebuilt, so it reflects the first
+    // schemas in _schemas rather than the registry as a whole. Deflater has no training step; the
+    // sample catches shared envelopes, namespaces and type declarations. Text encoded before the
+    // dictionary is full is compressed without one and is not re-encoded.
+    private void sample(byte[] utf8) {
+        if (samples == null) return;
+        samples.write(utf8, 0, Math.min(Math.min(utf8.length, SAMPLE_BYTES_PER_SCHEMA),
+            DICTIONARY_SIZE - samples.size()));
+        if (samples.size() >= DICTIONARY_SIZE) {
+            dictionary = samples.toByteArray();
+            samples = null;
+        }
+    }
+
+    private static String inflate(SchemaText text) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(text.getCompressed());
+            byte[] out = new byte[text.getLength()];
+            int n = 0;
+            while (n < out.length) {
+                int read = inflater.inflate(out, n, out.length - n);
+                if (read == 0) {
+                    if (!inflater.needsDictionary() || text.getDictionary() == null) break;
+                    inflater.setDictionary(text.getDictionary());
+                }
+                n += read;
+            }
+            if (n != out.length) {
+                throw new IllegalStateException("Compressed schema text is truncated");
+            }
+            return new String(out, StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Compressed schema text is corrupt", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package io.schemaregistry.mirror.storage;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.schemaregistry.mirror.schema.CompatibilityLevel;
+import io.schemaregistry.mirror.storage.model.IdLeaseKey;
+import io.schemaregistry.mirror.storage.model.IdLeaseValue;
+import io.schemaregistry.mirror.storage.model.SchemaValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Local copy of a StoreSnapshot, so that a restart can resume _schemas after the snapshot's
+// offset instead of replaying the whole topic. The file is a header (magic, format version, body
+// length and CRC32 of the body) followed by the gzipped JSON body. The body is streamed from the
+// snapshot through gzip into a temp file, which is then moved into place, so a crash mid-write
+// keeps the previous checkpoint. The header is filled in once the body is written.
+final class StoreCheckpoint {
+
+    private static final Logger log = LoggerFactory.getLogger(StoreCheckpoint.class);
+
+    private static final int MAGIC = 0x53524350;
+    // Version 1 had an int body length and was built in memory; such files are replayed over
+    private static final int FORMAT_VERSION = 2;
+    private static final int HEADER_BYTES = 24;
+
+    private final Path path;
+    private final String topic;
+    private final String defaultCompatibility;
+    private final String defaultMode;
+    private final ObjectMapper objectMapper;
+
+    // The configured defaults are recorded because a full replay would start from them. A
+    // checkpoint taken under other defaults cannot stand in for the replay.
+    StoreCheckpoint(Path path, String topic, String defaultCompatibility, String defaultMode,
+                    ObjectMapper objectMapper) {
+        this.path = path;
+        this.topic = topic;
+        this.defaultCompatibility = defaultCompatibility;
+        this.defaultMode = defaultMode;
+        this.objectMapper = objectMapper;
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    void write(StoreSnapshot snapshot) throws IOException {
+        Path dir = path.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, path.getFileName().toString(), ".tmp");
+        try {
+            CRC32 crc = new CRC32();
+            try (OutputStream file = new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16)) {
+                file.write(new byte[HEADER_BYTES]);
+                try (JsonGenerator generator = objectMapper.getFactory().createGenerator(
+                        new GZIPOutputStream(new CheckedOutputStream(file, crc), 1 << 16))) {
+                    writeState(generator, snapshot);
+                }
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                .putInt(MAGIC)
+                .putInt(FORMAT_VERSION)
+                .putLong(Files.size(tmp) - HEADER_BYTES)
+                .putLong(crc.getValue())
+                .flip();
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                while (header.hasRemaining()) {
+                    channel.write(header, header.position());
+                }
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    // Writes the fields of State one schema at a time
+    private void writeState(JsonGenerator generator, StoreSnapshot snapshot) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("topic", topic);
+        generator.writeStringField("defaultCompatibility", defaultCompatibility);
+        generator.writeStringField("defaultMode", defaultMode);
+        generator.writeNumberField("writtenAt", System.currentTimeMillis());
+        generator.writeNumberField("offset", snapshot.getOffset());
+        generator.writeArrayFieldStart("schemas");
+        forEach(generator, snapshot::forEachVersionInOffsetOrder);
+        generator.writeEndArray();
+        generator.writeArrayFieldStart("schemasById");
+        forEach(generator, snapshot::forEachSchemaById);
+        generator.writeEndArray();
+        generator.writeObjectField("globalCompatibility", snapshot.getGlobalCompatibilityLevel());
+        generator.writeObjectField("subjectCompatibility", snapshot.getSubjectCompatibilityLevels());
+        generator.writeStringField("globalMode", snapshot.getGlobalMode());
+        generator.writeObjectField("subjectModes", snapshot.getSubjectModes());
+        generator.writeNumberField("maxLeasedId", snapshot.getMaxLeasedId());
+        generator.writeNumberField("lastLeaseOffset", snapshot.getLastLeaseOffset());
+        generator.writeNumberField("fencedEpoch", snapshot.getFencedEpoch());
+        generator.writeArrayFieldStart("legacyLeases");
+        for (Map.Entry<IdLeaseKey, Integer> lease : snapshot.getLegacyLeases().entrySet()) {
+            generator.writeObject(new IdLeaseValue(lease.getKey().getOwner(), lease.getKey().getStart(), lease.getValue()));
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    private static void forEach(JsonGenerator generator, Consumer<Consumer<SchemaValue>> schemas) throws IOException {
+        try {
+            schemas.accept(sv -> {
+                try {
+                    generator.writeObject(sv);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // The checkpointed state, or null when there is no file or it cannot be used. Everything is
+    // checked before anything is applied, so a rejected file leaves the store untouched.
+    State load() throws IOException {
+        if (!Files.exists(path)) return null;
+
+        State state;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // read the whole header
+            }
+            header.flip();
+            if (header.remaining() < 8 || header.getInt() != MAGIC) {
+                throw new IOException("Not a checkpoint file");
+            }
+            int version = header.getInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported checkpoint format " + version);
+            }
+            if (header.remaining() < HEADER_BYTES - 8) {
+                throw new IOException("Checkpoint is truncated");
+            }
+            long length = header.getLong();
+            long expectedCrc = header.getLong();
+            if (length < 0 || channel.size() != HEADER_BYTES + length) {
+                throw new IOException("Checkpoint is truncated");
+            }
+
+            // The body is checked in one pass and parsed in a second, neither holding it whole
+            CRC32 crc = new CRC32();
+            new CheckedInputStream(new BufferedInputStream(Channels.newInputStream(channel), 1 << 16), crc)
+                .transferTo(OutputStream.nullOutputStream());
+            if (crc.getValue() != expectedCrc) {
+                throw new IOException("Checkpoint checksum mismatch");
+            }
+            channel.position(HEADER_BYTES);
+            state = objectMapper.readValue(
+                new GZIPInputStream(new BufferedInputStream(Channels.newInputStream(channel), 1 << 16)), State.class);
+        }
+        if (!Objects.equals(topic, state.topic)
+                || !Objects.equals(defaultCompatibility, state.defaultCompatibility)
+                || !Objects.equals(defaultMode, state.defaultMode)) {
+            log.info("Checkpoint {} was taken for topic {} with defaults {}/{}, not usable for topic {} with {}/{}",
+                path, state.topic, state.defaultCompatibility, state.defaultMode, topic, defaultCompatibility, defaultMode);
+            return null;
+        }
+        return state;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static final class State {
+
+        private final String topic;
+        private final String defaultCompatibility;
+        private final String defaultMode;
+        private final long writtenAt;
+        private final long offset;
+        private final List<SchemaValue> schemas;
+        private final List<SchemaValue> schemasById;
+        private final CompatibilityLevel globalCompatibility;
+        private final Map<String, CompatibilityLevel> subjectCompatibility;
+        private final String globalMode;
+        private final Map<String, String> subjectModes;
+        private final int maxLeasedId;
+        private final long lastLeaseOffset;
+        private final List<IdLeaseValue> legacyLeases;
+        private final int fencedEpoch;
+
+        @JsonCreator
+        State(@JsonProperty("topic") String topic,
+              @JsonProperty("defaultCompatibility") String defaultCompatibility,
+              @JsonProperty("defaultMode") String defaultMode,
+              @JsonProperty("writtenAt") long writtenAt,
+              @JsonProperty("offset") long offset,
+              @JsonProperty("schemas") List<SchemaValue> schemas,
+              @JsonProperty("schemasById") List<SchemaValue> schemasById,
+              @JsonProperty("globalCompatibility") CompatibilityLevel globalCompatibility,
+              @JsonProperty("subjectCompatibility") Map<String, CompatibilityLevel> subjectCompatibility,
+              @JsonProperty("globalMode") String globalMode,
+              @JsonProperty("subjectModes") Map<String, String> subjectModes,
+              @JsonProperty("maxLeasedId") int maxLeasedId,
+              @JsonProperty("lastLeaseOffset") Long lastLeaseOffset,
+              @JsonProperty("legacyLeases") List<IdLeaseValue> legacyLeases,
+              @JsonProperty("fencedEpoch") int fencedEpoch) {
+            this.topic = topic;
+            this.defaultCompatibility = defaultCompatibility;
+            this.defaultMode = defaultMode;
+            this.writtenAt = writtenAt;
+            this.offset = offset;
+            this.schemas = schemas != null ? schemas : List.of();
+            this.schemasById = schemasById != null ? schemasById : List.of();
+            this.globalCompatibility = globalCompatibility;
+            this.subjectCompatibility = subjectCompatibility != null ? subjectCompatibility : Map.of();
+            this.globalMode = globalMode;
+            this.subjectModes = subjectModes != null ? subjectModes : Map.of();
+            this.maxLeasedId = maxLeasedId;
+            this.lastLeaseOffset = lastLeaseOffset != null ? lastLeaseOffset : -1;
+            this.legacyLeases = legacyLeases != null ? legacyLeases : List.of();
+            this.fencedEpoch = fencedEpoch;
+        }
+
+        @JsonProperty("topic")
+        String getTopic() {
+            return topic;
+        }
+
+        @JsonProperty("defaultCompatibility")
+        String getDefaultCompatibility() {
+            return defaultCompatibility;
+        }
+
+        @JsonProperty("defaultMode")
+        String getDefaultMode() {
+            return defaultMode;
+        }
+
+        // Wall-clock millis when the checkpoint was taken
+        @JsonProperty("writtenAt")
+        long getWrittenAt() {
+            return writtenAt;
+        }
+
+        // Last _schemas offset reflected in the checkpoint
+        @JsonProperty("offset")
+        long getOffset() {
+            return offset;
+        }
+
+        @JsonProperty("schemas")
+        List<SchemaValue> getSchemas() {
+            return schemas;
+        }
+
+        @JsonProperty("schemasById")
+        List<SchemaValue> getSchemasById() {
+            return schemasById;
+        }
+
+        @JsonProperty("globalCompatibility")
+        CompatibilityLevel getGlobalCompatibility() {
+            return globalCompatibility;
+        }
+
+        @JsonProperty("subjectCompatibility")
+        Map<String, CompatibilityLevel> getSubjectCompatibility() {
+            return subjectCompatibility;
+        }
+
+        @JsonProperty("globalMode")
+        String getGlobalMode() {
+            return globalMode;
+        }
+
+        @JsonProperty("subjectModes")
+        Map<String, String> getSubjectModes() {
+            return subjectModes;
+        }
+
+        // Missing from checkpoints written before ID leasing, which had no leases to record
+        @JsonProperty("maxLeasedId")
+        int getMaxLeasedId() {
+            return maxLeasedId;
+        }
+
+        // With the legacy keys below, lets a restored store order and tombstone leases exactly as
+        // one that replayed the whole topic would
+        @JsonProperty("lastLeaseOffset")
+        long getLastLeaseOffset() {
+            return lastLeaseOffset;
+        }
+
+        @JsonProperty("legacyLeases")
+        List<IdLeaseValue> getLegacyLeases() {
+            return legacyLeases;
+        }
+
+        // Highest leader epoch announced up to the checkpoint's offset
+        @JsonProperty("fencedEpoch")
+        int getFencedEpoch() {
+            return fencedEpoch;
+        }
+
+        // Replays the checkpoint into the store. Versions go in their original record order, and
+        // then the by-id entries are set outright. The caller commits at getOffset().
+        void applyTo(InMemoryStore store) {
+            schemas.forEach(store::put);
+            schemasById.forEach(store::restoreSchemaById);
+            if (globalCompatibility != null) {
+                store.setGlobalCompatibilityLevel(globalCompatibility);
+            }
+            subjectCompatibility.forEach(store::setSubjectCompatibilityLevel);
+            if (globalMode != null) {
+                store.setGlobalMode(globalMode);
+            }
+            subjectModes.forEach(store::setSubjectMode);
+            Map<IdLeaseKey, Integer> legacy = new HashMap<>();
+            legacyLeases.forEach(lease -> legacy.put(new IdLeaseKey(lease.getOwner(), lease.getStart()), lease.getEnd()));
+            store.restoreLeases(maxLeasedId, lastLeaseOffset, legacy);
+            store.fence(fencedEpoch);
+        }
+    }
+}
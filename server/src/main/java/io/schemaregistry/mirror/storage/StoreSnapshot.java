@@ -0,0 +1,521 @@
+package io.schemaregistry.mirror.storage;
+
+import io.confluent.kafka.schemaregistry.client.rest.entities.SchemaReference;
+import io.schemaregistry.mirror.schema.CompatibilityLevel;
+import io.schemaregistry.mirror.storage.model.IdLeaseKey;
+import io.schemaregistry.mirror.storage.model.SchemaKey;
+import io.schemaregistry.mirror.storage.model.SchemaValue;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+// Immutable view of the _schemas topic as of one offset. InMemoryStore publishes a new snapshot
+// after every applied batch; callers that make several lookups take one snapshot and query it so
+// the answers agree with each other.
+public final class StoreSnapshot {
+
+    static StoreSnapshot empty(SchemaTextStorage textStorage) {
+        return new StoreSnapshot(-1, 0,
+            PersistentSortedMap.empty(), PersistentSortedMap.empty(), PersistentSortedMap.empty(),
+            PersistentSortedMap.empty(), PersistentSortedMap.empty(), PersistentSortedMap.empty(),
+            PersistentSortedMap.empty(), ReferenceGraph.EMPTY, textStorage, PersistentSortedMap.empty(),
+            CompatibilityLevel.BACKWARD, PersistentSortedMap.empty(), "READWRITE", 0, 0, -1, Map.of(), 0);
+    }
+
+    // Last offset of _schemas applied to this snapshot, -1 before the first record
+    private final long offset;
+
+    // Incremented on every publish, so it identifies the snapshot for caches built on top of it
+    private final long generation;
+
+    // subject -> (version -> SchemaValue); values sharing their id's text hold a null schema
+    private final PersistentSortedMap<String, PersistentSortedMap<Integer, SchemaValue>> schemas;
+
+    // subject -> live count and latest versions
+    private final PersistentSortedMap<String, SubjectMetadata> subjectMetadata;
+
+    // subjects with at least one live version
+    private final PersistentSortedMap<String, Boolean> liveSubjects;
+
+    // id -> schema text shared by the values registered with that id
+    private final PersistentSortedMap<Integer, SchemaText> contentById;
+
+    // id -> SchemaValue (first registration wins)
+    private final PersistentSortedMap<Integer, SchemaValue> schemasById;
+
+    // id -> (subject, version) pairs registered with that id
+    private final PersistentSortedMap<Integer, PersistentSortedMap<SchemaKey, Boolean>> subjectVersionsById;
+
+    // content digest -> (subject, version) pairs with that content
+    private final PersistentSortedMap<String, PersistentSortedMap<SchemaKey, Boolean>> subjectVersionsByDigest;
+
+    // (subject, version) reference edges in both directions
+    private final ReferenceGraph referenceGraph;
+
+    // Decodes the entries of contentById
+    private final SchemaTextStorage textStorage;
+
+    private final PersistentSortedMap<String, CompatibilityLevel> subjectCompatibility;
+    private final CompatibilityLevel globalCompatibility;
+    private final PersistentSortedMap<String, String> subjectModes;
+    private final String globalMode;
+    private final int maxId;
+
+    // End of the highest accepted ID lease, and the offset of the last accepted lease record
+    private final int maxLeasedId;
+    private final long lastLeaseOffset;
+    // Leases still under pre-owner-key keys, with their ends
+    private final Map<IdLeaseKey, Integer> legacyLeases;
+    private final int fencedEpoch;
+
+    StoreSnapshot(long offset, long generation,
+                  PersistentSortedMap<String, PersistentSortedMap<Integer, SchemaValue>> schemas,
+                  PersistentSortedMap<String, SubjectMetadata> subjectMetadata,
+                  PersistentSortedMap<String, Boolean> liveSubjects,
+                  PersistentSortedMap<Integer, SchemaText> contentById,
+                  PersistentSortedMap<Integer, SchemaValue> schemasById,
+                  PersistentSortedMap<Integer, PersistentSortedMap<SchemaKey, Boolean>> subjectVersionsById,
+                  PersistentSortedMap<String, PersistentSortedMap<SchemaKey, Boolean>> subjectVersionsByDigest,
+                  ReferenceGraph referenceGraph,
+                  SchemaTextStorage textStorage,
+                  PersistentSortedMap<String, CompatibilityLevel> subjectCompatibility,
+                  CompatibilityLevel globalCompatibility,
+                  PersistentSortedMap<String, String> subjectModes,
+                  String globalMode,
+                  int maxId,
+                  int maxLeasedId,
+                  long lastLeaseOffset,
+                  Map<IdLeaseKey, Integer> legacyLeases,
+                  int fencedEpoch) {
+        this.offset = offset;
+        this.generation = generation;
+        this.schemas = schemas;
+        this.subjectMetadata = subjectMetadata;
+        this.liveSubjects = liveSubjects;
+        this.contentById = contentById;
+        this.schemasById = schemasById;
+        this.subjectVersionsById = subjectVersionsById;
+        this.subjectVersionsByDigest = subjectVersionsByDigest;
+        this.referenceGraph = referenceGraph;
+        this.textStorage = textStorage;
+        this.subjectCompatibility = subjectCompatibility;
+        this.globalCompatibility = globalCompatibility;
+        this.subjectModes = subjectModes;
+        this.globalMode = globalMode;
+        this.maxId = maxId;
+        this.maxLeasedId = maxLeasedId;
+        this.lastLeaseOffset = lastLeaseOffset;
+        this.legacyLeases = legacyLeases;
+        this.fencedEpoch = fencedEpoch;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    // ---- Schema operations ----
+
+    public SchemaValue getSchemaById(int id) {
+        return materialize(schemasById.get(id));
+    }
+
+    public SchemaValue getSchema(String subject, int version, boolean lookupDeletedSchema) {
+        return materialize(find(subject, version, lookupDeletedSchema));
+    }
+
+    // Id of the version, or -1; unlike getSchema this never decodes the schema text
+    public int getSchemaId(String subject, int version, boolean lookupDeletedSchema) {
+        SchemaValue sv = find(subject, version, lookupDeletedSchema);
+        return sv != null ? sv.getId() : -1;
+    }
+
+    // Gives a stored value back its schema text when it shares the text kept for its id
+    private SchemaValue materialize(SchemaValue stored) {
+        if (stored == null || stored.getSchema() != null) return stored;
+        String schema = sharedText(stored.getId());
+        return schema != null ? stored.withSchema(schema) : stored;
+    }
+
+    private String sharedText(int id) {
+        SchemaText text = contentById.get(id);
+        return text != null ? textStorage.decode(text) : null;
+    }
+
+    // The stored value, without its shared text; enough for existence and deleted checks
+    private SchemaValue find(String subject, int version, boolean lookupDeletedSchema) {
+        PersistentSortedMap<Integer, SchemaValue> versions = schemas.get(subject);
+        if (versions == null) return null;
+        SchemaValue sv = versions.get(version);
+        if (sv == null) return null;
+        if (!lookupDeletedSchema && sv.isDeleted()) return null;
+        return sv;
+    }
+
+    public List<Integer> getVersions(String subject, boolean lookupDeletedSchema) {
+        PersistentSortedMap<Integer, SchemaValue> versions = schemas.get(subject);
+        if (versions == null) return Collections.emptyList();
+        List<Integer> result = new ArrayList<>(versions.size());
+        for (SchemaValue sv : versions.values()) {
+            if (lookupDeletedSchema || !sv.isDeleted()) {
+                result.add(sv.getVersion());
+            }
+        }
+        return result;
+    }
+
+    public List<String> getSubjects(boolean lookupDeletedSubjects) {
+        List<String> result = new ArrayList<>();
+        if (lookupDeletedSubjects) {
+            schemas.keys().forEach(result::add);
+        } else {
+            liveSubjects.keys().forEach(result::add);
+        }
+        return result;
+    }
+
+    public List<String> getSubjects(String subjectPrefix, boolean lookupDeletedSubjects) {
+        if (subjectPrefix == null || subjectPrefix.isEmpty()) {
+            return getSubjects(lookupDeletedSubjects);
+        }
+        Iterable<? extends Map.Entry<String, ?>> subjects = lookupDeletedSubjects
+            ? schemas.tail(subjectPrefix, true) : liveSubjects.tail(subjectPrefix, true);
+        List<String> result = new ArrayList<>();
+        for (Map.Entry<String, ?> entry : subjects) {
+            if (!entry.getKey().startsWith(subjectPrefix)) break;
+            result.add(entry.getKey());
+        }
+        return result;
+    }
+
+    public int getLatestVersion(String subject, boolean lookupDeletedSchema) {
+        SubjectMetadata meta = subjectMetadata.get(subject);
+        if (meta == null) return -1;
+        return lookupDeletedSchema ? meta.getLatestVersion() : meta.getLatestLiveVersion();
+    }
+
+    public boolean hasSubject(String subject, boolean lookupDeletedSubjects) {
+        SubjectMetadata meta = subjectMetadata.get(subject);
+        if (meta == null) return false;
+        return lookupDeletedSubjects || meta.isLive();
+    }
+
+    public boolean isSubjectSoftDeleted(String subject) {
+        SubjectMetadata meta = subjectMetadata.get(subject);
+        return meta != null && !meta.isLive();
+    }
+
+    public List<SchemaValue> getSchemasBySubject(String subject, boolean lookupDeletedSchema) {
+        PersistentSortedMap<Integer, SchemaValue> versions = schemas.get(subject);
+        if (versions == null) return Collections.emptyList();
+        List<SchemaValue> result = new ArrayList<>(versions.size());
+        for (SchemaValue sv : versions.values()) {
+            if (lookupDeletedSchema || !sv.isDeleted()) {
+                result.add(materialize(sv));
+            }
+        }
+        return result;
+    }
+
+    public SchemaValue lookupSchemaByContent(String subject, String schema, String schemaType,
+                                             List<SchemaReference> references, boolean lookupDeletedSchema) {
+        return lookupSchemaByContent(subject, SchemaDigest.of(schemaType, schema, references),
+            schema, schemaType, references, lookupDeletedSchema);
+    }
+
+    // For callers that already hold the content's digest
+    public SchemaValue lookupSchemaByContent(String subject, String digest, String schema, String schemaType,
+                                             List<SchemaReference> references, boolean lookupDeletedSchema) {
+        PersistentSortedMap<SchemaKey, Boolean> keys = subjectVersionsByDigest.get(digest);
+        if (keys == null) return null;
+
+        for (SchemaKey key : keys.tailKeys(new SchemaKey(subject, 0), true)) {
+            if (!key.getSubject().equals(subject)) break;
+            SchemaValue sv = find(subject, key.getVersion(), lookupDeletedSchema);
+            if (sv != null && contentMatches(sv, schema, schemaType, references)) {
+                return materialize(sv);
+            }
+        }
+        return null;
+    }
+
+    // Any registered id, deleted or not, whose content matches; -1 if there is none
+    public int lookupSchemaIdByContent(String schema, String schemaType, List<SchemaReference> references) {
+        return lookupSchemaIdByContent(SchemaDigest.of(schemaType, schema, references), schema, schemaType, references);
+    }
+
+    public int lookupSchemaIdByContent(String digest, String schema, String schemaType,
+                                       List<SchemaReference> references) {
+        PersistentSortedMap<SchemaKey, Boolean> keys = subjectVersionsByDigest.get(digest);
+        if (keys == null) return -1;
+
+        for (SchemaKey key : keys.keys()) {
+            SchemaValue sv = find(key.getSubject(), key.getVersion(), true);
+            if (sv != null && contentMatches(sv, schema, schemaType, references)) {
+                return sv.getId();
+            }
+        }
+        return -1;
+    }
+
+    // Digest hits are confirmed against the stored content so that collisions never match
+    private boolean contentMatches(SchemaValue sv, String schema, String schemaType,
+                                   List<SchemaReference> references) {
+        String type = schemaType != null ? schemaType : "AVRO";
+        String stored = sv.getSchema() != null ? sv.getSchema() : sharedText(sv.getId());
+        return type.equals(sv.getSchemaType())
+            && Objects.equals(schema, stored)
+            && referencesMatch(references, sv.getReferences());
+    }
+
+    private static boolean referencesMatch(List<SchemaReference> refs1, List<SchemaReference> refs2) {
+        List<SchemaReference> r1 = refs1 != null ? refs1 : Collections.emptyList();
+        List<SchemaReference> r2 = refs2 != null ? refs2 : Collections.emptyList();
+        if (r1.size() != r2.size()) return false;
+        for (int i = 0; i < r1.size(); i++) {
+            SchemaReference a = r1.get(i);
+            SchemaReference b = r2.get(i);
+            if (!Objects.equals(a.getName(), b.getName()) ||
+                !Objects.equals(a.getSubject(), b.getSubject()) ||
+                !Objects.equals(a.getVersion(), b.getVersion())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public List<String> getSubjectsForSchemaId(int id, boolean lookupDeletedSubjects) {
+        PersistentSortedMap<SchemaKey, Boolean> keys = subjectVersionsById.get(id);
+        if (keys == null) return Collections.emptyList();
+
+        // Keys are ordered by subject, so each subject's versions are adjacent
+        List<String> result = new ArrayList<>();
+        for (SchemaKey key : keys.keys()) {
+            String subject = key.getSubject();
+            if (!result.isEmpty() && result.get(result.size() - 1).equals(subject)) continue;
+            if (find(subject, key.getVersion(), lookupDeletedSubjects) != null) {
+                result.add(subject);
+            }
+        }
+        return result;
+    }
+
+    public List<Map<String, Object>> getVersionsForSchemaId(int id, boolean lookupDeletedSubjects) {
+        PersistentSortedMap<SchemaKey, Boolean> keys = subjectVersionsById.get(id);
+        if (keys == null) return Collections.emptyList();
+
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (SchemaKey key : keys.keys()) {
+            if (find(key.getSubject(), key.getVersion(), lookupDeletedSubjects) != null) {
+                Map<String, Object> subjectVersion = new LinkedHashMap<>();
+                subjectVersion.put("subject", key.getSubject());
+                subjectVersion.put("version", key.getVersion());
+                result.add(subjectVersion);
+            }
+        }
+        return result;
+    }
+
+    public List<Integer> getReferencedBy(String subject, int version) {
+        SchemaValue target = find(subject, version, true);
+        if (target == null) return Collections.emptyList();
+
+        List<Integer> result = new ArrayList<>();
+        for (SchemaKey referrer : referenceGraph.getReferencedBy(target.toKey())) {
+            SchemaValue sv = find(referrer.getSubject(), referrer.getVersion(), false);
+            if (sv != null) {
+                result.add(sv.getId());
+            }
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    // All (subject, version) pairs that reach the given version through references, deleted or not
+    public Set<SchemaKey> getTransitiveReferencedBy(String subject, int version) {
+        return referenceGraph.getTransitiveReferencedBy(new SchemaKey(subject, version));
+    }
+
+    public int getMaxSchemaId() {
+        return maxId;
+    }
+
+    public int getMaxLeasedId() {
+        return maxLeasedId;
+    }
+
+    public long getLastLeaseOffset() {
+        return lastLeaseOffset;
+    }
+
+    // Highest leader epoch announced in _schemas; records tagged with a lower one were ignored
+    public int getFencedEpoch() {
+        return fencedEpoch;
+    }
+
+    Map<IdLeaseKey, Integer> getLegacyLeases() {
+        return legacyLeases;
+    }
+
+    // Legacy lease keys whose leases end below the given ID
+    List<IdLeaseKey> getLegacyLeasesEndingBelow(int id) {
+        List<IdLeaseKey> keys = new ArrayList<>();
+        legacyLeases.forEach((key, end) -> {
+            if (end < id) {
+                keys.add(key);
+            }
+        });
+        return keys;
+    }
+
+    // Schemas for listing (GET /schemas) in (id, subject, version) order. Resumes after
+    // (afterId, afterKey) when afterKey is set; a negative limit means no limit. offset is walked
+    // past entry by entry, so paging through everything by offset is quadratic; the cursor
+    // resumes in the index directly.
+    public List<SchemaValue> getAllSchemas(String subjectPrefix, boolean lookupDeletedSchemas, boolean latestOnly,
+                                           int afterId, SchemaKey afterKey, int offset, int limit) {
+        List<SchemaValue> result = new ArrayList<>();
+        if (limit == 0) return result;
+        if (subjectPrefix != null && !subjectPrefix.isEmpty()) {
+            return getAllSchemasWithPrefix(subjectPrefix, lookupDeletedSchemas, latestOnly, afterId, afterKey,
+                offset, limit);
+        }
+
+        Iterable<Map.Entry<Integer, PersistentSortedMap<SchemaKey, Boolean>>> ids = afterKey != null
+            ? subjectVersionsById.tail(afterId, true) : subjectVersionsById;
+        int skipped = 0;
+        for (Map.Entry<Integer, PersistentSortedMap<SchemaKey, Boolean>> entry : ids) {
+            Iterable<SchemaKey> keys = afterKey != null && entry.getKey() == afterId
+                ? entry.getValue().tailKeys(afterKey, false) : entry.getValue().keys();
+            for (SchemaKey key : keys) {
+                String subject = key.getSubject();
+                if (latestOnly && getLatestVersion(subject, lookupDeletedSchemas) != key.getVersion()) continue;
+                SchemaValue sv = find(subject, key.getVersion(), lookupDeletedSchemas);
+                if (sv == null) continue;
+                if (skipped < offset) {
+                    skipped++;
+                    continue;
+                }
+                result.add(materialize(sv));
+                if (limit > 0 && result.size() >= limit) return result;
+            }
+        }
+        return result;
+    }
+
+    // Only the subjects under the prefix are read, from the subject index, and their versions are
+    // sorted into listing order. This costs their version count rather than the whole id index.
+    private List<SchemaValue> getAllSchemasWithPrefix(String subjectPrefix, boolean lookupDeletedSchemas,
+                                                      boolean latestOnly, int afterId, SchemaKey afterKey,
+                                                      int offset, int limit) {
+        List<SchemaValue> matches = new ArrayList<>();
+        for (Map.Entry<String, PersistentSortedMap<Integer, SchemaValue>> entry : schemas.tail(subjectPrefix, true)) {
+            String subject = entry.getKey();
+            if (!subject.startsWith(subjectPrefix)) break;
+            int latest = latestOnly ? getLatestVersion(subject, lookupDeletedSchemas) : -1;
+            for (Integer version : entry.getValue().keys()) {
+                if (latestOnly && version != latest) continue;
+                SchemaValue sv = find(subject, version, lookupDeletedSchemas);
+                if (sv == null) continue;
+                if (afterKey != null && (sv.getId() < afterId
+                        || sv.getId() == afterId && sv.toKey().compareTo(afterKey) <= 0)) continue;
+                matches.add(sv);
+            }
+        }
+        matches.sort(Comparator.comparingInt(SchemaValue::getId).thenComparing(SchemaValue::toKey));
+
+        int end = limit > 0 ? (int) Math.min(matches.size(), (long) offset + limit) : matches.size();
+        List<SchemaValue> result = new ArrayList<>();
+        for (int i = offset; i < end; i++) {
+            result.add(materialize(matches.get(i)));
+        }
+        return result;
+    }
+
+    // ---- Checkpoint access ----
+
+    // Every stored version, deleted or not, in the order its record was read
+    List<SchemaValue> getAllVersionsInOffsetOrder() {
+        List<SchemaValue> result = new ArrayList<>();
+        forEachVersionInOffsetOrder(result::add);
+        return result;
+    }
+
+    List<SchemaValue> getAllSchemasById() {
+        List<SchemaValue> result = new ArrayList<>(schemasById.size());
+        forEachSchemaById(result::add);
+        return result;
+    }
+
+    // Only the stored values, which share their text by id, are sorted. Each is given its text
+    // just before it is handed over, so the whole store is never decoded at once.
+    void forEachVersionInOffsetOrder(Consumer<SchemaValue> action) {
+        List<SchemaValue> stored = new ArrayList<>();
+        for (PersistentSortedMap<Integer, SchemaValue> versions : schemas.values()) {
+            versions.values().forEach(stored::add);
+        }
+        stored.sort(Comparator.comparing(SchemaValue::getOffset, Comparator.nullsFirst(Comparator.naturalOrder())));
+        for (SchemaValue sv : stored) {
+            action.accept(materialize(sv));
+        }
+    }
+
+    void forEachSchemaById(Consumer<SchemaValue> action) {
+        for (SchemaValue sv : schemasById.values()) {
+            action.accept(materialize(sv));
+        }
+    }
+
+    Map<String, CompatibilityLevel> getSubjectCompatibilityLevels() {
+        Map<String, CompatibilityLevel> result = new LinkedHashMap<>();
+        subjectCompatibility.forEach(entry -> result.put(entry.getKey(), entry.getValue()));
+        return result;
+    }
+
+    Map<String, String> getSubjectModes() {
+        Map<String, String> result = new LinkedHashMap<>();
+        subjectModes.forEach(entry -> result.put(entry.getKey(), entry.getValue()));
+        return result;
+    }
+
+    // ---- Config operations ----
+
+    public CompatibilityLevel getGlobalCompatibilityLevel() {
+        return globalCompatibility;
+    }
+
+    public CompatibilityLevel getSubjectCompatibilityLevel(String subject) {
+        return subjectCompatibility.get(subject);
+    }
+
+    public boolean hasSubjectCompatibilityLevel(String subject) {
+        return subjectCompatibility.containsKey(subject);
+    }
+
+    public CompatibilityLevel getEffectiveCompatibilityLevel(String subject) {
+        CompatibilityLevel subjectLevel = subjectCompatibility.get(subject);
+        return subjectLevel != null ? subjectLevel : globalCompatibility;
+    }
+
+    // ---- Mode operations ----
+
+    public String getGlobalMode() {
+        return globalMode;
+    }
+
+    public String getSubjectMode(String subject) {
+        return subjectModes.get(subject);
+    }
+
+    public boolean hasSubjectMode(String subject) {
+        return subjectModes.containsKey(subject);
+    }
+
+    public String getEffectiveMode(String subject) {
+        String mode = subjectModes.get(subject);
+        return mode != null ? mode : globalMode;
+    }
+}
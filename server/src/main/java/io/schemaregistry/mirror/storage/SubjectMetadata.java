@@ -0,0 +1,33 @@
+package io.schemaregistry.mirror.storage;
+
+// Per-subject summary kept alongside the version map so liveness checks do not scan versions.
+// Instances are immutable; the store replaces them on every mutation of the subject.
+final class SubjectMetadata {
+
+    private final int liveCount;
+    private final int latestLiveVersion;
+    private final int latestVersion;
+
+    SubjectMetadata(int liveCount, int latestLiveVersion, int latestVersion) {
+        this.liveCount = liveCount;
+        this.latestLiveVersion = latestLiveVersion;
+        this.latestVersion = latestVersion;
+    }
+
+    int getLiveCount() {
+        return liveCount;
+    }
+
+    // -1 when every version is soft-deleted
+    int getLatestLiveVersion() {
+        return latestLiveVersion;
+    }
+
+    int getLatestVersion() {
+        return latestVersion;
+    }
+
+    boolean isLive() {
+        return liveCount > 0;
+    }
+}
@@ -0,0 +1,39 @@
+package io.schemaregistry.mirror.storage;
+
+import io.schemaregistry.mirror.exception.SchemaRegistryException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// A write that failed for its caller, e.g. by timing out, while its record may still be
+// acknowledged and applied later. Carries the same error as the failure it wraps.
+public final class UnsettledWriteException extends SchemaRegistryException {
+
+    // Completes once the record has either failed to send or been applied. Never fails.
+    private final transient CompletableFuture<Void> settled;
+
+    public UnsettledWriteException(SchemaRegistryException failure, CompletableFuture<Void> settled) {
+        super(failure.getMessage(), failure.getErrorCode(), failure.getHttpStatus(), failure.getCause());
+        this.settled = settled;
+    }
+
+    public CompletableFuture<Void> whenSettled() {
+        return settled;
+    }
+
+    // The failure of a group of writes that have all completed, settling once every unsettled
+    // write in the group has
+    static Throwable ofGroup(Throwable failure, List<CompletableFuture<Void>> writes) {
+        List<CompletableFuture<Void>> unsettled = new ArrayList<>();
+        for (CompletableFuture<Void> write : writes) {
+            if (write.isCompletedExceptionally() && write.exceptionNow() instanceof UnsettledWriteException e) {
+                unsettled.add(e.whenSettled());
+            }
+        }
+        if (unsettled.isEmpty() || !(failure instanceof SchemaRegistryException e)) {
+            return failure;
+        }
+        return new UnsettledWriteException(e, CompletableFuture.allOf(unsettled.toArray(new CompletableFuture[0])));
+    }
+}
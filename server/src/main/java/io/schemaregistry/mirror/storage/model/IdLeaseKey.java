@@ -0,0 +1,77 @@
+package io.schemaregistry.mirror.storage.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.util.Objects;
+
+// One key per owner, so compaction keeps only each owner's latest lease. An owner's leases are
+// written one after another and each starts above the last, so its latest lease also has its
+// highest end, and the highest leased ID survives compaction. Keys written before leases were
+// keyed per owner also carry the lease start.
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonPropertyOrder(value = {"keytype", "owner", "start", "magic"})
+public class IdLeaseKey extends SchemaRegistryKey {
+
+    private static final int MAGIC_BYTE = 0;
+    private String owner;
+    private Integer start;
+
+    public IdLeaseKey(String owner) {
+        this(owner, null);
+    }
+
+    @JsonCreator
+    public IdLeaseKey(@JsonProperty("owner") String owner, @JsonProperty("start") Integer start) {
+        super(SchemaRegistryKeyType.ID_LEASE);
+        this.magicByte = MAGIC_BYTE;
+        this.owner = owner;
+        this.start = start;
+    }
+
+    @JsonProperty("owner")
+    public String getOwner() {
+        return owner;
+    }
+
+    @JsonProperty("owner")
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    @JsonProperty("start")
+    public Integer getStart() {
+        return start;
+    }
+
+    @JsonProperty("start")
+    public void setStart(Integer start) {
+        this.start = start;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        if (!super.equals(o)) return false;
+        IdLeaseKey that = (IdLeaseKey) o;
+        return Objects.equals(start, that.start) && Objects.equals(owner, that.owner);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = super.hashCode();
+        result = 31 * result + (owner != null ? owner.hashCode() : 0);
+        result = 31 * result + (start != null ? start.hashCode() : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "{magic=" + magicByte + ",keytype=" + keyType.keyType + ",owner=" + owner + (start != null ? ",start=" + start : "") + "}";
+    }
+}
@@ -0,0 +1,80 @@
+package io.schemaregistry.mirror.storage.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Objects;
+
+// Reserves the schema IDs start..end (inclusive) for one writer
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class IdLeaseValue extends SchemaRegistryValue {
+
+    private String owner;
+    private int start;
+    private int end;
+
+    @JsonCreator
+    public IdLeaseValue(@JsonProperty("owner") String owner,
+                        @JsonProperty("start") int start,
+                        @JsonProperty("end") int end) {
+        this.owner = owner;
+        this.start = start;
+        this.end = end;
+    }
+
+    @JsonProperty("owner")
+    public String getOwner() {
+        return owner;
+    }
+
+    @JsonProperty("owner")
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    @JsonProperty("start")
+    public int getStart() {
+        return start;
+    }
+
+    @JsonProperty("start")
+    public void setStart(int start) {
+        this.start = start;
+    }
+
+    @JsonProperty("end")
+    public int getEnd() {
+        return end;
+    }
+
+    @JsonProperty("end")
+    public void setEnd(int end) {
+        this.end = end;
+    }
+
+    @Override
+    public IdLeaseKey toKey() {
+        return new IdLeaseKey(owner);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        IdLeaseValue that = (IdLeaseValue) o;
+        return start == that.start && end == that.end && Objects.equals(owner, that.owner);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(owner, start, end);
+    }
+
+    @Override
+    public String toString() {
+        return "{owner=" + owner + ",start=" + start + ",end=" + end + "}";
+    }
+}
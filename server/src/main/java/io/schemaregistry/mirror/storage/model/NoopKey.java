@@ -1,23 +1,60 @@
 package io.schemaregistry.mirror.storage.model;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 
+import java.util.Objects;
+
+// Written by a new leader to catch up, carrying its epoch. The epoch is part of the key, so
+// compaction keeps one NOOP per leader and a replay sees every fence. NOOPs without an epoch
+// come from instances with leader election disabled.
 @JsonInclude(JsonInclude.Include.NON_EMPTY)
 @JsonIgnoreProperties(ignoreUnknown = true)
-@JsonPropertyOrder(value = {"keytype", "magic"})
+@JsonPropertyOrder(value = {"keytype", "epoch", "magic"})
 public class NoopKey extends SchemaRegistryKey {
 
     private static final int MAGIC_BYTE = 0;
+    private Integer epoch;
 
     public NoopKey() {
+        this(null);
+    }
+
+    @JsonCreator
+    public NoopKey(@JsonProperty("epoch") Integer epoch) {
         super(SchemaRegistryKeyType.NOOP);
         this.magicByte = MAGIC_BYTE;
+        this.epoch = epoch;
+    }
+
+    @JsonProperty("epoch")
+    public Integer getEpoch() {
+        return epoch;
+    }
+
+    @JsonProperty("epoch")
+    public void setEpoch(Integer epoch) {
+        this.epoch = epoch;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        if (!super.equals(o)) return false;
+        return Objects.equals(epoch, ((NoopKey) o).epoch);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + (epoch != null ? epoch.hashCode() : 0);
     }
 
     @Override
     public String toString() {
-        return "{magic=" + magicByte + ",keytype=" + keyType.keyType + "}";
+        return "{magic=" + magicByte + ",keytype=" + keyType.keyType + (epoch != null ? ",epoch=" + epoch : "") + "}";
     }
 }
@@ -15,7 +15,8 @@ import com.fasterxml.jackson.annotation.JsonTypeInfo;
     @JsonSubTypes.Type(value = ModeKey.class, name = "MODE"),
     @JsonSubTypes.Type(value = DeleteSubjectKey.class, name = "DELETE_SUBJECT"),
     @JsonSubTypes.Type(value = ClearSubjectKey.class, name = "CLEAR_SUBJECT"),
-    @JsonSubTypes.Type(value = NoopKey.class, name = "NOOP")
+    @JsonSubTypes.Type(value = NoopKey.class, name = "NOOP"),
+    @JsonSubTypes.Type(value = IdLeaseKey.class, name = "ID_LEASE")
 })
 public abstract class SchemaRegistryKey implements Comparable<SchemaRegistryKey> {
 
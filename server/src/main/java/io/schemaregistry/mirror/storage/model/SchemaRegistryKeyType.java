@@ -7,7 +7,8 @@ public enum SchemaRegistryKeyType {
     MODE("MODE"),
     NOOP("NOOP"),
     DELETE_SUBJECT("DELETE_SUBJECT"),
-    CLEAR_SUBJECT("CLEAR_SUBJECT");
+    CLEAR_SUBJECT("CLEAR_SUBJECT"),
+    ID_LEASE("ID_LEASE");
 
     public final String keyType;
 
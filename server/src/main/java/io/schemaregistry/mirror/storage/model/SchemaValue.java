@@ -16,20 +16,17 @@ import java.util.Objects;
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class SchemaValue extends SchemaRegistryValue implements Comparable<SchemaValue> {
 
-    private String subject;
-    private Integer version;
-    private Integer id;
-    private String md5;
-    private String schemaType = "AVRO";
-    private List<SchemaReference> references = Collections.emptyList();
-    private Metadata metadata;
-    private RuleSet ruleSet;
-    private String schema;
-    private boolean deleted;
-
-    public SchemaValue() {
-        // default constructor
-    }
+    // Immutable once constructed; a soft delete produces a copy through withDeleted
+    private final String subject;
+    private final Integer version;
+    private final Integer id;
+    private final String md5;
+    private final String schemaType;
+    private final List<SchemaReference> references;
+    private final Metadata metadata;
+    private final RuleSet ruleSet;
+    private final String schema;
+    private final boolean deleted;
 
     @JsonCreator
     public SchemaValue(@JsonProperty("subject") String subject,
@@ -59,99 +56,63 @@ public class SchemaValue extends SchemaRegistryValue implements Comparable<Schem
         return subject;
     }
 
-    @JsonProperty("subject")
-    public void setSubject(String subject) {
-        this.subject = subject;
-    }
-
     @JsonProperty("version")
     public Integer getVersion() {
         return version;
     }
 
-    @JsonProperty("version")
-    public void setVersion(Integer version) {
-        this.version = version;
-    }
-
     @JsonProperty("id")
     public Integer getId() {
         return id;
     }
 
-    @JsonProperty("id")
-    public void setId(Integer id) {
-        this.id = id;
-    }
-
     @JsonProperty("md5")
     public String getMd5() {
         return md5;
     }
 
-    @JsonProperty("md5")
-    public void setMd5(String md5) {
-        this.md5 = md5;
-    }
-
     @JsonProperty("schemaType")
     public String getSchemaType() {
         return schemaType;
     }
 
-    @JsonProperty("schemaType")
-    public void setSchemaType(String schemaType) {
-        this.schemaType = schemaType != null ? schemaType : "AVRO";
-    }
-
     @JsonProperty("references")
     public List<SchemaReference> getReferences() {
         return references;
     }
 
-    @JsonProperty("references")
-    public void setReferences(List<SchemaReference> references) {
-        this.references = references;
-    }
-
     @JsonProperty("metadata")
     public Metadata getMetadata() {
         return metadata;
     }
 
-    @JsonProperty("metadata")
-    public void setMetadata(Metadata metadata) {
-        this.metadata = metadata;
-    }
-
     @JsonProperty("ruleSet")
     public RuleSet getRuleSet() {
         return ruleSet;
     }
 
-    @JsonProperty("ruleSet")
-    public void setRuleSet(RuleSet ruleSet) {
-        this.ruleSet = ruleSet;
-    }
-
     @JsonProperty("schema")
     public String getSchema() {
         return schema;
     }
 
-    @JsonProperty("schema")
-    public void setSchema(String schema) {
-        this.schema = schema;
-    }
-
     @JsonProperty("deleted")
     public boolean isDeleted() {
         return deleted;
     }
 
-    @JsonProperty("deleted")
-    public void setDeleted(boolean deleted) {
-        this.deleted = deleted;
+    public SchemaValue withDeleted(boolean deleted) {
+        SchemaValue copy = new SchemaValue(subject, version, id, md5, schemaType, references, metadata, ruleSet, schema, deleted);
+        copy.offset = offset;
+        copy.timestamp = timestamp;
+        return copy;
+    }
+
+    public SchemaValue withSchema(String schema) {
+        SchemaValue copy = new SchemaValue(subject, version, id, md5, schemaType, references, metadata, ruleSet, schema, deleted);
+        copy.offset = offset;
+        copy.timestamp = timestamp;
+        return copy;
     }
 
     @Override
@@ -0,0 +1,86 @@
+package io.schemaregistry.mirror;
+
+import io.schemaregistry.mirror.exception.SchemaRegistryException;
+import io.schemaregistry.mirror.service.SchemaRegistryService;
+import io.schemaregistry.mirror.storage.KafkaSchemaStore;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {"schema.registry.auth.password=secret", "spring.threads.virtual.enabled=true"})
+class AsyncWriteTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @MockitoBean
+    private SchemaRegistryService schemaRegistryService;
+
+    @MockitoBean
+    private KafkaSchemaStore kafkaSchemaStore;
+
+    @MockitoBean
+    private AdminClient adminClient;
+
+    @MockitoBean
+    private KafkaProducer<byte[], byte[]> kafkaProducer;
+
+    @MockitoBean
+    private KafkaConsumer<byte[], byte[]> kafkaConsumer;
+
+    @Test
+    void registerRespondsOnceTheWriteCompletes() {
+        AtomicBoolean virtualRequestThread = new AtomicBoolean();
+        // Completes on another thread, after the request thread has returned
+        when(schemaRegistryService.registerSchema(eq("orders-value"), any(), eq(false))).thenAnswer(invocation -> {
+            virtualRequestThread.set(Thread.currentThread().isVirtual());
+            return CompletableFuture.supplyAsync(() -> 7, CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS));
+        });
+
+        ResponseEntity<String> response = post("/subjects/orders-value/versions", "{\"schema\":\"\\\"string\\\"\"}");
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals("{\"id\":7}", response.getBody());
+        assertTrue(virtualRequestThread.get());
+        // The content type filter still applies to the response written on the async dispatch
+        assertEquals("application/json", response.getHeaders().getContentType().toString());
+    }
+
+    @Test
+    void failedWriteIsReportedWithItsErrorCode() {
+        when(schemaRegistryService.deleteSubject("orders-value", false))
+            .thenReturn(CompletableFuture.failedFuture(
+                SchemaRegistryException.operationTimeoutException("Timed out waiting for store to catch up to offset 3")));
+
+        ResponseEntity<String> response = restTemplate.withBasicAuth("admin", "secret")
+            .exchange("/subjects/orders-value", HttpMethod.DELETE, null, String.class);
+        assertEquals(500, response.getStatusCode().value());
+        assertTrue(response.getBody().contains("\"error_code\":50002"), response.getBody());
+    }
+
+    private ResponseEntity<String> post(String path, String body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_TYPE, "application/vnd.schemaregistry.v1+json");
+        headers.set(HttpHeaders.ACCEPT, "application/json");
+        return restTemplate.withBasicAuth("admin", "secret")
+            .postForEntity(path, new HttpEntity<>(body, headers), String.class);
+    }
+}
@@ -0,0 +1,111 @@
+package io.schemaregistry.mirror;
+
+import io.schemaregistry.mirror.consistency.MinOffsetInterceptor;
+import io.schemaregistry.mirror.consistency.WriteOffsetAdvice;
+import io.schemaregistry.mirror.exception.SchemaRegistryException;
+import io.schemaregistry.mirror.service.SchemaRegistryService;
+import io.schemaregistry.mirror.storage.KafkaSchemaStore;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {"schema.registry.auth.password=secret", "schema.registry.min-offset-timeout-ms=300"})
+class ReadYourWritesTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @MockitoBean
+    private SchemaRegistryService schemaRegistryService;
+
+    @MockitoBean
+    private KafkaSchemaStore kafkaSchemaStore;
+
+    @MockitoBean
+    private AdminClient adminClient;
+
+    @MockitoBean
+    private KafkaProducer<byte[], byte[]> kafkaProducer;
+
+    @MockitoBean
+    private KafkaConsumer<byte[], byte[]> kafkaConsumer;
+
+    @Test
+    void writeResponseCarriesTheAppliedOffset() {
+        when(schemaRegistryService.setGlobalConfig(any())).thenReturn(
+            CompletableFuture.completedFuture(Map.of("compatibility", "FULL")));
+        when(kafkaSchemaStore.getLastWrittenOffset()).thenReturn(42L);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_TYPE, "application/vnd.schemaregistry.v1+json");
+        ResponseEntity<String> response = restTemplate.withBasicAuth("admin", "secret")
+            .exchange("/config", HttpMethod.PUT, new HttpEntity<>("{\"compatibility\":\"FULL\"}", headers), String.class);
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals("42", response.getHeaders().getFirst(WriteOffsetAdvice.OFFSET_HEADER));
+
+        // Reads carry no offset
+        when(schemaRegistryService.listSubjects(null, false)).thenReturn(List.of());
+        assertNull(get(null).getHeaders().getFirst(WriteOffsetAdvice.OFFSET_HEADER));
+    }
+
+    @Test
+    void readWaitsUntilTheOffsetIsApplied() {
+        when(schemaRegistryService.listSubjects(null, false)).thenReturn(List.of("orders-value"));
+        when(kafkaSchemaStore.waitForOffset(eq(42L), anyLong())).thenReturn(
+            CompletableFuture.supplyAsync(() -> 42L, CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS)),
+            CompletableFuture.completedFuture(42L));
+
+        ResponseEntity<String> response = get("42");
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals("[\"orders-value\"]", response.getBody());
+        // Waited once, then served on the dispatch that followed
+        verify(kafkaSchemaStore, times(2)).waitForOffset(eq(42L), eq(300L));
+        verify(schemaRegistryService, times(1)).listSubjects(null, false);
+    }
+
+    @Test
+    void readFailsWhenTheOffsetIsNotReachedInTime() {
+        when(kafkaSchemaStore.waitForOffset(eq(99L), anyLong())).thenReturn(
+            CompletableFuture.failedFuture(SchemaRegistryException.operationTimeoutException(
+                "Timed out waiting for store to catch up to offset 99")));
+
+        ResponseEntity<String> response = get("99");
+        assertEquals(500, response.getStatusCode().value());
+        assertTrue(response.getBody().contains("\"error_code\":50002"), response.getBody());
+        verify(schemaRegistryService, never()).listSubjects(any(), anyBoolean());
+    }
+
+    @Test
+    void invalidOffsetIsRejected() {
+        ResponseEntity<String> response = get("latest");
+        assertEquals(400, response.getStatusCode().value());
+    }
+
+    private ResponseEntity<String> get(String minOffset) {
+        HttpHeaders headers = new HttpHeaders();
+        if (minOffset != null) {
+            headers.set(MinOffsetInterceptor.MIN_OFFSET_HEADER, minOffset);
+        }
+        return restTemplate.withBasicAuth("admin", "secret")
+            .exchange("/subjects", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+}
@@ -0,0 +1,39 @@
+package io.schemaregistry.mirror.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedCacheTest {
+
+    @Test
+    void evictsLeastRecentlyUsedEntries() {
+        BoundedCache<String, String> cache = new BoundedCache<>(2);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        assertEquals("1", cache.get("a"));
+        cache.put("c", "3");
+
+        assertNull(cache.get("b"));
+        assertEquals("1", cache.get("a"));
+        assertEquals("3", cache.get("c"));
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.evictionCount());
+        assertEquals(0.75, cache.hitRatio());
+    }
+
+    @Test
+    void boundsTotalWeight() {
+        BoundedCache<Integer, String> cache = new BoundedCache<>(10, String::length);
+        cache.put(1, "aaaa");
+        cache.put(2, "bbbb");
+        cache.put(3, "cccc");
+        cache.put(4, "this entry is too heavy to cache");
+
+        assertNull(cache.get(1));
+        assertNull(cache.get(4));
+        assertEquals(8, cache.weight());
+        assertEquals("cccc", cache.get(3, key -> "reloaded"));
+        assertEquals("reloaded", cache.get(1, key -> "reloaded"));
+    }
+}
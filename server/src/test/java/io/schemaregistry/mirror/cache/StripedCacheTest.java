@@ -0,0 +1,39 @@
+package io.schemaregistry.mirror.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripedCacheTest {
+
+    @Test
+    void stripesShareTheCapacity() {
+        StripedCache<Integer, String> cache = new StripedCache<>(20);
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, "v" + i);
+        }
+        assertTrue(cache.size() <= 20);
+        assertTrue(cache.size() > 0);
+
+        cache.put(5000, "hot");
+        assertEquals("hot", cache.get(5000));
+        assertEquals("hot", cache.get(5000, key -> "reloaded"));
+        cache.invalidate(5000);
+        assertEquals("reloaded", cache.get(5000, key -> "reloaded"));
+        assertEquals(2.0 / 3, cache.hitRatio(), 1e-9);
+    }
+
+    @Test
+    void smallAndDisabledCaches() {
+        StripedCache<String, String> one = new StripedCache<>(1);
+        one.put("a", "1");
+        one.put("b", "2");
+        assertEquals(1, one.size());
+
+        StripedCache<String, String> off = new StripedCache<>(0);
+        off.put("a", "1");
+        assertNull(off.get("a"));
+        assertEquals(0, off.size());
+        assertEquals(0.0, new StripedCache<String, String>(4).hitRatio());
+    }
+}
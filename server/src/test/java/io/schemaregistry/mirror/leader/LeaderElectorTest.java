@@ -0,0 +1,163 @@
+package io.schemaregistry.mirror.leader;
+
+import io.schemaregistry.mirror.config.SchemaRegistryProperties;
+import io.schemaregistry.mirror.storage.KafkaSchemaStore;
+import io.schemaregistry.mirror.storage.model.NoopKey;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class LeaderElectorTest {
+
+    private static final TopicPartition PARTITION = new TopicPartition("_schemas", 0);
+
+    private final MockConsumer<byte[], byte[]> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+    private final KafkaSchemaStore store = mock(KafkaSchemaStore.class);
+    private LeaderElector elector;
+
+    @BeforeEach
+    void setUp() {
+        SchemaRegistryProperties properties = new SchemaRegistryProperties();
+        properties.setHost("registry-1");
+        properties.setPort(8081);
+        consumer.updateBeginningOffsets(Map.of(PARTITION, 0L));
+        elector = new LeaderElector(properties, store, consumer);
+        elector.subscribe();
+    }
+
+    @Test
+    void disabledElectorIsAlwaysLeader() {
+        SchemaRegistryProperties properties = new SchemaRegistryProperties();
+        LeaderElector disabled = new LeaderElector(properties, store);
+        assertFalse(disabled.isEnabled());
+        assertTrue(disabled.isLeader());
+        assertEquals(disabled.getUrl(), disabled.getLeaderUrl());
+    }
+
+    @Test
+    void electionRequiresAnAdvertisedHost() {
+        SchemaRegistryProperties properties = new SchemaRegistryProperties();
+        assertThrows(IllegalStateException.class,
+            () -> new LeaderElector(properties, store, new MockConsumer<>(OffsetResetStrategy.EARLIEST)));
+    }
+
+    @Test
+    void assignedInstanceLeadsOnceCaughtUp() {
+        CompletableFuture<Void> noop = new CompletableFuture<>();
+        when(store.produce(any(NoopKey.class), isNull())).thenReturn(noop);
+        consumer.rebalance(List.of(PARTITION));
+
+        elector.pollOnce();
+        verify(store).produce(any(NoopKey.class), isNull());
+        assertTrue(consumer.paused().contains(PARTITION));
+        elector.pollOnce();
+        assertFalse(elector.isLeader());
+
+        noop.complete(null);
+        elector.pollOnce();
+        assertTrue(elector.isLeader());
+        assertEquals("http://registry-1:8081", elector.getLeaderUrl());
+        OffsetAndMetadata committed = consumer.committed(Set.of(PARTITION)).get(PARTITION);
+        assertEquals(elector.getInstanceId() + " http://registry-1:8081", committed.metadata());
+
+        consumer.rebalance(List.of());
+        assertFalse(elector.isLeader());
+        assertNull(elector.getLeaderUrl());
+    }
+
+    @Test
+    void failedCatchUpIsRetried() {
+        when(store.produce(any(NoopKey.class), isNull()))
+            .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("timed out")))
+            .thenReturn(CompletableFuture.completedFuture(null));
+        consumer.rebalance(List.of(PARTITION));
+
+        elector.pollOnce();
+        elector.pollOnce();
+        assertFalse(elector.isLeader());
+        elector.pollOnce();
+        elector.pollOnce();
+        assertTrue(elector.isLeader());
+        verify(store, times(2)).produce(any(NoopKey.class), isNull());
+    }
+
+    @Test
+    void leaderResignsOnceANewerEpochIsAnnounced() {
+        when(store.getFencedEpoch()).thenReturn(4);
+        when(store.produce(any(NoopKey.class), isNull())).thenReturn(CompletableFuture.completedFuture(null));
+        consumer.rebalance(List.of(PARTITION));
+
+        // The epoch is above every one read so far
+        elector.pollOnce();
+        elector.pollOnce();
+        assertTrue(elector.isLeader());
+        verify(store).setWriterEpoch(5);
+        verify(store).produce(new NoopKey(5), null);
+
+        // Its own NOOP
+        when(store.getFencedEpoch()).thenReturn(5);
+        elector.pollOnce();
+        assertTrue(elector.isLeader());
+
+        when(store.getFencedEpoch()).thenReturn(6);
+        elector.pollOnce();
+        assertFalse(elector.isLeader());
+        assertNull(elector.getLeaderUrl());
+        // Not a candidate again until the group reassigns the partition
+        elector.pollOnce();
+        verify(store, times(1)).produce(any(NoopKey.class), isNull());
+    }
+
+    @Test
+    void followerFindsThePublishedLeader() {
+        // MockConsumer only reports commits for its own assignment; a real consumer reports any partition
+        Map<TopicPartition, OffsetAndMetadata> published = new HashMap<>();
+        MockConsumer<byte[], byte[]> follower = new MockConsumer<>(OffsetResetStrategy.EARLIEST) {
+            @Override
+            public synchronized Map<TopicPartition, OffsetAndMetadata> committed(Set<TopicPartition> partitions) {
+                return new HashMap<>(published);
+            }
+        };
+        SchemaRegistryProperties properties = new SchemaRegistryProperties();
+        properties.setHost("registry-1");
+        LeaderElector elector = new LeaderElector(properties, store, follower);
+        elector.subscribe();
+
+        elector.pollOnce();
+        assertNull(elector.getLeaderUrl());
+
+        published.put(PARTITION, new OffsetAndMetadata(0, "b7e2 http://registry-2:8081"));
+        elector.pollOnce();
+        assertFalse(elector.isLeader());
+        assertEquals("http://registry-2:8081", elector.getLeaderUrl());
+
+        // Another process at our URL, such as our own previous run, is still the leader
+        published.put(PARTITION, new OffsetAndMetadata(0, "c41d " + elector.getUrl()));
+        elector.pollOnce();
+        assertEquals(elector.getUrl(), elector.getLeaderUrl());
+
+        // Our own announcement is stale metadata from an earlier leadership
+        published.put(PARTITION, new OffsetAndMetadata(0, elector.getInstanceId() + " " + elector.getUrl()));
+        elector.pollOnce();
+        assertNull(elector.getLeaderUrl());
+
+        // Announcements from versions that published only the URL
+        published.put(PARTITION, new OffsetAndMetadata(0, "http://registry-2:8081"));
+        elector.pollOnce();
+        assertEquals("http://registry-2:8081", elector.getLeaderUrl());
+        verifyNoInteractions(store);
+    }
+}
@@ -0,0 +1,147 @@
+package io.schemaregistry.mirror.leader;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.schemaregistry.mirror.config.SchemaRegistryProperties;
+import io.schemaregistry.mirror.consistency.WriteOffsetAdvice;
+import io.schemaregistry.mirror.exception.SchemaRegistryException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LeaderForwardingInterceptorTest {
+
+    private final LeaderElector elector = mock(LeaderElector.class);
+    private final AtomicReference<String> forwarded = new AtomicReference<>();
+    private HttpServer leader;
+    private LeaderForwardingInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        leader = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        leader.createContext("/", exchange -> {
+            forwarded.set(exchange.getRequestMethod() + " " + exchange.getRequestURI() + " "
+                + exchange.getRequestHeaders().getFirst("Authorization") + " "
+                + exchange.getRequestHeaders().getFirst(LeaderForwardingInterceptor.FORWARDED_HEADER) + " "
+                + new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            byte[] body = "{\"id\":3}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/vnd.schemaregistry.v1+json");
+            exchange.getResponseHeaders().set(WriteOffsetAdvice.OFFSET_HEADER, "17");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        leader.start();
+
+        SchemaRegistryProperties properties = new SchemaRegistryProperties();
+        properties.setLeaderForwardTimeoutMs(5000);
+        interceptor = new LeaderForwardingInterceptor(elector, properties, new ObjectMapper());
+        when(elector.getUrl()).thenReturn("http://follower:8081");
+    }
+
+    @AfterEach
+    void tearDown() {
+        leader.stop(0);
+    }
+
+    @Test
+    void leaderHandlesWritesItself() throws Exception {
+        when(elector.isLeader()).thenReturn(true);
+        assertTrue(interceptor.preHandle(request(), new MockHttpServletResponse(), handler("write")));
+    }
+
+    @Test
+    void readsAreNeverForwarded() throws Exception {
+        assertTrue(interceptor.preHandle(request(), new MockHttpServletResponse(), handler("read")));
+    }
+
+    @Test
+    void followerRelaysTheLeadersResponse() throws Exception {
+        when(elector.getLeaderUrl()).thenReturn("http://localhost:" + leader.getAddress().getPort());
+        MockHttpServletRequest request = request();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertFalse(interceptor.preHandle(request, response, handler("write")));
+        awaitCompletion(request);
+
+        assertEquals("POST /subjects/orders/versions?normalize=true Basic YWRtaW46c2VjcmV0 http://follower:8081 "
+            + "{\"schema\":\"\\\"string\\\"\"}", forwarded.get());
+        assertEquals(200, response.getStatus());
+        assertEquals("application/vnd.schemaregistry.v1+json", response.getContentType());
+        assertEquals("{\"id\":3}", response.getContentAsString());
+        assertEquals("17", response.getHeader(WriteOffsetAdvice.OFFSET_HEADER));
+    }
+
+    @Test
+    void unreachableLeaderIsReportedAsForwardingFailure() throws Exception {
+        when(elector.getLeaderUrl()).thenReturn("http://localhost:" + leader.getAddress().getPort());
+        leader.stop(0);
+        MockHttpServletRequest request = request();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertFalse(interceptor.preHandle(request, response, handler("write")));
+        awaitCompletion(request);
+
+        assertEquals(500, response.getStatus());
+        assertTrue(response.getContentAsString().contains("\"error_code\":50003"));
+    }
+
+    @Test
+    void requestsAreNotForwardedTwice() {
+        MockHttpServletRequest request = request();
+        request.addHeader(LeaderForwardingInterceptor.FORWARDED_HEADER, "http://other:8081");
+        SchemaRegistryException e = assertThrows(SchemaRegistryException.class,
+            () -> interceptor.preHandle(request, new MockHttpServletResponse(), handler("write")));
+        assertEquals(50004, e.getErrorCode());
+    }
+
+    @Test
+    void unknownLeaderIsRejected() {
+        SchemaRegistryException e = assertThrows(SchemaRegistryException.class,
+            () -> interceptor.preHandle(request(), new MockHttpServletResponse(), handler("write")));
+        assertEquals(50004, e.getErrorCode());
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/subjects/orders/versions");
+        request.setQueryString("normalize=true");
+        request.setAsyncSupported(true);
+        request.setContentType("application/json");
+        request.addHeader("Authorization", "Basic YWRtaW46c2VjcmV0");
+        request.setContent("{\"schema\":\"\\\"string\\\"\"}".getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private static HandlerMethod handler(String method) throws NoSuchMethodException {
+        return new HandlerMethod(new Endpoints(), method);
+    }
+
+    // MockAsyncContext.complete() ends the async cycle on the request
+    private static void awaitCompletion(MockHttpServletRequest request) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (request.isAsyncStarted()) {
+            assertTrue(System.nanoTime() < deadline, "forward did not complete");
+            Thread.sleep(10);
+        }
+    }
+
+    static class Endpoints {
+        @LeaderOnly
+        public void write() {
+        }
+
+        public void read() {
+        }
+    }
+}
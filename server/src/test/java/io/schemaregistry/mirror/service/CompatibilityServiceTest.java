@@ -0,0 +1,275 @@
+package io.schemaregistry.mirror.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.confluent.kafka.schemaregistry.ParsedSchema;
+import io.confluent.kafka.schemaregistry.ParsedSchemaHolder;
+import io.confluent.kafka.schemaregistry.SchemaProvider;
+import io.confluent.kafka.schemaregistry.client.rest.entities.SchemaReference;
+import io.schemaregistry.mirror.config.SchemaRegistryProperties;
+import io.schemaregistry.mirror.exception.SchemaRegistryException;
+import io.schemaregistry.mirror.schema.CompatibilityLevel;
+import io.schemaregistry.mirror.storage.InMemoryStore;
+import io.schemaregistry.mirror.storage.KafkaStoreReaderThread;
+import io.schemaregistry.mirror.storage.SchemaDigest;
+import io.schemaregistry.mirror.storage.model.SchemaKey;
+import io.schemaregistry.mirror.storage.model.SchemaValue;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CompatibilityServiceTest {
+
+    private static final String ORDER_V1 = "{\"type\":\"record\",\"name\":\"Order\",\"fields\":[]}";
+    private static final String ORDER_V2 = "{\"type\":\"record\",\"name\":\"Order\",\"fields\":[],\"doc\":\"v2\"}";
+
+    // Parses anything except "invalid" to a new schema, so re-parses are observable
+    private final SchemaProvider avro = mock(SchemaProvider.class);
+
+    private final InMemoryStore store = new InMemoryStore();
+    private final List<CompatibilityService> services = new ArrayList<>();
+
+    @AfterEach
+    void stopServices() {
+        services.forEach(CompatibilityService::stop);
+    }
+
+    private CompatibilityService service(long cacheBytes) {
+        when(avro.parseSchema(anyString(), anyList(), anyBoolean())).thenAnswer(invocation ->
+            "invalid".equals(invocation.getArgument(0)) ? Optional.empty() : Optional.of(mock(ParsedSchema.class)));
+        SchemaRegistryProperties properties = new SchemaRegistryProperties();
+        properties.setParsedSchemaCacheBytes(cacheBytes);
+        properties.setCompatibilityCheckThreads(4);
+        CompatibilityService service = new CompatibilityService(properties, Map.of("AVRO", avro),
+            new ReferenceResolver(store::snapshot, 100));
+        services.add(service);
+        return service;
+    }
+
+    @Test
+    void sameContentIsParsedOnce() {
+        CompatibilityService service = service(1 << 20);
+        CompatibilityService.ParsedContent first = service.parseSchema("AVRO", ORDER_V1, List.of(), false);
+        assertSame(first, service.parseSchema(null, ORDER_V1, List.of(), false));
+        verify(avro, times(1)).parseSchema(anyString(), anyList(), anyBoolean());
+        assertEquals(1, service.getParsedSchemaCache().hitCount());
+        assertEquals(1, service.getParsedSchemaCache().missCount());
+
+        // Normalized and plain forms are cached separately
+        assertNotSame(first, service.parseSchema("AVRO", ORDER_V1, List.of(), true));
+        assertEquals(2, service.getParsedSchemaCache().size());
+    }
+
+    @Test
+    void cacheIsBoundedBySchemaTextSize() {
+        CompatibilityService service = service(ORDER_V2.length());
+        service.parseSchema("AVRO", ORDER_V1, List.of(), false);
+        service.parseSchema("AVRO", ORDER_V2, List.of(), false);
+        assertEquals(1, service.getParsedSchemaCache().size());
+        assertEquals(1, service.getParsedSchemaCache().evictionCount());
+        assertEquals(ORDER_V2.length(), service.getParsedSchemaCache().weight());
+    }
+
+    @Test
+    void schemaIsParsedAgainWhenAReferencedVersionIsReplaced() {
+        CompatibilityService service = service(1 << 20);
+        store.put(new SchemaValue("common", 1, 1, null, "AVRO", List.of(), null, null, ORDER_V1, false));
+        store.commit(0);
+        List<SchemaReference> refs = List.of(new SchemaReference("Common", "common", 1));
+        CompatibilityService.ParsedContent before = service.parseSchema("AVRO", "\"Common\"", refs, false);
+        assertSame(before, service.parseSchema("AVRO", "\"Common\"", refs, false));
+
+        // Applied from _schemas without this instance invalidating anything, as on a replica
+        store.hardDelete("common", 1);
+        store.put(new SchemaValue("common", 1, 2, null, "AVRO", List.of(), null, null, ORDER_V2, false));
+        store.commit(1);
+        assertNotSame(before, service.parseSchema("AVRO", "\"Common\"", refs, false));
+    }
+
+    @Test
+    void invalidSchemaIsNotCached() {
+        CompatibilityService service = service(1 << 20);
+        assertThrows(SchemaRegistryException.class, () -> service.parseSchema("AVRO", "invalid", List.of(), false));
+        assertEquals(0, service.getParsedSchemaCache().size());
+    }
+
+    @Test
+    void normalizedFormIsCachedByRawText() {
+        CompatibilityService service = service(1 << 20);
+        ParsedSchema parsed = schema("{\"type\":\"string\"}").schema();
+        when(avro.parseSchema(anyString(), anyList(), anyBoolean())).thenReturn(Optional.of(parsed));
+
+        CompatibilityService.CanonicalSchema canonical = service.canonicalize("AVRO", " \"string\" ", List.of());
+        assertEquals("{\"type\":\"string\"}", canonical.schema());
+        assertEquals(SchemaDigest.of("AVRO", "{\"type\":\"string\"}", List.of()), canonical.digest());
+
+        assertEquals(canonical, service.canonicalize(null, " \"string\" ", List.of()));
+        verify(avro, times(1)).parseSchema(anyString(), anyList(), anyBoolean());
+        verify(parsed, times(1)).canonicalString();
+        assertEquals(1, service.getCanonicalFormCache().hitCount());
+
+        // Text with references is normalized again once a referenced version is replaced
+        store.put(new SchemaValue("common", 1, 1, null, "AVRO", List.of(), null, null, ORDER_V1, false));
+        store.commit(0);
+        List<SchemaReference> refs = List.of(new SchemaReference("Common", "common", 1));
+        service.canonicalize("AVRO", "\"Common\"", refs);
+        store.hardDelete("common", 1);
+        store.put(new SchemaValue("common", 1, 2, null, "AVRO", List.of(), null, null, ORDER_V2, false));
+        store.commit(1);
+        service.canonicalize("AVRO", "\"Common\"", refs);
+        assertEquals(3, service.getCanonicalFormCache().missCount());
+    }
+
+    @Test
+    void repeatedCheckReusesTheVerdict() {
+        CompatibilityService service = service(1 << 20);
+        CompatibilityService.ParsedContent v1 = schema("v1");
+        CompatibilityService.ParsedContent candidate = schema("v2");
+        when(candidate.schema().isCompatible(any(), anyList())).thenReturn(List.of("field removed"));
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(List.of("field removed"),
+                service.testCompatibility(CompatibilityLevel.BACKWARD, candidate, List.of(v1), false));
+        }
+        verify(candidate.schema(), times(1)).isCompatible(any(), anyList());
+        assertEquals(2, service.getVerdictCache().hitCount());
+
+        // A config change to another level is a new check
+        service.testCompatibility(CompatibilityLevel.FORWARD, candidate, List.of(v1), false);
+        verify(candidate.schema(), times(2)).isCompatible(any(), anyList());
+    }
+
+    @Test
+    void cachedChecksDoNotRenderSchemas() {
+        CompatibilityService service = service(1 << 20);
+        List<CompatibilityService.ParsedContent> history = new ArrayList<>();
+        for (int v = 1; v <= 3; v++) {
+            history.add(service.parseSchema(new SchemaValue("orders", v, v, "md5-" + v, "AVRO", List.of(),
+                null, null, "{\"doc\":\"v" + v + "\"}", false)));
+        }
+        // Stored versions are keyed on their registered digest
+        assertEquals("md5-2", history.get(1).digest());
+        CompatibilityService.ParsedContent candidate = service.parseSchema("AVRO", ORDER_V1, List.of(), false);
+
+        for (int i = 0; i < 2; i++) {
+            service.testCompatibility(CompatibilityLevel.FULL_TRANSITIVE, candidate, history, false);
+        }
+        assertEquals(3, service.getVerdictCache().hitCount());
+        verify(candidate.schema(), never()).canonicalString();
+        history.forEach(previous -> verify(previous.schema(), never()).canonicalString());
+    }
+
+    @Test
+    void onlyTransitiveLevelsCheckOlderVersions() {
+        CompatibilityService service = service(1 << 20);
+        CompatibilityService.ParsedContent v1 = schema("v1");
+        CompatibilityService.ParsedContent v2 = schema("v2");
+        CompatibilityService.ParsedContent candidate = schema("v3");
+        when(candidate.schema().isCompatible(any(), anyList())).thenAnswer(invocation -> {
+            List<? extends ParsedSchemaHolder> previous = invocation.getArgument(1);
+            return previous.get(0).schema() == v1.schema() ? List.of("incompatible with v1") : List.of();
+        });
+
+        assertEquals(List.of(),
+            service.testCompatibility(CompatibilityLevel.BACKWARD, candidate, List.of(v1, v2), false));
+        assertEquals(List.of("incompatible with v1"),
+            service.testCompatibility(CompatibilityLevel.BACKWARD_TRANSITIVE, candidate, List.of(v1, v2), false));
+    }
+
+    @Test
+    void transitiveCheckReportsTheNewestFailureOrEveryFailureWhenVerbose() {
+        CompatibilityService service = service(1 << 20);
+        List<CompatibilityService.ParsedContent> history = new ArrayList<>();
+        List<ParsedSchema> parsed = new ArrayList<>();
+        for (int v = 1; v <= 50; v++) {
+            history.add(schema("v" + v));
+            parsed.add(history.get(v - 1).schema());
+        }
+        CompatibilityService.ParsedContent candidate = schema("v51");
+        // Versions 10 and 40 fail
+        when(candidate.schema().isCompatible(any(), anyList())).thenAnswer(invocation -> {
+            List<? extends ParsedSchemaHolder> previous = invocation.getArgument(1);
+            int version = parsed.indexOf(previous.get(0).schema()) + 1;
+            return version % 30 == 10 ? List.of("incompatible with v" + version) : List.of();
+        });
+
+        assertEquals(List.of("incompatible with v40"),
+            service.testCompatibility(CompatibilityLevel.FULL_TRANSITIVE, candidate, history, false));
+        assertEquals(List.of("incompatible with v40", "incompatible with v10"),
+            service.testCompatibility(CompatibilityLevel.FULL_TRANSITIVE, candidate, history, true));
+    }
+
+    @Test
+    void verdictIsRecomputedWhenTheReaderReplacesAReferencedVersion() throws Exception {
+        List<SchemaReference> refs = List.of(new SchemaReference("Common", "common", 1));
+        ObjectMapper objectMapper = new ObjectMapper();
+        MockConsumer<byte[], byte[]> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        List<ConsumerRecord<byte[], byte[]>> records = new ArrayList<>();
+        records.add(record(objectMapper, 0, new SchemaKey("common", 1),
+            new SchemaValue("common", 1, 1, null, "AVRO", List.of(), null, null, ORDER_V1, false)));
+        records.add(record(objectMapper, 1, new SchemaKey("orders", 1),
+            new SchemaValue("orders", 1, 2, null, "AVRO", refs, null, null, "\"Common\"", false)));
+        TopicPartition partition = new TopicPartition("_schemas", 0);
+        consumer.schedulePollTask(() -> records.forEach(consumer::addRecord));
+        consumer.updateBeginningOffsets(Map.of(partition, 0L));
+        consumer.updateEndOffsets(Map.of(partition, (long) records.size()));
+        KafkaStoreReaderThread reader = new KafkaStoreReaderThread(consumer, "_schemas", store, objectMapper, -1, 1);
+        reader.start();
+        try {
+            assertTrue(reader.waitForInitialLoad(10000));
+            CompatibilityService service = service(1 << 20);
+            SchemaValue previous = store.snapshot().getSchema("orders", 1, false);
+            for (int i = 0; i < 2; i++) {
+                service.testCompatibility(CompatibilityLevel.BACKWARD,
+                    service.parseSchema("AVRO", "[\"null\",\"Common\"]", refs, false),
+                    List.of(service.parseSchema(previous)), false);
+            }
+            assertEquals(1, service.getVerdictCache().missCount());
+
+            // Another instance hard-deletes common version 1 and registers new content there
+            ConsumerRecord<byte[], byte[]> tombstone = record(objectMapper, 2, new SchemaKey("common", 1), null);
+            ConsumerRecord<byte[], byte[]> replaced = record(objectMapper, 3, new SchemaKey("common", 1),
+                new SchemaValue("common", 1, 3, null, "AVRO", List.of(), null, null, ORDER_V2, false));
+            consumer.schedulePollTask(() -> {
+                consumer.addRecord(tombstone);
+                consumer.addRecord(replaced);
+            });
+            reader.whenApplied(3).get(10, TimeUnit.SECONDS);
+
+            service.testCompatibility(CompatibilityLevel.BACKWARD,
+                service.parseSchema("AVRO", "[\"null\",\"Common\"]", refs, false),
+                List.of(service.parseSchema(previous)), false);
+            assertEquals(2, service.getVerdictCache().missCount());
+        } finally {
+            reader.shutdown();
+            reader.join(5000);
+        }
+    }
+
+    private static ConsumerRecord<byte[], byte[]> record(ObjectMapper objectMapper, long offset,
+                                                         SchemaKey key, SchemaValue value) throws Exception {
+        return new ConsumerRecord<>("_schemas", 0, offset, objectMapper.writeValueAsBytes(key),
+            value != null ? objectMapper.writeValueAsBytes(value) : null);
+    }
+
+    // A parsed schema whose digest is its text
+    private static CompatibilityService.ParsedContent schema(String text) {
+        ParsedSchema schema = mock(ParsedSchema.class);
+        when(schema.schemaType()).thenReturn("AVRO");
+        when(schema.canonicalString()).thenReturn(text);
+        when(schema.references()).thenReturn(List.of());
+        return new CompatibilityService.ParsedContent(schema, text);
+    }
+}
@@ -0,0 +1,100 @@
+package io.schemaregistry.mirror.service;
+
+import io.confluent.kafka.schemaregistry.client.rest.entities.Schema;
+import io.confluent.kafka.schemaregistry.client.rest.entities.SchemaReference;
+import io.schemaregistry.mirror.exception.SchemaRegistryException;
+import io.schemaregistry.mirror.storage.InMemoryStore;
+import io.schemaregistry.mirror.storage.model.SchemaValue;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReferenceResolverTest {
+
+    private final InMemoryStore store = new InMemoryStore();
+    private final ReferenceResolver resolver = new ReferenceResolver(store::snapshot, 100);
+    private long offset;
+
+    // common.proto <- address.proto <- customer.proto
+    private void registerChain() {
+        register("common", 1, 1, "message Common {}", List.of());
+        register("address", 1, 2, "message Address {}", List.of(new SchemaReference("common.proto", "common", 1)));
+        register("customer", 1, 3, "message Customer {}", List.of(new SchemaReference("address.proto", "address", 1)));
+    }
+
+    private void register(String subject, int version, int id, String schema, List<SchemaReference> references) {
+        store.put(new SchemaValue(subject, version, id, null, "PROTOBUF", references, null, null, schema, false));
+        store.commit(offset++);
+    }
+
+    @Test
+    void resolvesTheTransitiveClosureDependenciesFirst() {
+        registerChain();
+        Map<String, String> resolved = resolver.resolve(List.of(new SchemaReference("customer.proto", "customer", 1)));
+        assertEquals(List.of("common.proto", "address.proto", "customer.proto"), List.copyOf(resolved.keySet()));
+        assertEquals("message Address {}", resolved.get("address.proto"));
+    }
+
+    @Test
+    void closuresAreBuiltOnce() {
+        registerChain();
+        List<SchemaReference> refs = List.of(new SchemaReference("customer.proto", "customer", 1));
+        resolver.resolve(refs);
+        long misses = resolver.getClosureCache().missCount();
+        assertEquals(3, resolver.getClosureCache().size());
+
+        assertEquals(resolver.resolve(refs), resolver.resolve(refs));
+        assertEquals(misses, resolver.getClosureCache().missCount());
+    }
+
+    @Test
+    void closureIsRebuiltWhenADependencyIsReplaced() {
+        registerChain();
+        List<SchemaReference> refs = List.of(new SchemaReference("customer.proto", "customer", 1));
+        resolver.resolve(refs);
+
+        // Applied from _schemas without this instance invalidating anything, as on a replica
+        store.hardDelete("common", 1);
+        register("common", 1, 4, "message Common { string id = 1; }", List.of());
+        assertEquals("message Common { string id = 1; }", resolver.resolve(refs).get("common.proto"));
+    }
+
+    @Test
+    void fingerprintChangesWhenAnyVersionInTheClosureIsReplaced() {
+        registerChain();
+        List<SchemaReference> refs = List.of(new SchemaReference("customer.proto", "customer", 1));
+        String before = resolver.fingerprint(refs);
+        assertEquals("3,2,1;", before);
+        assertEquals(before, resolver.fingerprint(refs));
+        assertEquals("", resolver.fingerprint(List.of()));
+
+        store.hardDelete("common", 1);
+        register("common", 1, 4, "message Common { string id = 1; }", List.of());
+        assertEquals("3,2,4;", resolver.fingerprint(refs));
+    }
+
+    @Test
+    void circularReferencesAreRejected() {
+        register("a", 1, 1, "message A {}", List.of(new SchemaReference("b.proto", "b", -1)));
+        register("b", 1, 2, "message B {}", List.of(new SchemaReference("a.proto", "a", -1)));
+        List<SchemaReference> refs = List.of(new SchemaReference("a.proto", "a", 1));
+
+        SchemaRegistryException e = assertThrows(SchemaRegistryException.class, () -> resolver.resolve(refs));
+        assertEquals(SchemaRegistryException.INVALID_SCHEMA_ERROR_CODE, e.getErrorCode());
+        assertThrows(SchemaRegistryException.class, () -> resolver.fingerprint(refs));
+        assertEquals(0, resolver.getClosureCache().size());
+    }
+
+    @Test
+    void latestVersionAndMissingReferences() {
+        registerChain();
+        Schema latest = resolver.getByVersion("address", -1, false);
+        assertEquals(2, latest.getId());
+
+        assertThrows(SchemaRegistryException.class,
+            () -> resolver.resolve(List.of(new SchemaReference("missing.proto", "missing", 1))));
+    }
+}
@@ -0,0 +1,147 @@
+package io.schemaregistry.mirror.service;
+
+import io.schemaregistry.mirror.exception.SchemaRegistryException;
+import io.schemaregistry.mirror.storage.UnsettledWriteException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SubjectLocksTest {
+
+    @Test
+    void operationsOnOneSubjectRunOneAtATime() {
+        SubjectLocks locks = new SubjectLocks(16, Runnable::run);
+        CompletableFuture<Integer> firstWrite = new CompletableFuture<>();
+        List<String> started = new ArrayList<>();
+
+        CompletableFuture<Integer> first = locks.withLock("orders", () -> {
+            started.add("first");
+            return firstWrite;
+        });
+        CompletableFuture<Integer> second = locks.withLock("orders", () -> {
+            started.add("second");
+            return CompletableFuture.completedFuture(2);
+        });
+
+        assertEquals(List.of("first"), started);
+        int stripe = locks.stripeOf("orders");
+        assertEquals(1, locks.getQueued(stripe));
+
+        firstWrite.complete(1);
+        assertEquals(1, first.join());
+        assertEquals(2, second.join());
+        assertEquals(List.of("first", "second"), started);
+        assertEquals(2, locks.getAcquisitions(stripe));
+        assertEquals(1, locks.getContended(stripe));
+        assertEquals(0, locks.getQueued(stripe));
+    }
+
+    @Test
+    void otherStripesAreNotBlocked() {
+        SubjectLocks locks = new SubjectLocks(16, Runnable::run);
+        String other = "payments";
+        for (int i = 0; locks.stripeOf(other) == locks.stripeOf("orders"); i++) {
+            other = "payments-" + i;
+        }
+
+        locks.withLock("orders", CompletableFuture::new);
+        CompletableFuture<String> unrelated = locks.withLock(other, () -> CompletableFuture.completedFuture("done"));
+        assertEquals("done", unrelated.getNow(null));
+    }
+
+    @Test
+    void failedOperationReleasesTheStripe() {
+        SubjectLocks locks = new SubjectLocks(1, Runnable::run);
+        CompletableFuture<Integer> failed = locks.withLock("orders", () -> {
+            throw SchemaRegistryException.subjectNotFoundException("orders");
+        });
+        CompletionException e = assertThrows(CompletionException.class, failed::join);
+        assertInstanceOf(SchemaRegistryException.class, e.getCause());
+
+        assertEquals(3, locks.withLock("orders", () -> CompletableFuture.completedFuture(3)).join());
+    }
+
+    @Test
+    void unsettledWriteHoldsTheStripeUntilItSettles() {
+        // The write timed out for its caller but may still be acknowledged and applied
+        CompletableFuture<Void> inFlight = new CompletableFuture<>();
+        SubjectLocks locks = new SubjectLocks(1, Runnable::run, 60000);
+        CompletableFuture<Integer> timedOut = locks.withLock("orders", () -> CompletableFuture.failedFuture(
+            new UnsettledWriteException(SchemaRegistryException.operationTimeoutException("register"), inFlight)));
+        CompletableFuture<Integer> next = locks.withLock("orders", () -> CompletableFuture.completedFuture(2));
+
+        CompletionException e = assertThrows(CompletionException.class, timedOut::join);
+        assertEquals(SchemaRegistryException.OPERATION_TIMEOUT_ERROR_CODE,
+            ((SchemaRegistryException) e.getCause()).getErrorCode());
+        assertFalse(next.isDone());
+        assertEquals(1, locks.getQueued(0));
+
+        inFlight.complete(null);
+        assertEquals(2, next.join());
+    }
+
+    @Test
+    void validationFailureReleasesAtOnceWhileAnotherWriteIsInFlight() {
+        SubjectLocks locks = new SubjectLocks(16, Runnable::run, 60000);
+        String other = "payments";
+        for (int i = 0; locks.stripeOf(other) == locks.stripeOf("orders"); i++) {
+            other = "payments-" + i;
+        }
+        locks.withLock(other, () -> CompletableFuture.failedFuture(new UnsettledWriteException(
+            SchemaRegistryException.operationTimeoutException("register"), new CompletableFuture<>())));
+
+        CompletableFuture<Integer> rejected = locks.withLock("orders", () -> {
+            throw SchemaRegistryException.incompatibleSchemaException("field removed");
+        });
+        assertThrows(CompletionException.class, rejected::join);
+        assertEquals(3, locks.withLock("orders", () -> CompletableFuture.completedFuture(3)).getNow(null));
+    }
+
+    @Test
+    void stripeIsReleasedWhenTheWriteNeverSettles() throws Exception {
+        SubjectLocks locks = new SubjectLocks(1, Runnable::run, 50);
+        locks.withLock("orders", () -> CompletableFuture.failedFuture(new UnsettledWriteException(
+            SchemaRegistryException.operationTimeoutException("register"), new CompletableFuture<>())));
+        CompletableFuture<Integer> next = locks.withLock("orders", () -> CompletableFuture.completedFuture(4));
+        assertEquals(4, next.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void concurrentOperationsNeverOverlap() throws Exception {
+        SubjectLocks locks = new SubjectLocks(4, ForkJoinPool.commonPool());
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        Executor writes = CompletableFuture.delayedExecutor(1, TimeUnit.MILLISECONDS);
+        List<CompletableFuture<Void>> results = new CopyOnWriteArrayList<>();
+
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            for (int t = 0; t < 8; t++) {
+                callers.submit(() -> {
+                    for (int i = 0; i < 50; i++) {
+                        results.add(locks.withLock("orders", () -> {
+                            if (active.incrementAndGet() != 1) {
+                                overlaps.incrementAndGet();
+                            }
+                            // The write completes later on another thread, as a Kafka readback does
+                            return CompletableFuture.runAsync(active::decrementAndGet, writes);
+                        }));
+                    }
+                });
+            }
+        } finally {
+            callers.shutdown();
+            assertTrue(callers.awaitTermination(10, TimeUnit.SECONDS));
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+
+        assertEquals(400, results.size());
+        assertEquals(0, overlaps.get());
+        assertEquals(400, locks.getAcquisitions(locks.stripeOf("orders")));
+    }
+}
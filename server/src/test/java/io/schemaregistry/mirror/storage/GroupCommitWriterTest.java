@@ -0,0 +1,65 @@
+package io.schemaregistry.mirror.storage;
+
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GroupCommitWriterTest {
+
+    @Test
+    void queuedWritesGoOutAsOneGroupInSubmissionOrder() throws Exception {
+        MockProducer<byte[], byte[]> producer = new MockProducer<>(false, new ByteArraySerializer(), new ByteArraySerializer());
+        GroupCommitWriter writer = new GroupCommitWriter(producer, "_schemas", 0, 100);
+
+        List<CompletableFuture<Long>> offsets = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            offsets.add(writer.submit(("key-" + i).getBytes(), ("value-" + i).getBytes()));
+        }
+        writer.start();
+        try {
+            for (int i = 0; i < offsets.size(); i++) {
+                assertEquals(i, offsets.get(i).get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            writer.shutdown();
+            writer.join(5000);
+        }
+
+        assertEquals(1, writer.getBatchCount());
+        assertEquals(10, writer.getRecordCount());
+        for (int i = 0; i < 10; i++) {
+            assertArrayEquals(("key-" + i).getBytes(), producer.history().get(i).key());
+        }
+        ExecutionException closed = assertThrows(ExecutionException.class,
+            () -> writer.submit(new byte[0], null).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, closed.getCause());
+    }
+
+    @Test
+    void sendFailuresFailTheWriteButNotTheWriter() throws Exception {
+        MockProducer<byte[], byte[]> producer = new MockProducer<>(true, new ByteArraySerializer(), new ByteArraySerializer());
+        producer.sendException = new KafkaException("broker unavailable");
+        GroupCommitWriter writer = new GroupCommitWriter(producer, "_schemas", 0, 100);
+        writer.start();
+        try {
+            CompletableFuture<Long> failed = writer.submit("key".getBytes(), "value".getBytes());
+            ExecutionException e = assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(KafkaException.class, e.getCause());
+
+            producer.sendException = null;
+            assertEquals(0L, writer.submit("key".getBytes(), "value".getBytes()).get(5, TimeUnit.SECONDS));
+        } finally {
+            writer.shutdown();
+            writer.join(5000);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package io.schemaregistry.mirror.storage;
+
+import io.schemaregistry.mirror.storage.model.IdLeaseValue;
+import io.schemaregistry.mirror.storage.model.SchemaValue;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdLeaseAllocatorTest {
+
+    // Stands in for _schemas: lease records are applied in the order they are written
+    private final InMemoryStore store = new InMemoryStore();
+    private final AtomicLong offsets = new AtomicLong();
+    private final List<IdLeaseValue> written = new ArrayList<>();
+
+    private synchronized CompletableFuture<Long> write(IdLeaseValue lease) {
+        long offset = offsets.getAndIncrement();
+        written.add(lease);
+        store.applyIdLease(lease, offset);
+        store.commit(offset);
+        return CompletableFuture.completedFuture(offset);
+    }
+
+    @Test
+    void allocatesWithinOneLeaseBeforeLeasingAgain() {
+        IdLeaseAllocator allocator = new IdLeaseAllocator("a", 3, store::snapshot, this::write);
+        for (int expected = 1; expected <= 4; expected++) {
+            assertEquals(expected, allocator.next().join());
+        }
+        assertEquals(2, written.size());
+        assertEquals(2, allocator.getRemaining());
+        assertEquals(6, store.snapshot().getMaxLeasedId());
+    }
+
+    @Test
+    void newLeaseStartsAboveRegisteredIds() {
+        store.put(new SchemaValue("orders", 1, 41, null, "AVRO", null, null, null, "\"string\"", false));
+        store.commit(0);
+        IdLeaseAllocator allocator = new IdLeaseAllocator("a", 10, store::snapshot, this::write);
+        assertEquals(42, allocator.next().join());
+    }
+
+    @Test
+    void skipsIdsRegisteredInsideTheLease() {
+        IdLeaseAllocator allocator = new IdLeaseAllocator("a", 10, store::snapshot, this::write);
+        assertEquals(1, allocator.next().join());
+        // An import registers id 2 with an explicit id
+        store.put(new SchemaValue("orders", 1, 2, null, "AVRO", null, null, null, "\"string\"", false));
+        store.commit(offsets.getAndIncrement());
+        assertEquals(3, allocator.next().join());
+    }
+
+    @Test
+    void overlappingLeaseIsRejectedAndRetried() {
+        IdLeaseAllocator first = new IdLeaseAllocator("a", 10, store::snapshot, this::write);
+        // The second writer's lease is computed from a snapshot that predates the first lease
+        StoreSnapshot stale = store.snapshot();
+        boolean[] staleOnce = {true};
+        IdLeaseAllocator second = new IdLeaseAllocator("b", 10, () -> {
+            if (staleOnce[0]) {
+                staleOnce[0] = false;
+                return stale;
+            }
+            return store.snapshot();
+        }, this::write);
+
+        assertEquals(1, first.next().join());
+        assertEquals(11, second.next().join());
+        assertEquals(1, second.getLeaseConflicts());
+        assertEquals(3, written.size());
+        assertEquals(2, first.next().join());
+    }
+
+    @Test
+    void leasesOfOneOwnerShareOneKey() {
+        IdLeaseAllocator allocator = new IdLeaseAllocator("a", 1, store::snapshot, this::write);
+        assertEquals(1, allocator.next().join());
+        assertEquals(2, allocator.next().join());
+        assertEquals(2, written.size());
+        assertEquals(written.get(0).toKey(), written.get(1).toKey());
+    }
+
+    @Test
+    void rejectedLeaseStillRaisesTheHighWaterMark() {
+        // The mark is the highest end in the topic, whichever lease records compaction keeps
+        assertTrue(store.applyIdLease(new IdLeaseValue("a", 1, 10), 0));
+        assertFalse(store.applyIdLease(new IdLeaseValue("b", 5, 30), 1));
+        store.commit(1);
+        assertEquals(30, store.snapshot().getMaxLeasedId());
+        assertEquals(0, store.snapshot().getLastLeaseOffset());
+    }
+
+    @Test
+    void concurrentCallersShareOneLeaseRequest() throws Exception {
+        CompletableFuture<Long> leaseWritten = new CompletableFuture<>();
+        IdLeaseAllocator allocator = new IdLeaseAllocator("a", 100, store::snapshot, lease -> {
+            CompletableFuture<Long> offset = write(lease);
+            return leaseWritten.thenCompose(v -> offset);
+        });
+
+        List<CompletableFuture<Integer>> ids = new CopyOnWriteArrayList<>();
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            for (int t = 0; t < 8; t++) {
+                callers.submit(() -> {
+                    for (int i = 0; i < 10; i++) {
+                        ids.add(allocator.next());
+                    }
+                });
+            }
+        } finally {
+            callers.shutdown();
+            assertTrue(callers.awaitTermination(10, TimeUnit.SECONDS));
+        }
+        leaseWritten.complete(0L);
+
+        Set<Integer> unique = new HashSet<>();
+        for (CompletableFuture<Integer> id : ids) {
+            unique.add(id.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(80, unique.size());
+        assertEquals(1, allocator.getLeaseRequests());
+        assertEquals(20, allocator.getRemaining());
+    }
+
+    @Test
+    void failedLeaseFailsTheAllocation() {
+        IdLeaseAllocator allocator = new IdLeaseAllocator("a", 10, store::snapshot,
+            lease -> CompletableFuture.failedFuture(new TimeoutException()));
+        CompletionException e = assertThrows(CompletionException.class, () -> allocator.next().join());
+        assertInstanceOf(TimeoutException.class, e.getCause());
+        assertEquals(0, store.snapshot().getMaxLeasedId());
+    }
+}
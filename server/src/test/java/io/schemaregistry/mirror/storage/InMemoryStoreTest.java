@@ -0,0 +1,353 @@
+package io.schemaregistry.mirror.storage;
+
+import io.confluent.kafka.schemaregistry.client.rest.entities.SchemaReference;
+import io.schemaregistry.mirror.storage.model.SchemaKey;
+import io.schemaregistry.mirror.storage.model.SchemaValue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryStoreTest {
+
+    private static final String SCHEMA_A = "{\"type\":\"string\"}";
+    private static final String SCHEMA_B = "{\"type\":\"int\"}";
+
+    private InMemoryStore store;
+    private long offset;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryStore();
+    }
+
+    @Test
+    void subjectsForSchemaIdAreSortedAndDistinct() {
+        store.put(schema("orders", 1, 1, SCHEMA_A));
+        store.put(schema("orders", 2, 1, SCHEMA_A));
+        store.put(schema("customers", 1, 1, SCHEMA_A));
+        store.put(schema("payments", 1, 2, SCHEMA_B));
+        commit();
+
+        assertEquals(List.of("customers", "orders"), snapshot().getSubjectsForSchemaId(1, false));
+        assertEquals(List.of("payments"), snapshot().getSubjectsForSchemaId(2, false));
+        assertTrue(snapshot().getSubjectsForSchemaId(3, true).isEmpty());
+    }
+
+    @Test
+    void subjectsForSchemaIdRespectDeletedFlag() {
+        store.put(schema("orders", 1, 1, SCHEMA_A));
+        store.put(schema("customers", 1, 1, SCHEMA_A));
+        store.markDeleted("customers", 1);
+        commit();
+
+        assertEquals(List.of("orders"), snapshot().getSubjectsForSchemaId(1, false));
+        assertEquals(List.of("customers", "orders"), snapshot().getSubjectsForSchemaId(1, true));
+
+        store.softDeleteSubject("orders");
+        commit();
+        assertTrue(snapshot().getSubjectsForSchemaId(1, false).isEmpty());
+    }
+
+    @Test
+    void versionsForSchemaIdTrackHardDeletes() {
+        store.put(schema("orders", 1, 1, SCHEMA_A));
+        store.put(schema("orders", 2, 1, SCHEMA_A));
+        store.put(schema("customers", 1, 1, SCHEMA_A));
+        commit();
+
+        assertEquals(3, snapshot().getVersionsForSchemaId(1, false).size());
+
+        store.markDeleted("orders", 1);
+        store.hardDelete("orders", 1);
+        commit();
+        List<Map<String, Object>> versions = snapshot().getVersionsForSchemaId(1, true);
+        assertEquals(2, versions.size());
+        assertEquals("customers", versions.get(0).get("subject"));
+        assertEquals("orders", versions.get(1).get("subject"));
+        assertEquals(2, versions.get(1).get("version"));
+
+        store.hardDeleteSubject("orders");
+        commit();
+        assertEquals(List.of("customers"), snapshot().getSubjectsForSchemaId(1, true));
+    }
+
+    @Test
+    void overwritingVersionMovesItToNewId() {
+        store.put(schema("orders", 1, 1, SCHEMA_A));
+        store.put(schema("orders", 1, 7, SCHEMA_A));
+        commit();
+
+        assertTrue(snapshot().getSubjectsForSchemaId(1, true).isEmpty());
+        assertEquals(List.of("orders"), snapshot().getSubjectsForSchemaId(7, true));
+    }
+
+    @Test
+    void referencedByListsLiveReferrers() {
+        store.put(schema("common", 1, 1, SCHEMA_A));
+        store.put(schema("orders", 1, 2, SCHEMA_B, new SchemaReference("Common", "common", 1)));
+        store.put(schema("customers", 1, 3, SCHEMA_B, new SchemaReference("Common", "common", 1)));
+        commit();
+
+        assertEquals(List.of(2, 3), snapshot().getReferencedBy("common", 1));
+
+        store.markDeleted("customers", 1);
+        commit();
+        assertEquals(List.of(2), snapshot().getReferencedBy("common", 1));
+
+        store.hardDelete("orders", 1);
+        commit();
+        assertTrue(snapshot().getReferencedBy("common", 1).isEmpty());
+    }
+
+    @Test
+    void transitiveReferencedByFollowsChains() {
+        store.put(schema("common", 1, 1, SCHEMA_A));
+        store.put(schema("address", 1, 2, SCHEMA_B, new SchemaReference("Common", "common", 1)));
+        store.put(schema("customer", 1, 3, SCHEMA_B, new SchemaReference("Address", "address", 1)));
+        store.put(schema("unrelated", 1, 4, SCHEMA_B));
+        commit();
+
+        Set<SchemaKey> dependents = snapshot().getTransitiveReferencedBy("common", 1);
+        assertEquals(Set.of(new SchemaKey("address", 1), new SchemaKey("customer", 1)), dependents);
+
+        store.hardDeleteSubject("address");
+        commit();
+        assertTrue(snapshot().getTransitiveReferencedBy("common", 1).isEmpty());
+    }
+
+    @Test
+    void lookupByContentUsesDigestIndex() {
+        SchemaReference common = new SchemaReference("Common", "common", 1);
+        store.put(schema("orders", 1, 5, SCHEMA_A));
+        store.put(schema("orders", 2, 6, SCHEMA_B, common));
+        store.put(schema("customers", 1, 6, SCHEMA_B, common));
+        commit();
+
+        assertEquals(2, snapshot().lookupSchemaByContent("orders", SCHEMA_B, "AVRO", List.of(common), false).getVersion());
+        assertNull(snapshot().lookupSchemaByContent("orders", SCHEMA_B, "AVRO", List.of(), false));
+        assertNull(snapshot().lookupSchemaByContent("orders", SCHEMA_A, "JSON", null, false));
+        assertNull(snapshot().lookupSchemaByContent("payments", SCHEMA_A, "AVRO", null, true));
+
+        store.markDeleted("orders", 1);
+        commit();
+        assertNull(snapshot().lookupSchemaByContent("orders", SCHEMA_A, "AVRO", null, false));
+        assertEquals(5, snapshot().lookupSchemaByContent("orders", SCHEMA_A, "AVRO", null, true).getId());
+        assertEquals(5, snapshot().lookupSchemaIdByContent(SCHEMA_A, "AVRO", null));
+        assertEquals(6, snapshot().lookupSchemaIdByContent(SCHEMA_B, "AVRO", List.of(common)));
+
+        store.hardDelete("orders", 1);
+        commit();
+        assertEquals(-1, snapshot().lookupSchemaIdByContent(SCHEMA_A, "AVRO", null));
+    }
+
+    @Test
+    void subjectMetadataTracksLiveAndLatestVersions() {
+        store.put(schema("orders", 1, 1, SCHEMA_A));
+        store.put(schema("orders", 2, 2, SCHEMA_B));
+        store.put(schema("orders", 3, 3, SCHEMA_A));
+        commit();
+
+        store.markDeleted("orders", 3);
+        commit();
+        assertEquals(2, snapshot().getLatestVersion("orders", false));
+        assertEquals(3, snapshot().getLatestVersion("orders", true));
+
+        store.markDeleted("orders", 2);
+        commit();
+        assertEquals(1, snapshot().getLatestVersion("orders", false));
+
+        store.hardDelete("orders", 3);
+        commit();
+        assertEquals(2, snapshot().getLatestVersion("orders", true));
+
+        store.markDeleted("orders", 1);
+        commit();
+        assertEquals(-1, snapshot().getLatestVersion("orders", false));
+        assertFalse(snapshot().hasSubject("orders", false));
+        assertTrue(snapshot().hasSubject("orders", true));
+        assertTrue(snapshot().isSubjectSoftDeleted("orders"));
+        assertTrue(snapshot().getSubjects(false).isEmpty());
+
+        store.put(schema("orders", 3, 3, SCHEMA_A));
+        commit();
+        assertEquals(3, snapshot().getLatestVersion("orders", false));
+        assertEquals(List.of("orders"), snapshot().getSubjects(false));
+
+        store.hardDeleteSubject("orders");
+        commit();
+        assertFalse(snapshot().hasSubject("orders", true));
+        assertEquals(-1, snapshot().getLatestVersion("orders", true));
+    }
+
+    @Test
+    void subjectPrefixQueriesAreRangeScans() {
+        store.put(schema("orders-value", 1, 1, SCHEMA_A));
+        store.put(schema("orders-key", 1, 2, SCHEMA_B));
+        store.put(schema("order", 1, 1, SCHEMA_A));
+        store.put(schema("payments-value", 1, 1, SCHEMA_A));
+        store.softDeleteSubject("orders-key");
+        commit();
+
+        assertEquals(List.of("order", "orders-value", "payments-value"), snapshot().getSubjects(false));
+        assertEquals(List.of("orders-value"), snapshot().getSubjects("orders", false));
+        assertEquals(List.of("orders-key", "orders-value"), snapshot().getSubjects("orders", true));
+        assertEquals(List.of("order", "orders-key", "orders-value"), snapshot().getSubjects("order", true));
+        assertTrue(snapshot().getSubjects("z", true).isEmpty());
+
+        store.hardDeleteSubject("orders-key");
+        commit();
+        assertEquals(List.of("orders-value"), snapshot().getSubjects("orders", true));
+    }
+
+    @Test
+    void allSchemasPageInIdOrderFromAPosition() {
+        store.put(schema("orders", 1, 2, SCHEMA_A));
+        store.put(schema("customers", 1, 2, SCHEMA_A));
+        store.put(schema("orders", 2, 1, SCHEMA_B));
+        store.put(schema("payments", 1, 3, SCHEMA_B));
+        store.markDeleted("payments", 1);
+        commit();
+
+        List<SchemaValue> first = snapshot().getAllSchemas(null, false, false, -1, null, 0, 2);
+        assertEquals(List.of(1, 2), first.stream().map(SchemaValue::getId).toList());
+        assertEquals("customers", first.get(1).getSubject());
+
+        SchemaValue last = first.get(1);
+        List<SchemaValue> rest = snapshot().getAllSchemas(null, false, false, last.getId(), last.toKey(), 0, 2);
+        assertEquals(1, rest.size());
+        assertEquals(new SchemaKey("orders", 1), rest.get(0).toKey());
+
+        assertEquals(4, snapshot().getAllSchemas(null, true, false, -1, null, 0, -1).size());
+        assertEquals(2, snapshot().getAllSchemas(null, true, false, -1, null, 2, -1).size());
+        assertEquals(List.of(new SchemaKey("orders", 2)),
+            snapshot().getAllSchemas("ord", false, true, -1, null, 0, -1).stream().map(SchemaValue::toKey).toList());
+    }
+
+    @Test
+    void prefixedListingMatchesTheFilteredFullListing() {
+        store.put(schema("orders-value", 1, 4, SCHEMA_A));
+        store.put(schema("orders-key", 1, 2, SCHEMA_A));
+        store.put(schema("orders-value", 2, 1, SCHEMA_B));
+        store.put(schema("orders-key", 2, 3, SCHEMA_B));
+        store.put(schema("order", 1, 2, SCHEMA_A));
+        store.put(schema("payments", 1, 1, SCHEMA_B));
+        store.markDeleted("orders-key", 2);
+        commit();
+
+        for (boolean deleted : List.of(false, true)) {
+            for (boolean latestOnly : List.of(false, true)) {
+                List<SchemaValue> expected = snapshot().getAllSchemas(null, deleted, latestOnly, -1, null, 0, -1)
+                    .stream().filter(sv -> sv.getSubject().startsWith("orders")).toList();
+                assertEquals(expected, snapshot().getAllSchemas("orders", deleted, latestOnly, -1, null, 0, -1));
+                assertEquals(expected.subList(1, 2),
+                    snapshot().getAllSchemas("orders", deleted, latestOnly, -1, null, 1, 1));
+                SchemaValue first = expected.get(0);
+                assertEquals(expected.subList(1, expected.size()),
+                    snapshot().getAllSchemas("orders", deleted, latestOnly, first.getId(), first.toKey(), 0, -1));
+            }
+        }
+        assertTrue(snapshot().getAllSchemas("orders", true, false, -1, null, 10, 5).isEmpty());
+    }
+
+    @Test
+    void snapshotsAreIsolatedFromLaterWrites() {
+        store.put(schema("orders", 1, 1, SCHEMA_A));
+        commit();
+        StoreSnapshot before = snapshot();
+
+        store.put(schema("orders", 2, 2, SCHEMA_B));
+        store.markDeleted("orders", 1);
+        assertSame(before, snapshot());
+
+        commit();
+        StoreSnapshot after = snapshot();
+        assertEquals(before.getGeneration() + 1, after.getGeneration());
+        assertEquals(offset, after.getOffset());
+
+        assertFalse(before.getSchema("orders", 1, false).isDeleted());
+        assertEquals(List.of(1), before.getVersions("orders", true));
+        assertEquals(1, before.getLatestVersion("orders", false));
+        assertTrue(after.getSchema("orders", 1, true).isDeleted());
+        assertEquals(List.of(2), after.getVersions("orders", false));
+        assertTrue(after.getSchemaById(1).isDeleted());
+    }
+
+    @Test
+    void schemaTextIsSharedAcrossSubjectsWithTheSameId() {
+        store.put(schema("orders", 1, 1, new String(SCHEMA_A)));
+        store.put(schema("customers", 1, 1, new String(SCHEMA_A)));
+        store.put(schema("payments", 1, 1, SCHEMA_B));
+        commit();
+
+        String orders = snapshot().getSchema("orders", 1, false).getSchema();
+        assertEquals(SCHEMA_A, orders);
+        assertSame(orders, snapshot().getSchema("customers", 1, false).getSchema());
+        assertSame(orders, snapshot().getSchemaById(1).getSchema());
+        assertEquals(SCHEMA_B, snapshot().getSchema("payments", 1, false).getSchema());
+        assertEquals(1, snapshot().lookupSchemaIdByContent(SCHEMA_A, "AVRO", null));
+
+        store.hardDeleteSubject("orders");
+        store.markDeleted("customers", 1);
+        commit();
+        assertEquals(SCHEMA_A, snapshot().getSchema("customers", 1, true).getSchema());
+        assertEquals(SCHEMA_A, snapshot().getSchemaById(1).getSchema());
+        assertEquals(SCHEMA_A, snapshot().lookupSchemaByContent("customers", SCHEMA_A, "AVRO", null, true).getSchema());
+
+        // GET /schemas/ids/1 still serves the text once every version is gone
+        store.hardDeleteSubject("customers");
+        commit();
+        assertEquals(SCHEMA_A, snapshot().getSchemaById(1).getSchema());
+    }
+
+    @Test
+    void compressedStorageRoundTripsSchemaText() {
+        store = new InMemoryStore(new SchemaTextStorage(SchemaTextStorage.Mode.COMPRESSED, 10));
+        StringBuilder fields = new StringBuilder();
+        for (int id = 1; id <= 200; id++) {
+            fields.append(",{\"name\":\"field").append(id).append("\",\"type\":\"string\"}");
+            String text = "{\"type\":\"record\",\"name\":\"Envelope\",\"fields\":[" + fields.substring(1) + "]}";
+            store.put(schema("events-" + id, 1, id, text));
+        }
+        store.put(schema("unicode", 1, 201, "{\"doc\":\"\u00e9v\u00e9nement \u2713\"}"));
+        commit();
+
+        SchemaTextStorage textStorage = store.getTextStorage();
+        long plainBytes = 0;
+        for (int id = 1; id <= 201; id++) {
+            plainBytes += snapshot().getSchemaById(id).getSchema().length();
+        }
+        assertTrue(textStorage.getStoredBytes() < plainBytes / 4);
+        assertEquals("{\"doc\":\"\u00e9v\u00e9nement \u2713\"}", snapshot().getSchemaById(201).getSchema());
+        assertTrue(snapshot().getSchema("events-200", 1, false).getSchema().endsWith("\"field200\",\"type\":\"string\"}]}"));
+        assertEquals(200, snapshot().lookupSchemaIdByContent(snapshot().getSchemaById(200).getSchema(), "AVRO", null));
+
+        snapshot().getSchemaById(201);
+        assertTrue(textStorage.getCacheHitRatio() > 0);
+        assertTrue(textStorage.getCacheSize() <= 10);
+
+        // The id keeps its text, and its memory, after its versions are hard-deleted
+        long storedBytes = textStorage.getStoredBytes();
+        store.hardDeleteSubject("unicode");
+        commit();
+        assertEquals("{\"doc\":\"\u00e9v\u00e9nement \u2713\"}", snapshot().getSchemaById(201).getSchema());
+        assertEquals(storedBytes, textStorage.getStoredBytes());
+    }
+
+    private void commit() {
+        store.commit(++offset);
+    }
+
+    private StoreSnapshot snapshot() {
+        return store.snapshot();
+    }
+
+    private static SchemaValue schema(String subject, int version, int id, String schema,
+                                      SchemaReference... references) {
+        return new SchemaValue(subject, version, id, null, "AVRO", List.of(references), null, null, schema, false);
+    }
+}
@@ -0,0 +1,147 @@
+package io.schemaregistry.mirror.storage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.schemaregistry.mirror.schema.CompatibilityLevel;
+import io.schemaregistry.mirror.storage.model.*;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KafkaStoreReaderThreadTest {
+
+    private static final String TOPIC = "_schemas";
+    private static final TopicPartition PARTITION = new TopicPartition(TOPIC, 0);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MockConsumer<byte[], byte[]> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+    private final List<ConsumerRecord<byte[], byte[]>> records = new ArrayList<>();
+
+    @Test
+    void parallelDecodeAppliesRecordsInOffsetOrder() throws Exception {
+        // Enough records to be split into chunks, with later records depending on earlier ones
+        int versions = 500;
+        for (int version = 1; version <= versions; version++) {
+            add(new SchemaKey("orders", version), schema("orders", version, version));
+        }
+        add(new SchemaKey("orders", 7), null);
+        add(new SchemaKey("orders", 8), schema("orders", 8, 1000));
+        records.add(new ConsumerRecord<>(TOPIC, 0, records.size(), "not json".getBytes(), new byte[0]));
+        add(new ConfigKey("orders"), new ConfigValue("orders", CompatibilityLevel.FULL));
+        add(new DeleteSubjectKey("payments"), null);
+        add(new SchemaKey("payments", 1), schema("payments", 1, 2000));
+        // Leases under the per-lease keys written before leases were keyed per owner
+        add(new IdLeaseKey("old", 1), new IdLeaseValue("old", 1, 10));
+        add(new IdLeaseKey("old", 11), new IdLeaseValue("old", 11, 20));
+        add(new IdLeaseKey("old", 1), null);
+        IdLeaseValue lease = new IdLeaseValue("a", 2001, 2020);
+        add(lease.toKey(), lease);
+        // Overlaps the lease before it, so it is not accepted
+        IdLeaseValue overlapping = new IdLeaseValue("b", 2001, 2020);
+        add(overlapping.toKey(), overlapping);
+        long endOffset = records.size();
+        consumer.schedulePollTask(() -> records.forEach(consumer::addRecord));
+        consumer.updateBeginningOffsets(Map.of(PARTITION, 0L));
+        consumer.updateEndOffsets(Map.of(PARTITION, endOffset));
+
+        InMemoryStore store = new InMemoryStore();
+        KafkaStoreReaderThread reader = new KafkaStoreReaderThread(consumer, TOPIC, store, objectMapper, -1, 4);
+        reader.start();
+        try {
+            assertTrue(reader.waitForInitialLoad(10000));
+        } finally {
+            reader.shutdown();
+            reader.join(5000);
+        }
+
+        StoreSnapshot snapshot = store.snapshot();
+        assertEquals(endOffset - 1, snapshot.getOffset());
+        assertEquals(endOffset - 1, reader.getLastWrittenOffset());
+        assertEquals(versions - 1, snapshot.getVersions("orders", true).size());
+        assertNull(snapshot.getSchema("orders", 7, true));
+        assertEquals(1000, snapshot.getSchema("orders", 8, false).getId());
+        assertEquals(Long.valueOf(versions + 1), snapshot.getSchema("orders", 8, false).getOffset());
+        assertEquals(CompatibilityLevel.FULL, snapshot.getSubjectCompatibilityLevel("orders"));
+        assertEquals(List.of(1), snapshot.getVersions("payments", false));
+        assertEquals(2020, snapshot.getMaxLeasedId());
+        assertEquals(endOffset - 2, snapshot.getLastLeaseOffset());
+        assertEquals(List.of(new IdLeaseKey("old", 11)), snapshot.getLegacyLeasesEndingBelow(2001));
+        assertEquals(endOffset, reader.getRecordsRead());
+        assertTrue(reader.getDecodeNanos() > 0);
+        assertTrue(reader.getApplyNanos() > 0);
+    }
+
+    @Test
+    void recordsOfADeposedLeaderAreIgnored() throws Exception {
+        add(new NoopKey(1), null, 1);
+        add(new SchemaKey("orders", 1), schema("orders", 1, 1), 1);
+        add(new NoopKey(2), null, 2);
+        // Written by the leader of epoch 1 after its successor announced itself
+        add(new SchemaKey("orders", 2), schema("orders", 2, 2), 1);
+        add(new SchemaKey("orders", 2), schema("orders", 2, 3), 2);
+        // A second leader claiming an epoch already announced
+        add(new NoopKey(2), null, 2);
+        // Untagged records come from instances without leader election
+        add(new SchemaKey("payments", 1), schema("payments", 1, 4));
+        consumer.schedulePollTask(() -> records.forEach(consumer::addRecord));
+        consumer.updateBeginningOffsets(Map.of(PARTITION, 0L));
+        consumer.updateEndOffsets(Map.of(PARTITION, (long) records.size()));
+
+        InMemoryStore store = new InMemoryStore();
+        KafkaStoreReaderThread reader = new KafkaStoreReaderThread(consumer, TOPIC, store, objectMapper);
+        CompletableFuture<Long> fencedWrite = reader.whenApplied(3);
+        reader.start();
+        try {
+            assertTrue(reader.waitForInitialLoad(10000));
+        } finally {
+            reader.shutdown();
+            reader.join(5000);
+        }
+
+        StoreSnapshot snapshot = store.snapshot();
+        assertEquals(2, snapshot.getFencedEpoch());
+        assertEquals(List.of(1, 2), snapshot.getVersions("orders", false));
+        assertEquals(3, snapshot.getSchema("orders", 2, false).getId());
+        assertNull(snapshot.getSchemaById(2));
+        assertEquals(List.of(1), snapshot.getVersions("payments", false));
+        assertTrue(fencedWrite.isCompletedExceptionally());
+        assertTrue(reader.whenApplied(3).isCompletedExceptionally());
+        assertTrue(reader.whenApplied(5).isCompletedExceptionally());
+        assertEquals(6L, reader.whenApplied(4).get());
+    }
+
+    // All records are handed out by the first poll, as one batch
+    private void add(SchemaRegistryKey key, SchemaRegistryValue value) throws Exception {
+        add(key, value, 0);
+    }
+
+    // As add(key, value), tagged with the writer's leader epoch unless it is 0
+    private void add(SchemaRegistryKey key, SchemaRegistryValue value, int epoch) throws Exception {
+        byte[] keyBytes = objectMapper.writeValueAsBytes(key);
+        byte[] valueBytes = value != null ? objectMapper.writeValueAsBytes(value) : null;
+        RecordHeaders headers = new RecordHeaders();
+        if (epoch != 0) {
+            headers.add(GroupCommitWriter.EPOCH_HEADER, ByteBuffer.allocate(4).putInt(epoch).array());
+        }
+        records.add(new ConsumerRecord<>(TOPIC, 0, records.size(), ConsumerRecord.NO_TIMESTAMP,
+            TimestampType.NO_TIMESTAMP_TYPE, keyBytes.length, valueBytes != null ? valueBytes.length : 0,
+            keyBytes, valueBytes, headers, Optional.empty()));
+    }
+
+    private static SchemaValue schema(String subject, int version, int id) {
+        return new SchemaValue(subject, version, id, null, "AVRO", null, null, null,
+            "{\"type\":\"record\",\"name\":\"V" + version + "\",\"fields\":[]}", false);
+    }
+}
@@ -0,0 +1,79 @@
+package io.schemaregistry.mirror.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffsetWaitersTest {
+
+    @Test
+    void completesWaitersUpToTheAppliedOffset() {
+        OffsetWaiters waiters = new OffsetWaiters(-1);
+        assertTrue(waiters.waitFor(-1).isDone());
+
+        CompletableFuture<Long> first = waiters.waitFor(3);
+        CompletableFuture<Long> second = waiters.waitFor(5);
+        assertSame(first, waiters.waitFor(3));
+        assertEquals(2, waiters.pending());
+
+        waiters.advance(4);
+        assertEquals(4L, first.join());
+        assertFalse(second.isDone());
+
+        waiters.advance(2);
+        assertEquals(4, waiters.getAppliedOffset());
+        assertTrue(waiters.waitFor(4).isDone());
+
+        waiters.failAll(new IllegalStateException("stopped"));
+        assertTrue(second.isCompletedExceptionally());
+        assertEquals(0, waiters.pending());
+
+        // The reader has stopped, so a later waiter fails instead of hanging
+        assertTrue(waiters.waitFor(6).isCompletedExceptionally());
+        assertEquals(0, waiters.pending());
+    }
+
+    @Test
+    void noWaiterIsMissedWhileTheOffsetAdvances() throws Exception {
+        OffsetWaiters waiters = new OffsetWaiters(-1);
+        int offsets = 20000;
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicLong next = new AtomicLong();
+        List<CompletableFuture<Long>> futures = new ArrayList<>();
+        try {
+            List<Future<?>> registrations = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                registrations.add(pool.submit(() -> {
+                    started.countDown();
+                    List<CompletableFuture<Long>> mine = new ArrayList<>();
+                    long offset;
+                    while ((offset = next.getAndIncrement()) < offsets) {
+                        mine.add(waiters.waitFor(offset));
+                    }
+                    synchronized (futures) {
+                        futures.addAll(mine);
+                    }
+                }));
+            }
+            started.await();
+            for (long offset = 0; offset < offsets; offset++) {
+                waiters.advance(offset);
+            }
+            for (Future<?> registration : registrations) {
+                registration.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        for (CompletableFuture<Long> future : futures) {
+            assertTrue(future.isDone());
+        }
+        assertEquals(0, waiters.pending());
+    }
+}
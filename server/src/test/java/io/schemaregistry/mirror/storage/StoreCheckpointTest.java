@@ -0,0 +1,128 @@
+package io.schemaregistry.mirror.storage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.confluent.kafka.schemaregistry.client.rest.entities.SchemaReference;
+import io.schemaregistry.mirror.schema.CompatibilityLevel;
+import io.schemaregistry.mirror.storage.model.IdLeaseKey;
+import io.schemaregistry.mirror.storage.model.IdLeaseValue;
+import io.schemaregistry.mirror.storage.model.SchemaValue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StoreCheckpointTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void restoresTheCheckpointedState() throws IOException {
+        InMemoryStore store = new InMemoryStore();
+        store.put(schema("common", 1, 1, "{\"type\":\"string\"}", 0));
+        store.put(schema("orders", 1, 2, "{\"type\":\"int\"}", 1,
+            new SchemaReference("common", "common", 1)));
+        store.put(schema("payments", 1, 2, "{\"type\":\"int\"}", 2));
+        store.put(schema("payments", 2, 3, "{\"type\":\"long\"}", 3));
+        store.put(schema("gone", 1, 4, "{\"type\":\"bytes\"}", 4));
+        store.markDeleted("payments", 2);
+        store.hardDeleteSubject("gone");
+        store.setSubjectCompatibilityLevel("orders", CompatibilityLevel.FULL);
+        store.setGlobalMode("READONLY");
+        store.applyIdLease(new IdLeaseValue("a", 5, 24), 5);
+        store.fence(3);
+        store.commit(6);
+        StoreCheckpoint checkpoint = checkpoint("_schemas");
+        checkpoint.write(store.snapshot());
+
+        StoreCheckpoint.State state = checkpoint.load();
+        assertEquals(6, state.getOffset());
+        InMemoryStore restored = new InMemoryStore();
+        state.applyTo(restored);
+        restored.commit(state.getOffset());
+
+        StoreSnapshot before = store.snapshot();
+        StoreSnapshot after = restored.snapshot();
+        assertEquals(before.getAllVersionsInOffsetOrder(), after.getAllVersionsInOffsetOrder());
+        assertEquals(before.getAllSchemasById(), after.getAllSchemasById());
+        assertEquals(List.of("common", "orders", "payments"), after.getSubjects(false));
+        assertEquals(1, after.getLatestVersion("payments", false));
+        assertEquals("{\"type\":\"bytes\"}", after.getSchemaById(4).getSchema());
+        assertEquals(List.of(2), after.getReferencedBy("common", 1));
+        assertEquals(CompatibilityLevel.FULL, after.getSubjectCompatibilityLevel("orders"));
+        assertEquals("READONLY", after.getGlobalMode());
+        assertEquals(4, after.getMaxSchemaId());
+        assertEquals(24, after.getMaxLeasedId());
+        assertEquals(3, after.getFencedEpoch());
+        assertEquals(Long.valueOf(3), after.getSchema("payments", 2, true).getOffset());
+    }
+
+    @Test
+    void restoredLeaseStateMatchesTheReplayedStore() throws IOException {
+        InMemoryStore replayed = new InMemoryStore();
+        IdLeaseKey legacy = new IdLeaseKey("old", 11);
+        replayed.applyIdLease(new IdLeaseValue("old", 11, 30), 3);
+        replayed.addLegacyLease(legacy, 30);
+        replayed.applyIdLease(new IdLeaseValue("a", 31, 50), 7);
+        replayed.commit(7);
+        StoreCheckpoint checkpoint = checkpoint("_schemas");
+        checkpoint.write(replayed.snapshot());
+
+        InMemoryStore restored = new InMemoryStore();
+        StoreCheckpoint.State state = checkpoint.load();
+        state.applyTo(restored);
+        restored.commit(state.getOffset());
+
+        StoreSnapshot after = restored.snapshot();
+        assertEquals(replayed.snapshot().getMaxLeasedId(), after.getMaxLeasedId());
+        assertEquals(7, after.getLastLeaseOffset());
+        assertEquals(Map.of(legacy, 30), after.getLegacyLeases());
+        assertEquals(List.of(legacy), after.getLegacyLeasesEndingBelow(51));
+
+        // The tail after the checkpoint is applied the same way on both
+        for (InMemoryStore store : List.of(replayed, restored)) {
+            assertFalse(store.applyIdLease(new IdLeaseValue("b", 40, 60), 8));
+            assertTrue(store.applyIdLease(new IdLeaseValue("b", 61, 80), 9));
+            store.removeLegacyLease(legacy);
+            store.commit(9);
+        }
+        assertEquals(replayed.snapshot().getMaxLeasedId(), restored.snapshot().getMaxLeasedId());
+        assertEquals(replayed.snapshot().getLegacyLeases(), restored.snapshot().getLegacyLeases());
+    }
+
+    @Test
+    void rejectsCorruptOrForeignCheckpoints() throws IOException {
+        InMemoryStore store = new InMemoryStore();
+        store.put(schema("orders", 1, 1, "{\"type\":\"string\"}", 0));
+        store.commit(0);
+        checkpoint("_schemas").write(store.snapshot());
+
+        assertNull(checkpoint("_other_schemas").load());
+        assertNull(new StoreCheckpoint(dir.resolve("missing"), "_schemas", "BACKWARD", "READWRITE", objectMapper).load());
+
+        Path file = dir.resolve("checkpoint");
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 5] ^= 0x1;
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> checkpoint("_schemas").load());
+    }
+
+    private StoreCheckpoint checkpoint(String topic) {
+        return new StoreCheckpoint(dir.resolve("checkpoint"), topic, "BACKWARD", "READWRITE", objectMapper);
+    }
+
+    private static SchemaValue schema(String subject, int version, int id, String schema, long offset,
+                                      SchemaReference... references) {
+        SchemaValue value = new SchemaValue(subject, version, id, null, "AVRO", List.of(references), null, null, schema, false);
+        value.setOffset(offset);
+        return value;
+    }
+}